@@ -0,0 +1,183 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for loading a pack and for playing whole games with real player threads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CardGameBenchmark {
+
+    /**
+     * A pack file on disk for CardGame.loadPack and loadPackValues.
+     */
+    @State(Scope.Benchmark)
+    public static class PackFile {
+        @Param({"800", "80000", "8000000"})
+        public int packSize;
+
+        Path path;
+        // The same values converted to a varint binary pack
+        Path binaryPath;
+
+        @Setup
+        public void setUp() throws IOException {
+            path = Files.createTempFile("pack", ".txt");
+            SplittableRandom random = new SplittableRandom(1);
+            List<String> lines = new ArrayList<>(packSize);
+            for (int i = 0; i < packSize; i++) {
+                lines.add(Integer.toString(random.nextInt(1000)));
+            }
+            Files.write(path, lines);
+            binaryPath = Files.createTempFile("pack", ".bin");
+            PackConverter.convert(path, binaryPath, BinaryPack.Encoding.VARINT);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(binaryPath);
+        }
+    }
+
+    /**
+     * A freshly dealt game, rebuilt before every run so only playing it is timed.
+     */
+    @State(Scope.Thread)
+    public static class Game {
+        @Param({"4", "100", "1000", "10000"})
+        public int numPlayers;
+
+        @Param({"false", "true"})
+        public boolean logging;
+
+        // The binary journal, compared against text logging
+        @Param({"false", "true"})
+        public boolean journal;
+
+        // Players as tasks on one worker per core instead of a thread each
+        @Param({"false", "true"})
+        public boolean cooperative;
+
+        CardGame game;
+        private long seed;
+        private Path journalPath;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws IOException {
+            game = new CardGame(numPlayers, winnablePack(numPlayers, seed++));
+            game.setLoggingEnabled(logging);
+            if (cooperative) {
+                game.setThreadMode(ThreadMode.COOPERATIVE);
+            } else {
+                game.setThreadMode(numPlayers > 1000 ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM);
+            }
+            if (journal) {
+                journalPath = Files.createTempFile("game", ".journal");
+                game.setJournalPath(journalPath);
+            }
+            game.initialiseGame();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            if (journalPath != null) {
+                Files.deleteIfExists(journalPath);
+            }
+        }
+    }
+
+    /**
+     * A freshly dealt game on platform threads, for comparing how players wait on an empty deck.
+     * With more players than cores spinning players take turns away from the ones with cards.
+     */
+    @State(Scope.Thread)
+    public static class WaitingGame {
+        @Param({"4", "16", "100"})
+        public int numPlayers;
+
+        @Param({"PARK", "SPIN", "ADAPTIVE"})
+        public WaitPolicy waitPolicy;
+
+        CardGame game;
+        private long seed;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            game = new CardGame(numPlayers, winnablePack(numPlayers, seed++));
+            game.setLoggingEnabled(false);
+            game.setWaitPolicy(waitPolicy);
+            game.initialiseGame();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Card> loadPack(PackFile pack) throws IOException {
+        return CardGame.loadPack(pack.path.toString());
+    }
+
+    // The same file parsed from a memory map straight into an int array
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int[] loadPackValues(PackFile pack) throws IOException {
+        return CardGame.loadPackValues(pack.path.toString());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int[] loadBinaryPack(PackFile pack) throws IOException {
+        return CardGame.loadPackValues(pack.binaryPath.toString());
+    }
+
+    // Time for every player thread to run until someone wins, including shutdown
+    @Benchmark
+    public CardGame playGame(Game state) {
+        state.game.startGame();
+        return state.game;
+    }
+
+    // The same, with each wait policy for players starved by an empty left deck
+    @Benchmark
+    public CardGame playGameWaiting(WaitingGame state) {
+        state.game.startGame();
+        return state.game;
+    }
+
+    /**
+     * Builds a pack with values from 1 to n, so on average every player's preferred value appears 8 times
+     * and the game is certain to end.
+     */
+    static List<Card> winnablePack(int numPlayers, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Card> pack = new ArrayList<>(numPlayers * 8);
+        for (int i = 0; i < numPlayers * 8; i++) {
+            pack.add(new Card(1 + random.nextInt(numPlayers)));
+        }
+        return pack;
+    }
+}
@@ -0,0 +1,126 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmarks for Deck.addCard and Deck.drawCard, on one thread and with a producer and consumer racing on one deck,
+ * and for handing cards one at a time to a drawer waiting on the empty deck with each wait policy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    /**
+     * A deck used by a single thread.
+     */
+    @State(Scope.Thread)
+    public static class SingleDeck {
+        Deck deck;
+        Card card;
+
+        @Setup
+        public void setUp() {
+            deck = new Deck(1);
+            card = new Card(7);
+            for (int i = 0; i < 4; i++) {
+                deck.addCard(new Card(i));  // Decks hold 4 cards in a game
+            }
+        }
+    }
+
+    /**
+     * A deck shared by the producer and consumer threads of a group, like the two players either side of it.
+     */
+    @State(Scope.Group)
+    public static class SharedDeck {
+        Deck deck;
+        Card card;
+
+        @Setup
+        public void setUp() {
+            deck = new Deck(1);
+            card = new Card(7);
+        }
+    }
+
+    /**
+     * A deck the producer only adds to once it is empty, so the consumer waits for every card like a starved player.
+     */
+    @State(Scope.Group)
+    public static class HandoffDeck {
+        @Param({"PARK", "SPIN", "ADAPTIVE"})
+        public WaitPolicy waitPolicy;
+
+        Deck deck;
+        Card card;
+        volatile Thread drawer;
+
+        @Setup
+        public void setUp() {
+            deck = new Deck(1);
+            card = new Card(7);
+        }
+    }
+
+    // One discard and one draw, the deck's share of a turn
+    @Benchmark
+    public Card addThenDraw(SingleDeck state) {
+        state.deck.addCard(state.card);
+        return state.deck.drawCard();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public boolean producer(SharedDeck state) {
+        return state.deck.tryAdd(state.card);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public Card consumer(SharedDeck state) {
+        return state.deck.tryDraw();
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean handOver(HandoffDeck state, Control control) {
+        while (!state.deck.isEmpty()) {
+            if (control.stopMeasurement) {
+                LockSupport.unpark(state.drawer);  // Don't leave the drawer parked once we stop adding
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return state.deck.tryAdd(state.card);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Card waitForCard(HandoffDeck state, Control control) {
+        state.drawer = Thread.currentThread();
+        return state.deck.awaitCard(state.waitPolicy, () -> control.stopMeasurement) ? state.deck.tryDraw() : null;
+    }
+}
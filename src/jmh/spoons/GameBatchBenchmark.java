@@ -0,0 +1,95 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole batches of games played off-heap by GameBatch, against the same games played by GameSimulator.runBatch,
+ * which keeps a simulator and a result object on the heap for every game.
+ * Run with -prof gc to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBatchBenchmark {
+
+    @Param({"4", "20"})
+    public int numPlayers;
+
+    @Param({"10000", "1000000"})
+    public int numGames;
+
+    private int[] pack;
+    private GameBatch batch;
+    private long seed;
+
+    /**
+     * Turns taken, reported by JMH alongside the time per batch.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Turns {
+        public long turns;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            turns = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        pack = new int[numPlayers * 8];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = 1 + i % numPlayers;  // Every value 8 times, so every game ends
+        }
+        batch = new GameBatch(numGames, numPlayers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batch.close();
+    }
+
+    @Benchmark
+    public long offHeapBatch(Turns counter) {
+        batch.dealShuffled(pack, seed++, ForkJoinPool.commonPool());
+        batch.play(Long.MAX_VALUE, ForkJoinPool.commonPool());
+        long turns = 0;
+        for (int game = 0; game < numGames; game++) {
+            turns += batch.getTurns(game);
+        }
+        counter.turns += turns;
+        return turns;
+    }
+
+    @Benchmark
+    public long simulatorBatch(Turns counter) {
+        List<SimulationResult> results = GameSimulator.runBatch(numPlayers, pack, numGames, seed++, Long.MAX_VALUE);
+        long turns = 0;
+        for (SimulationResult result : results) {
+            turns += result.turns();
+        }
+        counter.turns += turns;
+        return turns;
+    }
+}
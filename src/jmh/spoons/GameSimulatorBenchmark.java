@@ -0,0 +1,69 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns per second of whole games played by the headless GameSimulator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameSimulatorBenchmark {
+
+    @Param({"4", "100", "1000", "10000"})
+    public int numPlayers;
+
+    private GameSimulator simulator;
+    private int[] pack;
+    private SplittableRandom random;
+
+    /**
+     * Turns taken, reported by JMH alongside games per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Turns {
+        public long turns;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            turns = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        simulator = new GameSimulator(numPlayers);
+        pack = new int[numPlayers * 8];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = 1 + i % numPlayers;  // Every value 8 times, so every game ends
+        }
+        random = new SplittableRandom(1);
+    }
+
+    @Benchmark
+    public SimulationResult playGame(Turns counter) {
+        GameSimulator.shuffle(pack, random);
+        SimulationResult result = simulator.simulate(pack, Long.MAX_VALUE);
+        counter.turns += result.turns();
+        return result;
+    }
+}
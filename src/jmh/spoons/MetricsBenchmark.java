@@ -0,0 +1,94 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows what the metrics cost: the work added to every turn on its own, and whole games with metrics on and off.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MetricsBenchmark {
+
+    /**
+     * One player's histograms, as recorded on every turn.
+     */
+    @State(Scope.Thread)
+    public static class PlayerMetrics {
+        final LatencyHistogram turnLatency = new LatencyHistogram();
+        final LatencyHistogram drawLatency = new LatencyHistogram();
+    }
+
+    /**
+     * Counters shared by every player in a game.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedMetrics {
+        GameMetrics metrics;
+
+        @Setup
+        public void setUp() {
+            metrics = new GameMetrics(new CardGame(1, new int[8]));
+        }
+    }
+
+    /**
+     * A freshly dealt game, the same sequence of packs is played with metrics on and off.
+     */
+    @State(Scope.Thread)
+    public static class Game {
+        @Param({"100", "1000"})
+        public int numPlayers;
+
+        @Param({"false", "true"})
+        public boolean metrics;
+
+        CardGame game;
+        private long seed;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            game = new CardGame(numPlayers, CardGameBenchmark.winnablePack(numPlayers, seed++));
+            game.setLoggingEnabled(false);
+            game.setMetricsEnabled(metrics);
+            game.initialiseGame();
+        }
+    }
+
+    // Everything a turn adds when metrics are on, from 8 threads so the shared counter sees contention
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Threads(8)
+    public void recordTurn(PlayerMetrics player, SharedMetrics shared) {
+        long start = System.nanoTime();
+        long drawn = System.nanoTime();
+        shared.metrics.recordTurn();
+        player.drawLatency.record(drawn - start);
+        player.turnLatency.record(System.nanoTime() - start);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MetricsSnapshot playGame(Game state) {
+        state.game.startGame();
+        return state.game.getMetrics().snapshot();
+    }
+}
@@ -0,0 +1,73 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the parts of Player.playTurn that run on every turn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    // Hand the player holds: no preferred cards, some, or three of a kind one short of winning
+    @Param({"2 3 4 5", "1 2 1 3", "1 1 1 2"})
+    public String hand;
+
+    // Discard strategy the player uses
+    @Param({"preferred", "least-frequent", "adaptive", "random"})
+    public String strategy;
+
+    private Player player;
+    private Card drawn;
+
+    @Setup
+    public void setUp() {
+        List<Card> pack = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            pack.add(new Card(i));
+        }
+        CardGame game = new CardGame(2, pack);
+        game.setLoggingEnabled(false);
+        player = new Player(1, 1, new Deck(1), new Deck(2), game);
+        player.setDiscardStrategy(switch (strategy) {
+            case "least-frequent" -> new LeastFrequentDiscard();
+            case "adaptive" -> new AdaptiveDiscard();
+            case "random" -> new RandomDiscard(42);
+            default -> new PreferredDiscard();
+        });
+        for (String value : hand.split(" ")) {
+            player.receiveCard(new Card(Integer.parseInt(value)));
+        }
+        drawn = new Card(1);
+    }
+
+    @Benchmark
+    public boolean isWinningCondition() {
+        return player.isWinningCondition();
+    }
+
+    // Draw then discard, so the hand is back to 4 cards for the next call
+    @Benchmark
+    public Card receiveAndDiscard() {
+        player.receiveCard(drawn);
+        return player.discardCard();
+    }
+}
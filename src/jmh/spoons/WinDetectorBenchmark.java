@@ -0,0 +1,77 @@
+package spoons;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per hand to find every four of a kind in a batch of hands: vectorised, with the scalar fallback,
+ * and one Hand at a time as Player.isWinningCondition does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@OperationsPerInvocation(WinDetectorBenchmark.HANDS)
+public class WinDetectorBenchmark {
+    static final int HANDS = 1 << 16;
+
+    // Share of hands that are four of a kind
+    @Param({"0.0", "0.01"})
+    public double winRate;
+
+    private int[] hands;
+    private Hand[] handObjects;
+    private long[] winners;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        hands = new int[HANDS * 4];
+        handObjects = new Hand[HANDS];
+        for (int h = 0; h < HANDS; h++) {
+            boolean win = random.nextDouble() < winRate;
+            handObjects[h] = new Hand();
+            for (int i = 0; i < 4; i++) {
+                hands[h * 4 + i] = win ? 7 : h * 4 + i;
+                handObjects[h].add(hands[h * 4 + i]);
+            }
+        }
+        winners = new long[HANDS / 64];
+    }
+
+    @Benchmark
+    public int vectorised() {
+        return WinDetector.winningHands(hands, HANDS, winners);
+    }
+
+    @Benchmark
+    public int scalar() {
+        return WinDetector.scalarWinningHands(hands, HANDS, winners);
+    }
+
+    @Benchmark
+    public int handObjects() {
+        int count = 0;
+        for (Hand hand : handObjects) {
+            if (hand.hasFourOfAKind()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
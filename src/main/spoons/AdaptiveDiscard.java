@@ -0,0 +1,44 @@
+package spoons;
+
+/**
+ * Starts out keeping the player's preferred denomination, then switches to whichever value the hand
+ * holds more of, so a player dealt three 7s goes for 7s instead of breaking them up.
+ * The target only changes when another value is held strictly more often, and the oldest card
+ * that isn't the target is discarded.
+ */
+public class AdaptiveDiscard implements DiscardStrategy {
+    // Value currently being collected, unset until the first turn
+    private int target;
+    private boolean targetSet;
+
+    @Override
+    public int chooseDiscard(Hand hand, int preferredDenomination) {
+        if (!targetSet) {
+            target = preferredDenomination;
+            targetSet = true;
+        }
+        int targetCount = hand.count(target);
+        for (int i = 0; i < hand.distinctCount(); i++) {
+            int value = hand.distinctValue(i);
+            int count = hand.count(value);
+            if (count > targetCount) {
+                target = value;
+                targetCount = count;
+            }
+        }
+
+        int slot = hand.firstSlot();
+        while (slot != Hand.NONE && hand.valueAt(slot) == target) {
+            slot = hand.nextSlot(slot);
+        }
+        return slot == Hand.NONE ? hand.firstSlot() : slot;
+    }
+
+    /**
+     * Returns the value this strategy is currently collecting.
+     * @return The target value, or 0 before the first turn.
+     */
+    public int getTarget() {
+        return target;
+    }
+}
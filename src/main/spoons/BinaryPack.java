@@ -0,0 +1,398 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes the binary card pack format, a compact alternative to text packs for very large games.
+ * <p>
+ * A binary pack is a 28 byte big-endian header followed by the card values:
+ * <pre>
+ *  0  magic           0x89 'S' 'P' 'K', never the start of a text pack
+ *  4  version         u16, currently 1
+ *  6  encoding        u8, 0 for 4 byte ints, 1 for zigzag varints
+ *  7  reserved        u8, 0
+ *  8  card count      u32
+ * 12  player count    u32, the pack holds exactly 8 cards per player
+ * 16  payload length  u64, bytes of values after the header
+ * 24  checksum        u32, CRC32C of the payload
+ * </pre>
+ * Varints store small card values in one byte, fixed width values can be read without decoding.
+ */
+public final class BinaryPack {
+    /** First four bytes of every binary pack. */
+    public static final int MAGIC = 0x8953504B;
+    /** Format version written by this class. */
+    public static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    public static final int HEADER_SIZE = 28;
+
+    /** How card values are stored after the header. */
+    public enum Encoding {
+        /** Every value takes 4 bytes. */
+        FIXED,
+        /** Values take 1 to 5 bytes, small values of either sign are shortest. */
+        VARINT
+    }
+
+    // Bytes mapped at once, the checksum runs a block ahead of decoding so each byte is read while still in cache
+    private static final long WINDOW_SIZE = 1L << 28;
+    private static final int CHECKSUM_BLOCK = 1 << 16;
+    private static final int MAX_CARDS = Integer.MAX_VALUE - 8;
+
+    private BinaryPack() {
+    }
+
+    /**
+     * Checks whether a file starts with the binary pack magic bytes.
+     *
+     * @param path Path to a card pack.
+     * @return true if the file is a binary pack, false for a text pack.
+     * @throws IOException If there is an error reading the file.
+     */
+    public static boolean isBinaryPack(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // Read until we have all four bytes or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Loads a binary pack, checking the header, the 8 cards per player rule and the checksum as the values are decoded.
+     *
+     * @param path Path to the binary pack.
+     * @return Card values in pack order.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the file is not a valid binary pack.
+     */
+    public static int[] read(Path path) throws IOException {
+        ArrayFiller filler = new ArrayFiller();
+        scan(path, filler);
+        return filler.values;
+    }
+
+    /**
+     * Decodes a binary pack and passes each value on in pack order, without keeping any of them.
+     * The header and checksum are checked as for read, the checksum only once every value has been passed on.
+     *
+     * @param path   Path to the binary pack.
+     * @param action Called with each card value.
+     * @return Number of cards in the pack.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the file is not a valid binary pack.
+     */
+    public static long forEach(Path path, IntConsumer action) throws IOException {
+        return scan(path, cards -> action);
+    }
+
+    /**
+     * Reads the number of players from a binary pack's header.
+     *
+     * @param path Path to the binary pack.
+     * @return Number of players the pack is for.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the header is not a valid binary pack header.
+     */
+    public static int readPlayerCount(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return (int) readHeader(channel).playerCount();
+        }
+    }
+
+    private static long scan(Path path, LongFunction<IntConsumer> start) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.payloadLength() != channel.size() - HEADER_SIZE) {
+                throw new IllegalArgumentException("Invalid card pack: payload length does not match the file size.");
+            }
+
+            IntConsumer action = start.apply(header.cardCount());
+            Payload payload = new Payload(channel, header.payloadLength());
+            boolean fixed = header.encoding() == Encoding.FIXED;
+            for (long i = 0; i < header.cardCount(); i++) {
+                action.accept(fixed ? payload.readInt() : payload.readVarint());
+            }
+            if (payload.remaining() != 0) {
+                throw new IllegalArgumentException("Invalid card pack: unexpected bytes after the last card.");
+            }
+            if ((int) payload.checksum() != header.checksum()) {
+                throw new IllegalArgumentException("Invalid card pack: checksum mismatch.");
+            }
+            return header.cardCount();
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid card pack: file too short for a header.");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Read the whole header
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Invalid card pack: not a binary pack.");
+        }
+        int version = Short.toUnsignedInt(header.getShort(4));
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Invalid card pack: unsupported version " + version + ".");
+        }
+        int encodingId = Byte.toUnsignedInt(header.get(6));
+        if (encodingId >= Encoding.values().length) {
+            throw new IllegalArgumentException("Invalid card pack: unknown encoding " + encodingId + ".");
+        }
+        long cardCount = Integer.toUnsignedLong(header.getInt(8));
+        long playerCount = Integer.toUnsignedLong(header.getInt(12));
+        if (playerCount == 0 || cardCount != playerCount * 8 || cardCount > MAX_CARDS) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        return new Header(Encoding.values()[encodingId], cardCount, playerCount, header.getLong(16), header.getInt(24));
+    }
+
+    // The fields of a header that has passed its checks
+    private record Header(Encoding encoding, long cardCount, long playerCount, long payloadLength, int checksum) {
+    }
+
+    // Collects values into an array sized from the header
+    private static final class ArrayFiller implements LongFunction<IntConsumer>, IntConsumer {
+        private int[] values;
+        private int count;
+
+        @Override
+        public IntConsumer apply(long cards) {
+            values = new int[(int) cards];
+            return this;
+        }
+
+        @Override
+        public void accept(int value) {
+            values[count++] = value;
+        }
+    }
+
+    /**
+     * Writes card values as a binary pack.
+     *
+     * @param path       Where to write the pack, replacing any existing file.
+     * @param values     Card values, exactly 8 per player.
+     * @param numPlayers Number of players the pack is for.
+     * @param encoding   How to store the values.
+     * @throws IOException If there is an error writing the file.
+     */
+    public static void write(Path path, int[] values, int numPlayers, Encoding encoding) throws IOException {
+        if (numPlayers <= 0 || values.length != numPlayers * 8L) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        try (Writer writer = new Writer(path, numPlayers, encoding)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BLOCK);
+            int blockCards = CHECKSUM_BLOCK / 5;
+            for (int from = 0; from < values.length; from += blockCards) {
+                int to = Math.min(values.length, from + blockCards);
+                encode(values, from, to, encoding, buffer);
+                writer.append(buffer.flip(), to - from);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Encodes card values for a binary pack, so several threads can encode parts of a pack for one Writer.
+     *
+     * @param values   Card values.
+     * @param from     First value to encode.
+     * @param to       One past the last value to encode.
+     * @param encoding How to store the values.
+     * @param out      Buffer with room for 5 bytes per value, written from its position.
+     */
+    public static void encode(int[] values, int from, int to, Encoding encoding, ByteBuffer out) {
+        for (int i = from; i < to; i++) {
+            if (encoding == Encoding.FIXED) {
+                out.putInt(values[i]);
+            } else {
+                putVarint(out, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Streams an encoded pack to disk a block at a time, for packs too big to hold as one array.
+     * The values go first, after room for the header, so the checksum and length are known when the header is written.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final int numPlayers;
+        private final Encoding encoding;
+        private final CRC32C crc = new CRC32C();
+        private long payloadLength;
+        private long cards;
+
+        /**
+         * Creates a pack, replacing any existing file.
+         *
+         * @param path       Where to write the pack.
+         * @param numPlayers Number of players the pack is for.
+         * @param encoding   How the appended values were encoded.
+         * @throws IOException If the file can't be created.
+         */
+        public Writer(Path path, int numPlayers, Encoding encoding) throws IOException {
+            if (numPlayers <= 0 || numPlayers * 8L > MAX_CARDS) {
+                throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.numPlayers = numPlayers;
+            this.encoding = encoding;
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Appends values encoded by BinaryPack.encode.
+         *
+         * @param encoded Encoded values from the buffer's position to its limit, consumed by the call.
+         * @param count   Number of values in the buffer.
+         * @throws IOException If writing fails.
+         */
+        public void append(ByteBuffer encoded, int count) throws IOException {
+            payloadLength += flush(channel, encoded, crc);
+            cards += count;
+        }
+
+        /**
+         * Writes the header and closes the file.
+         *
+         * @throws IOException If writing fails.
+         * @throws IllegalArgumentException If the pack doesn't hold exactly 8 cards per player.
+         */
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                if (cards != numPlayers * 8L) {
+                    throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC)
+                        .putShort((short) VERSION)
+                        .put((byte) encoding.ordinal())
+                        .put((byte) 0)
+                        .putInt((int) cards)
+                        .putInt(numPlayers)
+                        .putLong(payloadLength)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+        }
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        int length = buffer.remaining();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    // Zigzag then LEB128, so -1 takes one byte rather than five
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int bits = (value << 1) ^ (value >> 31);
+        while ((bits & ~0x7F) != 0) {
+            buffer.put((byte) ((bits & 0x7F) | 0x80));
+            bits >>>= 7;
+        }
+        buffer.put((byte) bits);
+    }
+
+    /**
+     * The mapped payload, read front to back while the checksum is updated a block at a time.
+     */
+    private static final class Payload {
+        private final FileChannel channel;
+        private final long length;
+        private final CRC32C crc = new CRC32C();
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int position;
+        private int checkedUpTo;  // Bytes of the window already added to the checksum
+
+        Payload(FileChannel channel, long length) throws IOException {
+            this.channel = channel;
+            this.length = length;
+            this.windowStart = -WINDOW_SIZE;
+            nextWindow();
+        }
+
+        int readInt() throws IOException {
+            if (checkedUpTo - position >= 4) {
+                int value = window.getInt(position);
+                position += 4;
+                return value;
+            }
+            return (readByte() & 0xFF) << 24 | (readByte() & 0xFF) << 16 | (readByte() & 0xFF) << 8 | (readByte() & 0xFF);
+        }
+
+        int readVarint() throws IOException {
+            int bits = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                bits |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (bits >>> 1) ^ -(bits & 1);
+                }
+            }
+            throw new IllegalArgumentException("Invalid card pack: malformed varint.");
+        }
+
+        private byte readByte() throws IOException {
+            if (position == checkedUpTo) {
+                nextBlock();
+            }
+            return window.get(position++);
+        }
+
+        private void nextBlock() throws IOException {
+            if (checkedUpTo == window.limit()) {
+                nextWindow();
+            }
+            if (checkedUpTo == window.limit()) {
+                throw new IllegalArgumentException("Invalid card pack: file ends before the last card.");
+            }
+            int block = Math.min(CHECKSUM_BLOCK, window.limit() - checkedUpTo);
+            crc.update(window.slice(checkedUpTo, block));
+            checkedUpTo += block;
+        }
+
+        private void nextWindow() throws IOException {
+            windowStart += window == null ? WINDOW_SIZE : window.limit();
+            long size = Math.min(WINDOW_SIZE, length - windowStart);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + windowStart, size);
+            position = 0;
+            checkedUpTo = 0;
+        }
+
+        long remaining() {
+            return length - windowStart - position;
+        }
+
+        // Adds any bytes not yet read, so trailing garbage still fails the checksum
+        long checksum() {
+            if (checkedUpTo < window.limit()) {
+                crc.update(window.slice(checkedUpTo, window.limit() - checkedUpTo));
+                checkedUpTo = window.limit();
+            }
+            return crc.getValue();
+        }
+    }
+}
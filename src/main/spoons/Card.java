@@ -1 +1,3 @@
+package spoons;
+
 public record Card(int value) {} // This is so elegant.
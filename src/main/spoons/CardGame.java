@@ -1,8 +1,19 @@
 // Updated CardGame Class
+package spoons;
+
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntFunction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
@@ -13,6 +24,9 @@ import java.io.FileWriter;
  */
 public class CardGame {
 
+    /** Winner ID of a game nobody has won yet. */
+    public static final int NO_WINNER = 0;
+
     /** Number of players in the game. */
     private final int numPlayers;
 
@@ -23,13 +37,84 @@ public class CardGame {
     private final List<Deck> decks;
 
     /** List of cards in the game. */
-    private final List<Card> cardPack;
+    private final int[] cardPack;
 
     /** Threads managing the gameplay for each player. */
     private final List<Thread> gameThreads;
 
-    /** Flag to indicate if the game is over. */
-    private volatile boolean gameOver;
+    /** Creates the thread each player runs on, or the cooperative scheduler's workers. */
+    private ThreadFactory threadFactory;
+
+    /** Whether players share a pool of workers instead of having a thread each. */
+    private boolean cooperative;
+
+    /** Number of workers in cooperative mode. */
+    private int workerCount;
+
+    /** How players on threads of their own wait while their left deck is empty. */
+    private WaitPolicy waitPolicy;
+
+    /** Number of cards each deck can hold. */
+    private int deckCapacity;
+
+    /** Set in place of a winner when a limit ends the game, so a late winner can't be elected. */
+    static final int DRAWN = -1;
+
+    /** ID of the winning player, NO_WINNER until one is elected or DRAWN. Doubles as the game over flag. */
+    private final AtomicInteger winnerId;
+
+    /** How the game ended, null while it is still going. */
+    private volatile GameOutcome outcome;
+
+    /** Time from the players starting until they had all stopped, 0 until then. */
+    private volatile long durationNanos;
+
+    /** Whether the winner or draw is printed to the console. */
+    private volatile boolean announcing;
+
+    /** Directory the player and deck output files are written to. */
+    private Path logDirectory;
+
+    /** Limits enforced by the watchdog, 0 for none. */
+    private long maxTurns;
+    private long maxWallTime;
+    private long noProgressTimeout;
+
+    /** Background writer shared by all the players' log files. */
+    private final LogWriter logWriter;
+
+    /** Pause each player takes after a turn in milliseconds, zero for none. */
+    private volatile long turnDelay;
+
+    /** Whether players and decks write their output files. */
+    private volatile boolean loggingEnabled;
+
+    /** Draws, discards, wins and exits, for live observers and the player log files. */
+    private final GameEventPublisher events;
+
+    /** Writes the player log files from the events, null until a logged game starts. */
+    private GameLogSubscriber logSubscriber;
+
+    /** Turn, stall and latency metrics for this game. */
+    private final GameMetrics metrics;
+
+    /** Whether players record turn latencies. */
+    private volatile boolean metricsEnabled;
+
+    /** Creates each player's discard strategy from its ID. */
+    private IntFunction<DiscardStrategy> discardStrategyFactory;
+
+    /** Where to write the game's journal, null for no journal. */
+    private Path journalPath;
+
+    /** Binary record of every card movement, open from initialisation until the game ends. */
+    private volatile GameJournal journal;
+
+    /** The checkpoint to deal from instead of the pack, null for a new game. */
+    private GameCheckpoint resumeFrom;
+
+    /** The segment of a ring spread over several processes this game plays, null when it plays the whole ring. */
+    private RingSegment ring;
 
     /**
      * Constructor for the CardGame class.
@@ -38,7 +123,18 @@ public class CardGame {
      * @param cardPack   List of cards in the game.
      */
     public CardGame(int numPlayers, List<Card> cardPack) {
-        if (cardPack.size() != numPlayers * 8) {
+        this(numPlayers, toValues(cardPack));
+    }
+
+    /**
+     * Constructor for a game dealt straight from card values, as returned by loadPackValues.
+     * The array is used as it is, it must not change until the cards have been distributed.
+     *
+     * @param numPlayers Number of players.
+     * @param cardPack   Card values in the game.
+     */
+    public CardGame(int numPlayers, int[] cardPack) {
+        if (cardPack.length != numPlayers * 8) {
             throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
         }
         this.numPlayers = numPlayers;
@@ -46,7 +142,19 @@ public class CardGame {
         this.players = new ArrayList<>();
         this.decks = new ArrayList<>();
         this.gameThreads = new ArrayList<>();
-        this.gameOver = false;
+        this.threadFactory = ThreadMode.PLATFORM.factory();
+        this.workerCount = Runtime.getRuntime().availableProcessors();
+        this.waitPolicy = WaitPolicy.PARK;
+        this.deckCapacity = Deck.DEFAULT_CAPACITY;
+        this.winnerId = new AtomicInteger(NO_WINNER);
+        this.logWriter = new LogWriter();
+        this.loggingEnabled = true;
+        this.events = new GameEventPublisher();
+        this.discardStrategyFactory = id -> new PreferredDiscard();
+        this.metrics = new GameMetrics(players, decks, logWriter);
+        this.metricsEnabled = true;
+        this.announcing = true;
+        this.logDirectory = Paths.get("");
     }
 
     /**
@@ -56,34 +164,134 @@ public class CardGame {
      */
     public static void main(String[] args) {
         try {
-            Scanner scanner = new Scanner(System.in);
+            CardGame game;
+            String packFile = null;
+            // Carry on a checkpointed game with -Dspoons.resume=<checkpoint file>, without any prompts
+            String resumeFile = System.getProperty("spoons.resume");
+            if (resumeFile != null) {
+                game = resume(GameCheckpoint.read(Paths.get(resumeFile)));
+            } else {
+                Scanner scanner = new Scanner(System.in);
 
-            // Prompt for number of players
-            System.out.println("Please enter the number of players:");
-            int numPlayers = scanner.nextInt();
-            scanner.nextLine();
+                // Prompt for number of players
+                System.out.println("Please enter the number of players:");
+                int numPlayers = scanner.nextInt();
+                scanner.nextLine();
 
-            // Prompt for the location of the pack to load
-            System.out.println("Please enter the location of pack to load:");
-            String filePath = scanner.nextLine();
+                // Prompt for the location of the pack to load
+                System.out.println("Please enter the location of pack to load:");
+                packFile = scanner.nextLine();
 
-            scanner.close();
+                scanner.close();
 
-            List<Card> cardPack = loadPack(filePath);
-            if (cardPack.size() != numPlayers * 8) {
-                throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
-            }
+                int[] cardPack = loadPackValues(packFile);
+                if (cardPack.length != numPlayers * 8) {
+                    throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+                }
 
-            CardGame game = new CardGame(numPlayers, cardPack);
+                game = new CardGame(numPlayers, cardPack);
+            }
+            applySystemProperties(game);
+            // Journal the game for JournalReplay with -Dspoons.journal=<file>
+            String journalFile = System.getProperty("spoons.journal");
+            if (journalFile != null) {
+                game.setJournalPath(Paths.get(journalFile));
+            }
+            // Spread a new game's ring over several processes on this machine with -Dspoons.segments=<processes>,
+            // this process plays the first segment and starts one for each of the others
+            int segments = Integer.getInteger("spoons.segments", 1);
+            RingSegment ring = segments > 1 && packFile != null
+                    ? RingSegment.launch(game, Paths.get(packFile), segments, Paths.get("")) : null;
             game.initialiseGame();
+            // Watch a running game with jconsole or any other JMX client
+            game.getMetrics().register();
+            if (ring != null) {
+                ring.connect();
+            }
+            // Keep a checkpoint of a long game with -Dspoons.checkpoint=<file>,
+            // replaced every -Dspoons.checkpointInterval=<seconds>, 60 by default. Only a whole ring can be checkpointed.
+            String checkpointFile = System.getProperty("spoons.checkpoint");
+            GameCheckpoint.Schedule checkpoints = checkpointFile == null || ring != null ? null
+                    : GameCheckpoint.schedule(game, Paths.get(checkpointFile),
+                    Duration.ofSeconds(Long.getLong("spoons.checkpointInterval", 60)));
             game.startGame();
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+            if (ring != null) {
+                ring.close();
+            }
+            game.getMetrics().unregister();
         } catch (Exception e) {
             System.err.println("Error initialising game: " + e.getMessage());
         }
     }
 
     /**
-     * Loads a card pack from a file. Each line in the file represents a card value.
+     * Applies the settings the command line game takes as system properties, for every process of a ring.
+     *
+     * @param game A game that hasn't started.
+     */
+    static void applySystemProperties(CardGame game) {
+        // Demos can slow the game down with -Dspoons.turnDelay=<milliseconds>
+        game.setTurnDelay(Long.getLong("spoons.turnDelay", 0));
+        // Large rings can run each player on a virtual thread with -Dspoons.threads=virtual,
+        // or as tasks on one thread per core with -Dspoons.threads=cooperative
+        game.setThreadMode(ThreadMode.fromName(System.getProperty("spoons.threads", "platform")));
+        // Players with a core each can spin on an empty deck with -Dspoons.wait=spin,
+        // or spin, yield and then park with -Dspoons.wait=adaptive
+        game.setWaitPolicy(WaitPolicy.fromName(System.getProperty("spoons.wait", "park")));
+        // Packs nobody can win are stopped as a draw with -Dspoons.maxTurns=<turns>,
+        // -Dspoons.maxWallTime=<milliseconds> or -Dspoons.noProgressTimeout=<milliseconds>
+        game.setMaxTurns(Long.getLong("spoons.maxTurns", 0));
+        game.setMaxWallTime(Long.getLong("spoons.maxWallTime", 0));
+        game.setNoProgressTimeout(Long.getLong("spoons.noProgressTimeout", 0));
+    }
+
+    /**
+     * Plays a game without blocking the caller.
+     * The pack is loaded, dealt and played on the configuration's executor, and the future completes with
+     * the result once every player has stopped. Cancelling the future ends the game as a draw, releasing its threads.
+     *
+     * @param config The game's settings.
+     * @return A future for the game's result, completed exceptionally if the pack can't be loaded.
+     */
+    public static CompletableFuture<GameResult> startAsync(GameConfig config) {
+        CompletableFuture<GameResult> result = new CompletableFuture<>();
+        AtomicReference<CardGame> running = new AtomicReference<>();
+        result.whenComplete((gameResult, failure) -> {
+            CardGame game = running.get();
+            if (result.isCancelled() && game != null) {
+                game.declareDraw(GameOutcome.CANCELLED);
+            }
+        });
+
+        try {
+            config.getExecutor().execute(() -> {
+                if (result.isDone()) {
+                    return;  // Cancelled before it started
+                }
+                try {
+                    CardGame game = config.createGame();
+                    game.initialiseGame();
+                    running.set(game);
+                    if (result.isCancelled()) {
+                        game.declareDraw(GameOutcome.CANCELLED);  // Cancelled while the game was being dealt
+                    }
+                    game.startGame();
+                    result.complete(game.getResult());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);  // The executor rejected the game
+        }
+        return result;
+    }
+
+    /**
+     * Loads a card pack from a file. Each line in the file represents a card value, or the file is a binary pack.
      *
      * @param filePath Path to the file containing card values.
      * @return List of Card objects.
@@ -91,66 +299,208 @@ public class CardGame {
      * @throws IllegalArgumentException If the file contains invalid data.
      */
     public static List<Card> loadPack(String filePath) throws IOException {
-        List<String> lines = java.nio.file.Files.readAllLines(java.nio.file.Paths.get(filePath));
-
-        if (lines.isEmpty()) {
-            throw new IllegalArgumentException("Card pack file is empty");
-        }
+        int[] values = loadPackValues(filePath);
 
-        // Convert each line to an integer and wrap it in a Card object
-        List<Card> cardPack = new ArrayList<>();
-        for (String line : lines) {
-            try {
-                int value = Integer.parseInt(line.trim());
-                cardPack.add(new Card(value));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid card value in pack: " + line, e);
-            }
+        // Wrap each value in a Card object
+        List<Card> cardPack = new ArrayList<>(values.length);
+        for (int value : values) {
+            cardPack.add(new Card(value));
         }
 
         return cardPack;
     }
 
+    /**
+     * Loads a card pack from a file into an array of card values without creating any Cards.
+     * Text packs are memory-mapped and parsed in place, binary packs made by PackConverter are
+     * recognised by their magic bytes and checked against their header.
+     *
+     * @param filePath Path to the file containing card values.
+     * @return Card values in the order they appear in the file.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the file contains invalid data.
+     */
+    public static int[] loadPackValues(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        return BinaryPack.isBinaryPack(path) ? BinaryPack.read(path) : PackLoader.load(path);
+    }
+
+    // Unwraps a list of cards, the game only ever deals their values
+    private static int[] toValues(List<Card> cards) {
+        int[] values = new int[cards.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = cards.get(i).value();
+        }
+        return values;
+    }
+
     /**
      * Initialises the game by creating players and decks and distributing cards.
+     * If a journal path is set the journal is created here, so it records the deal.
+     *
+     * @throws IllegalStateException If the journal can't be created.
      */
     public void initialiseGame() {
-        for (int i = 0; i < numPlayers; i++) {
-            decks.add(new Deck(i + 1));
+        if (journalPath != null) {
+            try {
+                journal = new GameJournal(journalPath, numPlayers);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error creating game journal: " + e.getMessage(), e);
+            }
         }
 
-        for (int i = 0; i < numPlayers; i++) {
-            Player player = new Player(i + 1, i + 1, decks.get(i), decks.get((i + 1) % numPlayers), this);
+        // A segment of a ring only has its own players and decks, its first deck is filled from the previous segment
+        int first = getFirstPlayerId();
+        int last = ring == null ? numPlayers : ring.getLastPlayer();
+        for (int i = 0; i <= last - first; i++) {
+            // A resumed deck never holds more than it could in play, but a hand made checkpoint might
+            int capacity = resumeFrom == null ? deckCapacity
+                    : Math.max(deckCapacity, resumeFrom.decks()[i].length);
+            decks.add(ring != null && i == 0 ? ring.getInbound() : new Deck(first + i, capacity));
+        }
+
+        for (int i = 0; i < decks.size(); i++) {
+            // The last player of a segment discards into the outbox bound for the next segment's first deck
+            Deck right = i + 1 < decks.size() ? decks.get(i + 1) : ring != null ? ring.getOutbox() : decks.get(0);
+            Player player = new Player(first + i, first + i, decks.get(i), right, this);
+            player.setDiscardStrategy(discardStrategyFactory.apply(first + i));
             players.add(player);
         }
 
-        distributeCards();
+        if (resumeFrom != null) {
+            restoreCards(resumeFrom);
+        } else {
+            distributeCards();
+        }
 
         for (Player player : players) {
             player.initialiseLogFile();
         }
     }
 
+    /**
+     * Creates a game that carries on from a checkpoint. Configure it as usual, then initialiseGame deals every hand
+     * and deck back the way the checkpoint found them instead of dealing a pack, and the turn counts carry on.
+     * Discard strategies start afresh from the game's strategy factory.
+     *
+     * @param checkpoint A checkpoint taken from a running game, or read from a checkpoint file.
+     * @return The game, not yet initialised.
+     */
+    public static CardGame resume(GameCheckpoint checkpoint) {
+        int[] pack = new int[checkpoint.numPlayers() * 8];
+        int index = 0;
+        for (int[] hand : checkpoint.hands()) {
+            System.arraycopy(hand, 0, pack, index, hand.length);
+            index += hand.length;
+        }
+        for (int[] deck : checkpoint.decks()) {
+            System.arraycopy(deck, 0, pack, index, deck.length);
+            index += deck.length;
+        }
+        CardGame game = new CardGame(checkpoint.numPlayers(), pack);
+        game.resumeFrom = checkpoint;
+        return game;
+    }
+
+    // Deals the checkpoint's hands and decks, journalled as a deal so a replay of this game starts from the checkpoint
+    private void restoreCards(GameCheckpoint checkpoint) {
+        for (int i = 0; i < numPlayers; i++) {
+            for (int value : checkpoint.hands()[i]) {
+                if (journal != null) {
+                    journal.recordDealToPlayer(i + 1, value);
+                }
+                players.get(i).receiveValue(value);
+            }
+        }
+        for (int i = 0; i < numPlayers; i++) {
+            for (int value : checkpoint.decks()[i]) {
+                if (journal != null) {
+                    journal.recordDealToDeck(i + 1, value);
+                }
+                decks.get(i).addValue(value);
+            }
+        }
+        metrics.resume(checkpoint.totalTurns(), checkpoint.playerTurns());
+    }
+
+    /**
+     * Takes a consistent cut of the game: every hand, every deck and the turn counts, all as they were between turns.
+     * Hands and decks only change during a turn, under the player's turn lock. The players are locked one at a time
+     * around the ring, each waiting out at most one turn, and each is copied with its left deck. A player is let go
+     * as soon as the deck it discards into has been copied too, so whatever it does next only touches cards already
+     * copied. At most three players are held at once: the one being copied, the one before it, and the last player,
+     * whose right deck is the first one copied. Players never wait for anything while holding their lock, so this
+     * can't deadlock.
+     *
+     * @return The checkpoint, ready to write or resume.
+     * @throws IllegalStateException If the game hasn't been initialised, or is one segment of a ring.
+     */
+    public GameCheckpoint checkpoint() {
+        if (players.isEmpty()) {
+            throw new IllegalStateException("The game has not been initialised.");
+        }
+        if (ring != null) {
+            throw new IllegalStateException("A checkpoint covers a whole ring, this game is one segment of it.");
+        }
+        int[][] hands = new int[numPlayers][];
+        int[][] deckValues = new int[numPlayers][];
+        long[] playerTurns = new long[numPlayers];
+        Player last = players.getLast();
+        last.lockTurns();
+        int locked = 0;    // Players before this one have been locked, besides the last
+        int unlocked = 0;  // Players before this one have been let go
+        try {
+            for (int i = 0; i < numPlayers; i++) {
+                Player player = players.get(i);
+                if (player != last) {
+                    player.lockTurns();
+                    locked = i + 1;
+                }
+                hands[i] = player.getHandValues();
+                deckValues[i] = decks.get(i).getValues();
+                playerTurns[i] = metrics.playerTurns(i);
+                if (i > 0) {
+                    players.get(i - 1).unlockTurns();  // Its right deck has just been copied
+                    unlocked = i;
+                }
+            }
+        } finally {
+            for (int i = unlocked; i < locked; i++) {
+                players.get(i).unlockTurns();
+            }
+            last.unlockTurns();
+        }
+        return new GameCheckpoint(hands, deckValues, Arrays.stream(playerTurns).sum(), playerTurns);
+    }
+
     /**
      * Distributes cards to players and decks in a round-robin fashion.
+     * A segment of a ring deals its own players and decks the cards they would get in the whole ring.
      */
     public void distributeCards() {
         int numCardsPerPlayer = 4;
         int numCardsPerDeck = 4;
 
-        int cardIndex = 0;
+        int cardIndex = (getFirstPlayerId() - 1) * numCardsPerPlayer;
 
         // Distribute 4 cards to each player
         for (Player player : players) {
             for (int j = 0; j < numCardsPerPlayer; j++) {
-                player.receiveCard(cardPack.get(cardIndex++));
+                if (journal != null) {
+                    journal.recordDealToPlayer(player.getPlayerId(), cardPack[cardIndex]);
+                }
+                player.receiveValue(cardPack[cardIndex++]);
             }
         }
 
         // Distribute 4 cards to each deck
+        cardIndex = numPlayers * numCardsPerPlayer + (getFirstPlayerId() - 1) * numCardsPerDeck;
         for (Deck deck : decks) {
             for (int j = 0; j < numCardsPerDeck; j++) {
-                deck.addCard(cardPack.get(cardIndex++));
+                if (journal != null) {
+                    journal.recordDealToDeck(deck.getDeckId(), cardPack[cardIndex]);
+                }
+                deck.addValue(cardPack[cardIndex++]);
             }
         }
     }
@@ -158,74 +508,239 @@ public class CardGame {
 
     /**
      * Starts the game by initiating threads for each player.
+     * Threads come from the game's thread factory, platform threads unless set otherwise.
+     * In cooperative mode the players share a pool of workers instead, see TurnScheduler.
+     * If any limit is set a GameWatchdog ends the game as a draw once it is reached.
      */
     public void startGame() {
-        for (Player player : players) {
-            Thread thread = new Thread(player::playTurn);
-            gameThreads.add(thread);
-            thread.start();
+        GameEvents.GameRun event = new GameEvents.GameRun();
+        event.begin();
+        metrics.start();
+        if (loggingEnabled && logSubscriber == null) {
+            // Lossless, the log gets every event in a buffer of its own that players never wait for
+            logSubscriber = new GameLogSubscriber(this);
+            events.subscribeLossless(logSubscriber);
+        }
+        long start = System.nanoTime();
+        GameWatchdog watchdog = null;
+        if (maxTurns > 0 || maxWallTime > 0 || noProgressTimeout > 0) {
+            watchdog = new GameWatchdog(this, maxTurns, maxWallTime, noProgressTimeout);
+            watchdog.start();
         }
+        if (cooperative) {
+            new TurnScheduler(players, workerCount, threadFactory).run();
+        } else {
+            for (Player player : players) {
+                Thread thread = threadFactory.newThread(player::playTurn);
+                gameThreads.add(thread);
+                thread.start();
+            }
 
-        for (Thread thread : gameThreads) {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                System.err.println("Game interrupted: " + e.getMessage());
+            for (Thread thread : gameThreads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    System.err.println("Game interrupted: " + e.getMessage());
+                }
             }
         }
 
+        if (watchdog != null) {
+            watchdog.stop();
+        }
+        if (ring != null) {
+            ring.finish();  // Deliver the cards still on their way between segments before the decks are logged
+        }
+        durationNanos = System.nanoTime() - start;
         endGame();
+        closeJournal();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.players = numPlayers;
+            event.winnerId = getWinnerId();
+            event.turns = metrics.getTotalTurns();
+            event.commit();
+        }
     }
 
     /**
      * Ends the game, signals players, logs results, and outputs deck contents.
+     * Every player message logged before this call is on disk when it returns,
+     * and the log writer's thread has stopped with its files closed.
      */
     public void endGame() {
-        for (Player player : players) {
-            player.endGame();
+        players.parallelStream().forEach(Player::endGame);
+
+        // Complete the subscribers, the players' last events reach the log writer before it is flushed.
+        // Only the log is waited for, a stalled outside subscriber must not keep the game from ending
+        events.shutdown();
+        if (logSubscriber != null) {
+            logSubscriber.awaitCompletion();
         }
 
         // Log the contents of each deck at the end of the game
-        logDeckContents();
+        if (loggingEnabled) {
+            logDeckContents();
+        }
+
+        logWriter.close();
     }
 
     /**
      * Logs the contents of each deck at the end of the game to a file.
+     * Each deck has its own file, so they are written in parallel.
      */
     public void logDeckContents() {
-        for (Deck deck : decks) {
-            // Prepare the filename for the deck's output file
-            String filename = "deck" + deck.getDeckId() + "_output.txt";
-            File deckFile = new File(filename);
-
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(deckFile))) {
-                // Write the contents of the deck to the file
-                writer.write("deck" + deck.getDeckId() + " contents: ");
-                List<Card> deckCards = deck.getCards();
-                for (Card card : deckCards) {
-                    writer.write(card.value() + " ");
-                }
-                writer.newLine();
-            } catch (IOException e) {
-                System.err.println("Error writing to deck output file: " + e.getMessage());
+        decks.parallelStream().forEach(this::logDeckContents);
+    }
+
+    private void logDeckContents(Deck deck) {
+        // Prepare the filename for the deck's output file
+        String filename = "deck" + deck.getDeckId() + "_output.txt";
+        File deckFile = logDirectory.resolve(filename).toFile();
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(deckFile))) {
+            // Write the contents of the deck to the file
+            writer.write("deck" + deck.getDeckId() + " contents: ");
+            List<Card> deckCards = deck.getCards();
+            for (Card card : deckCards) {
+                writer.write(card.value() + " ");
             }
+            writer.newLine();
+        } catch (IOException e) {
+            System.err.println("Error writing to deck output file: " + e.getMessage());
         }
     }
 
 
+    // Every player has stopped, so nothing else can append
+    private void closeJournal() {
+        GameJournal finished = journal;
+        if (finished == null) {
+            return;
+        }
+        try {
+            finished.close();
+        } catch (IOException e) {
+            System.err.println("Error closing game journal: " + e.getMessage());
+        }
+    }
+
     /**
      * Signals that the game is over and sets the winner.
+     * The first caller wins with a single CAS, then every player is unparked so it sees the game is over.
+     * No locks are taken, so a player in the middle of a turn never holds up the announcement.
+     * Decks and the remaining logs are finalised by startGame once every player has stopped.
      *
      * @param winnerId The ID of the player who won.
+     * @return true if this player is the winner, false if another player won first.
      */
-    public void signalWinner(int winnerId) {
-        synchronized (this) {
-            if (!gameOver) {
-                gameOver = true;
-                System.out.println("Player " + winnerId + " has won the game!");
-                endGame();
+    public boolean signalWinner(int winnerId) {
+        // A segment of a ring asks the ring's coordinator, which settles every segment before answering
+        boolean elected = ring != null ? ring.claim(winnerId, GameOutcome.WON) : settle(winnerId, GameOutcome.WON);
+        GameEvents.WinnerSignal event = new GameEvents.WinnerSignal();
+        if (event.shouldCommit()) {
+            event.playerId = winnerId;
+            event.elected = elected;
+            event.commit();
+        }
+        return elected;
+    }
+
+    /**
+     * Ends the game without a winner, unless a winner has already been elected.
+     * Every player is woken so it sees the game is over and exits, logging how the game ended.
+     *
+     * @param reason Why the game was stopped.
+     * @return true if the game is now a draw, false if it had already ended.
+     */
+    public boolean declareDraw(GameOutcome reason) {
+        if (!reason.isDraw()) {
+            throw new IllegalArgumentException("A draw needs a reason other than " + reason + ".");
+        }
+        return ring != null ? ring.claim(DRAWN, reason) : settle(DRAWN, reason);
+    }
+
+    /**
+     * Ends the game here with a winner, or DRAWN and the reason, unless it has already ended.
+     * Called by signalWinner and declareDraw, or by the ring's coordinator for a segment.
+     *
+     * @param winner ID of the winning player, or DRAWN.
+     * @param reason WON, or why the game was stopped.
+     * @return true if this ended the game, false if it had already ended.
+     */
+    boolean settle(int winner, GameOutcome reason) {
+        if (!winnerId.compareAndSet(NO_WINNER, winner)) {
+            return false;
+        }
+        outcome = reason;
+        if (winner == DRAWN) {
+            if (announcing) {
+                System.out.println("The game ended without a winner: " + reason.getDescription() + ".");
+            }
+        } else {
+            GameJournal gameJournal = journal;
+            if (gameJournal != null) {
+                gameJournal.recordWin(winner);
+            }
+            if (announcing) {
+                System.out.println("Player " + winner + " has won the game!");
             }
         }
+        // Every player stops, not just wakes, a wake up can be used up waiting for a card that arrived at the same time
+        players.parallelStream().forEach(Player::endGame);
+        return true;
+    }
+
+    /**
+     * Collects the game's result, call once startGame has returned.
+     *
+     * @return The winner, turns, final hands and deck contents.
+     * @throws IllegalStateException If the game hasn't ended.
+     */
+    public GameResult getResult() {
+        GameOutcome gameOutcome = outcome;
+        if (gameOutcome == null || durationNanos == 0) {
+            throw new IllegalStateException("The game has not ended.");
+        }
+        // A segment of a ring has the hands and decks of its own players
+        int[][] finalHands = new int[players.size()][];
+        int[][] deckContents = new int[players.size()][];
+        for (int i = 0; i < players.size(); i++) {
+            finalHands[i] = players.get(i).getHandValues();
+            deckContents[i] = decks.get(i).getValues();
+        }
+        return new GameResult(getWinnerId(), gameOutcome, metrics.getTotalTurns(), metrics.snapshot().playerTurns(),
+                finalHands, deckContents, durationNanos);
+    }
+
+    /**
+     * Returns how the game ended.
+     *
+     * @return The outcome, or null while the game is still going.
+     */
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Checks if a player has won or the game was stopped as a draw, without taking any locks.
+     *
+     * @return true once a winner has been elected or a limit has ended the game.
+     */
+    public boolean isGameOver() {
+        return winnerId.get() != NO_WINNER;
+    }
+
+    /**
+     * Getter for the winning player.
+     *
+     * @return ID of the winner, or NO_WINNER if nobody has won yet or the game was a draw.
+     */
+    public int getWinnerId() {
+        int id = winnerId.get();
+        return id == DRAWN ? NO_WINNER : id;
     }
 
     /**
@@ -237,6 +752,276 @@ public class CardGame {
         return numPlayers;
     }
 
+    /**
+     * Getter for the pause each player takes after a turn.
+     *
+     * @return Turn delay in milliseconds.
+     */
+    public long getTurnDelay() {
+        return turnDelay;
+    }
+
+    /**
+     * Sets a pause each player takes after a turn, for following a game by eye.
+     * Must be set before the game starts.
+     *
+     * @param turnDelay Turn delay in milliseconds, zero for none.
+     */
+    public void setTurnDelay(long turnDelay) {
+        if (turnDelay < 0) {
+            throw new IllegalArgumentException("Turn delay cannot be negative.");
+        }
+        this.turnDelay = turnDelay;
+    }
+
+    /**
+     * Limits the total turns all players may take, the game is a draw once they are used up.
+     * Must be set before the game starts.
+     *
+     * @param maxTurns Turns allowed, zero for no limit.
+     */
+    public void setMaxTurns(long maxTurns) {
+        if (maxTurns < 0) {
+            throw new IllegalArgumentException("Turn limit cannot be negative.");
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Limits how long the game may run, it is a draw once the time is up.
+     * Must be set before the game starts.
+     *
+     * @param maxWallTime Time allowed in milliseconds, zero for no limit.
+     */
+    public void setMaxWallTime(long maxWallTime) {
+        if (maxWallTime < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative.");
+        }
+        this.maxWallTime = maxWallTime;
+    }
+
+    /**
+     * Ends the game as a draw when the players' hands reach no new state for a while,
+     * because everyone is stuck or the same few hands keep going round.
+     * Must be set before the game starts.
+     *
+     * @param noProgressTimeout Time allowed without progress in milliseconds, zero for no limit.
+     */
+    public void setNoProgressTimeout(long noProgressTimeout) {
+        if (noProgressTimeout < 0) {
+            throw new IllegalArgumentException("No-progress timeout cannot be negative.");
+        }
+        this.noProgressTimeout = noProgressTimeout;
+    }
+
+    /**
+     * Turns the console announcement of the winner or draw on or off, on by default.
+     *
+     * @param announcing false to end the game silently.
+     */
+    public void setAnnouncing(boolean announcing) {
+        this.announcing = announcing;
+    }
+
+    /**
+     * Returns the directory the player and deck output files are written to.
+     *
+     * @return The log directory, the working directory by default.
+     */
+    public Path getLogDirectory() {
+        return logDirectory;
+    }
+
+    /**
+     * Sets the directory the player and deck output files are written to.
+     * Must be set before the game is initialised.
+     *
+     * @param logDirectory An existing directory.
+     */
+    public void setLogDirectory(Path logDirectory) {
+        if (logDirectory == null) {
+            throw new IllegalArgumentException("Log directory cannot be null.");
+        }
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * Checks if the game writes player and deck output files.
+     *
+     * @return true if logging is on.
+     */
+    public boolean isLoggingEnabled() {
+        return loggingEnabled;
+    }
+
+    /**
+     * Turns the player and deck output files on or off, for benchmarks and batch runs.
+     * Must be set before the game is initialised.
+     *
+     * @param loggingEnabled false to play without writing any files.
+     */
+    public void setLoggingEnabled(boolean loggingEnabled) {
+        this.loggingEnabled = loggingEnabled;
+    }
+
+    /**
+     * Selects the kind of thread each player runs on.
+     * Must be set before the game starts.
+     *
+     * @param threadMode Platform or virtual threads, or cooperative tasks on a shared pool.
+     */
+    public void setThreadMode(ThreadMode threadMode) {
+        setThreadFactory(threadMode.factory());
+        this.cooperative = threadMode == ThreadMode.COOPERATIVE;
+    }
+
+    /**
+     * Sets how many workers the players share in cooperative mode, one per core by default.
+     * Must be set before the game starts.
+     *
+     * @param workerCount Number of worker threads.
+     */
+    public void setWorkerCount(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive.");
+        }
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Getter for how players wait while their left deck is empty.
+     *
+     * @return The wait policy, PARK unless set otherwise.
+     */
+    public WaitPolicy getWaitPolicy() {
+        return waitPolicy;
+    }
+
+    /**
+     * Selects how players wait while their left deck is empty. Players in cooperative mode never wait,
+     * and spinning only suits platform threads with a core for every player.
+     * Must be set before the game starts.
+     *
+     * @param waitPolicy Park, spin, or spin then yield then park.
+     */
+    public void setWaitPolicy(WaitPolicy waitPolicy) {
+        if (waitPolicy == null) {
+            throw new IllegalArgumentException("Wait policy cannot be null.");
+        }
+        this.waitPolicy = waitPolicy;
+    }
+
+    /**
+     * Sets how many cards each deck can hold, Deck.DEFAULT_CAPACITY unless set otherwise.
+     * Must be set before the game is initialised. Only the tests need decks small enough to fill up.
+     *
+     * @param deckCapacity Cards per deck, rounded up to a power of two. More than the 4 dealt to each deck,
+     *                     or every player could be waiting for room in a full deck.
+     */
+    void setDeckCapacity(int deckCapacity) {
+        if (deckCapacity <= 4) {
+            throw new IllegalArgumentException("Deck capacity must be more than 4.");
+        }
+        this.deckCapacity = deckCapacity;
+    }
+
+    /**
+     * Sets a custom factory for the threads the players run on.
+     * Must be set before the game starts.
+     *
+     * @param threadFactory Factory used to create one thread per player.
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory cannot be null.");
+        }
+        this.threadFactory = threadFactory;
+        this.cooperative = false;
+    }
+
+    /**
+     * Gives every player its own discard strategy, PreferredDiscard unless set otherwise.
+     * Must be set before the game starts, players that already exist get their new strategy straight away.
+     *
+     * @param strategyFactory Creates the strategy for a player ID, such as id -> new RandomDiscard(seed + id).
+     */
+    public void setDiscardStrategy(IntFunction<DiscardStrategy> strategyFactory) {
+        if (strategyFactory == null) {
+            throw new IllegalArgumentException("Discard strategy factory cannot be null.");
+        }
+        this.discardStrategyFactory = strategyFactory;
+        for (Player player : players) {
+            player.setDiscardStrategy(strategyFactory.apply(player.getPlayerId()));
+        }
+    }
+
+    /**
+     * Checks if players record metrics during the game.
+     *
+     * @return true if metrics are on.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Turns per-turn metrics on or off, they are on by default. Deck stalls and totals are always counted.
+     * Must be set before the game starts.
+     *
+     * @param metricsEnabled false to skip timing turns.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Records every deal, draw, discard and the winner in a binary journal, which JournalReplay can turn
+     * back into the game's state at any point or its log files. Much cheaper than the text logs,
+     * so it can stay on with logging turned off. Must be set before the game is initialised.
+     *
+     * @param journalPath Where to write the journal, null for none.
+     */
+    public void setJournalPath(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Getter for the game's journal.
+     *
+     * @return The journal, or null if the game isn't journalled or hasn't been initialised.
+     */
+    public GameJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Getter for the game's metrics.
+     *
+     * @return The metrics, for snapshots and JMX.
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Getter for the log writer used by the players.
+     *
+     * @return The game's log writer.
+     */
+    public LogWriter getLogWriter() {
+        return logWriter;
+    }
+
+    /**
+     * Getter for the game's events. Subscribe before the game starts to see every event,
+     * subscribers are completed when the game ends.
+     *
+     * @return The publisher of the players' draws, discards, wins and exits.
+     */
+    public GameEventPublisher getEvents() {
+        return events;
+    }
+
     /**
      * Getter for the players list.
      *
@@ -246,6 +1031,34 @@ public class CardGame {
         return players;
     }
 
+    /**
+     * Looks up a player by ID, among this segment's players if the game is one segment of a ring.
+     *
+     * @param playerId ID of a player in this game.
+     * @return The player.
+     */
+    Player getPlayer(int playerId) {
+        return players.get(playerId - getFirstPlayerId());
+    }
+
+    // 1 unless the game is a segment of a ring
+    private int getFirstPlayerId() {
+        return ring == null ? 1 : ring.getFirstPlayer();
+    }
+
+    /**
+     * Makes the game play one segment of a ring, called by the RingSegment.
+     *
+     * @param ring The segment.
+     * @throws IllegalStateException If the game has been initialised or resumes a checkpoint.
+     */
+    void setRing(RingSegment ring) {
+        if (!players.isEmpty() || resumeFrom != null || this.ring != null) {
+            throw new IllegalStateException("Only a new game that hasn't been initialised can become a segment of a ring.");
+        }
+        this.ring = ring;
+    }
+
     /**
      * Getter for the decks list.
      *
@@ -1,22 +1,73 @@
+package spoons;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 /**
  * The deck of cards with thread-safe methods for adding and discarding cards.
- * Decks are identified by a unique ID and use a ConcurrentLinkedQueue.
+ * Decks are identified by a unique ID and use a bounded single-producer, single-consumer ring buffer of card values.
+ * In the game only the player on the left of a deck adds to it and only the player on its right draws from it,
+ * so neither side ever needs a lock or a CAS.
  */
 public class Deck {
+    /** Number of cards a deck holds when no capacity is given. */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    // Head and tail live in one array, each on its own cache line, so the producer and consumer don't false share.
+    // Each side also caches the other's index on its own line and only re-reads it when the cache says full/empty.
+    private static final VarHandle INDEX = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int HEAD = 16;          // Next slot to draw from, written by the consumer
+    private static final int CACHED_TAIL = 17;   // Consumer's last seen tail
+    private static final int EMPTY_STALLS = 18;  // Times the consumer parked on an empty deck
+    private static final int EMPTY_NANOS = 19;   // Time the consumer spent parked on an empty deck
+    private static final int TAIL = 32;          // Next slot to add to, written by the producer
+    private static final int CACHED_HEAD = 33;   // Producer's last seen head
+    private static final int FULL_STALLS = 34;   // Times the producer parked on a full deck
+    private static final int FULL_NANOS = 35;    // Time the producer spent parked on a full deck
+    private static final int INDEX_SLOTS = 48;
+    // Stop condition for waits only an unpark can end
+    private static final BooleanSupplier NEVER = () -> false;
+
     private final int deckId;
-    // ConcurrentLinkedQueue does all the locking, no need to use synchronised or specific lock method
-    private final ConcurrentLinkedQueue<Card> cards = new ConcurrentLinkedQueue<>();
+    private final int[] slots;
+    private final int mask;
+    private final long[] indices = new long[INDEX_SLOTS];
+    // The player parked waiting for a card, if any
+    private volatile Thread waiter;
+    // The player parked waiting for space, if any
+    private volatile Thread spaceWaiter;
+    // Called after each card is added or drawn, set by the cooperative scheduler
+    private volatile Runnable cardListener;
+    private volatile Runnable spaceListener;
 
     /**
      * Constructor to init a deck with an ID.
      * @param deckId Unique ID for a given deck.
      */
     public Deck(int deckId) {
+        this(deckId, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to init a deck with an ID and the number of cards it can hold.
+     * @param deckId Unique ID for a given deck.
+     * @param capacity Maximum cards in the deck, rounded up to a power of two.
+     */
+    public Deck(int deckId, int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid deck capacity: " + capacity);
+        }
         this.deckId = deckId;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new int[size];
+        this.mask = size - 1;
     }
 
     /**
@@ -27,27 +78,364 @@ public class Deck {
         return deckId;
     }
 
+    /**
+     * Returns the number of cards this deck can hold.
+     * @return The deck's capacity.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
     /**
      * Adds a card to the bottom / end of the deck.
+     * Only one thread may add cards to a deck.
      * @param card The card being added to the bottom of the deck.
+     * @throws IllegalStateException If the deck is full.
      */
     public void addCard(Card card) {
-        cards.add(card);
+        addValue(card.value());
+    }
+
+    /**
+     * Adds a card value to the bottom / end of the deck without creating a Card.
+     * Only one thread may add cards to a deck.
+     * @param value The value of the card being added.
+     * @throws IllegalStateException If the deck is full.
+     */
+    public void addValue(int value) {
+        if (!tryAddValue(value)) {
+            throw new IllegalStateException("Deck " + deckId + " is full.");
+        }
+    }
+
+    /**
+     * Adds a card to the bottom of the deck if there is room for it.
+     * Only one thread may add cards to a deck.
+     * @param card The card being added to the bottom of the deck.
+     * @return true if the card was added, false if the deck is full.
+     */
+    public boolean tryAdd(Card card) {
+        return tryAddValue(card.value());
+    }
+
+    /**
+     * Adds a card value to the bottom of the deck if there is room for it.
+     * Only one thread may add cards to a deck.
+     * @param value The value of the card being added.
+     * @return true if the card was added, false if the deck is full.
+     */
+    public boolean tryAddValue(int value) {
+        long tail = indices[TAIL];
+        if (tail - indices[CACHED_HEAD] >= slots.length) {
+            indices[CACHED_HEAD] = (long) INDEX.getAcquire(indices, HEAD);
+            if (tail - indices[CACHED_HEAD] >= slots.length) {
+                return false;
+            }
+        }
+        slots[(int) tail & mask] = value;
+        // Volatile rather than release, so the waiter check below can't be reordered before it
+        INDEX.setVolatile(indices, TAIL, tail + 1);
+
+        Thread parked = waiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);  // Wake the player waiting on this deck
+        }
+        Runnable listener = cardListener;
+        if (listener != null) {
+            listener.run();
+        }
+        return true;
     }
 
     /**
-     * Draws (which removes and returns) the top card of the deck.
-     * @return The top card of the deck.
+     * Draws (which removes and returns) the top card of the deck without waiting.
+     * Only one thread may draw cards from a deck.
+     * @return The top card of the deck, or null if the deck is empty.
      */
     public Card drawCard() {
-        return cards.poll();
+        return tryDraw();
+    }
+
+    /**
+     * Draws the top card of the deck if there is one.
+     * Only one thread may draw cards from a deck.
+     * @return The top card of the deck, or null if the deck is empty.
+     */
+    public Card tryDraw() {
+        return hasCardToDraw() ? new Card(take()) : null;
+    }
+
+    /**
+     * Draws the value of the top card of the deck without creating a Card.
+     * Only one thread may draw cards from a deck.
+     * @return The value of the top card of the deck.
+     * @throws IllegalStateException If the deck is empty.
+     */
+    public int drawValue() {
+        if (!hasCardToDraw()) {
+            throw new IllegalStateException("Deck " + deckId + " is empty.");
+        }
+        return take();
+    }
+
+    // Consumer side check, only re-reads the producer's tail when the cached copy says empty
+    private boolean hasCardToDraw() {
+        long head = indices[HEAD];
+        if (head >= indices[CACHED_TAIL]) {
+            indices[CACHED_TAIL] = (long) INDEX.getAcquire(indices, TAIL);
+            return head < indices[CACHED_TAIL];
+        }
+        return true;
+    }
+
+    // Removes the top card, the caller has checked there is one
+    private int take() {
+        long head = indices[HEAD];
+        int value = slots[(int) head & mask];
+        INDEX.setVolatile(indices, HEAD, head + 1);
+
+        Thread parked = spaceWaiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);  // Wake the player waiting to discard into this deck
+        }
+        Runnable listener = spaceListener;
+        if (listener != null) {
+            listener.run();
+        }
+        return value;
+    }
+
+    /**
+     * Draws the top card of the deck, parking while the deck is empty.
+     * Only one thread may draw cards from a deck.
+     * @return The top card of the deck, or null if the thread was interrupted while waiting.
+     */
+    public Card takeCard() {
+        while (true) {
+            Card card = tryDraw();
+            if (card != null) {
+                return card;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            awaitCard();
+        }
+    }
+
+    /**
+     * Parks the calling thread until the deck has a card in it.
+     * Returns early if the thread is unparked for another reason, such as the game ending.
+     * @return true if the deck has a card to draw, false if the wait ended without one.
+     */
+    public boolean awaitCard() {
+        if (!isEmpty()) {
+            return true;
+        }
+        waiter = Thread.currentThread();
+        try {
+            // Check again now the waiter is visible, or a card added in between would never wake us
+            if (isEmpty()) {
+                GameEvents.DeckStall event = new GameEvents.DeckStall();
+                event.begin();
+                long start = System.nanoTime();
+                LockSupport.park(this);
+                recordStall(EMPTY_STALLS, EMPTY_NANOS, System.nanoTime() - start);
+                commitStall(event, false);
+            }
+        } finally {
+            waiter = null;
+        }
+        return !isEmpty();
+    }
+
+    /**
+     * Waits for the deck to have a card in it as the policy says, spinning, then yielding, then parking.
+     * The waiter is only published once the thread is about to park, so the adding side only
+     * unparks a thread that is actually parked. A parked thread returns early like awaitCard(),
+     * a spinning or yielding one gives up as soon as stop returns true or it is interrupted.
+     * @param policy How to wait.
+     * @param stop Checked while spinning and yielding and before parking, true once the card is no longer wanted.
+     * @return true if the deck has a card to draw, false if the wait ended without one.
+     */
+    public boolean awaitCard(WaitPolicy policy, BooleanSupplier stop) {
+        if (!isEmpty()) {
+            return true;
+        }
+        long parkAfter = policy.getParkAfterNanos();
+        if (parkAfter > 0) {
+            long spin = policy.getSpinNanos();
+            long start = System.nanoTime();
+            for (long waited = 0; waited < parkAfter; waited = System.nanoTime() - start) {
+                if (stop.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                if (waited < spin) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                if (!isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return !stop.getAsBoolean() && awaitCard();
+    }
+
+    /**
+     * Parks the calling thread until the deck has room for another card.
+     * Returns early if the thread is unparked for another reason, such as the game ending.
+     * @return true if a card can be added, false if the wait ended without room.
+     */
+    public boolean awaitSpace() {
+        return awaitSpace(NEVER);
+    }
+
+    /**
+     * Parks the calling thread until the deck has room for another card, unless stop says it no longer needs it.
+     * Stop is checked after the waiter is published, so whoever makes it true and then unparks the thread
+     * can't be missed. Returns early if the thread is unparked for another reason, such as the game ending.
+     * @param stop true once the room is no longer wanted.
+     * @return true if a card can be added, false if the wait ended without room.
+     */
+    public boolean awaitSpace(BooleanSupplier stop) {
+        if (!isFull()) {
+            return true;
+        }
+        spaceWaiter = Thread.currentThread();
+        try {
+            if (isFull() && !stop.getAsBoolean()) {
+                GameEvents.DeckStall event = new GameEvents.DeckStall();
+                event.begin();
+                long start = System.nanoTime();
+                LockSupport.park(this);
+                recordStall(FULL_STALLS, FULL_NANOS, System.nanoTime() - start);
+                commitStall(event, true);
+            }
+        } finally {
+            spaceWaiter = null;
+        }
+        return !isFull();
+    }
+
+    /**
+     * Sets a callback run by the adding thread after every card added, for a drawer that yields instead of parking.
+     * The card is visible to the drawer before the callback runs.
+     * @param cardListener Callback, or null for none.
+     */
+    public void setCardListener(Runnable cardListener) {
+        this.cardListener = cardListener;
+    }
+
+    /**
+     * Sets a callback run by the drawing thread after every card drawn, for an adder that yields instead of parking.
+     * The freed slot is visible to the adder before the callback runs.
+     * @param spaceListener Callback, or null for none.
+     */
+    public void setSpaceListener(Runnable spaceListener) {
+        this.spaceListener = spaceListener;
+    }
+
+    // Stall counters have a single writer, opaque stores let other threads read them without tearing
+    private void recordStall(int stalls, int nanos, long waited) {
+        INDEX.setOpaque(indices, stalls, indices[stalls] + 1);
+        INDEX.setOpaque(indices, nanos, indices[nanos] + waited);
+    }
+
+    private void commitStall(GameEvents.DeckStall event, boolean full) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.deckId = deckId;
+            event.full = full;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns how many times the player drawing from this deck parked because it was empty.
+     * @return Number of empty deck stalls.
+     */
+    public long getEmptyStalls() {
+        return (long) INDEX.getOpaque(indices, EMPTY_STALLS);
+    }
+
+    /**
+     * Returns the total time the player drawing from this deck spent parked because it was empty.
+     * @return Stall time in nanoseconds.
+     */
+    public long getEmptyStallNanos() {
+        return (long) INDEX.getOpaque(indices, EMPTY_NANOS);
+    }
+
+    /**
+     * Returns how many times the player adding to this deck parked because it was full.
+     * @return Number of full deck stalls.
+     */
+    public long getFullStalls() {
+        return (long) INDEX.getOpaque(indices, FULL_STALLS);
+    }
+
+    /**
+     * Returns the total time the player adding to this deck spent parked because it was full.
+     * @return Stall time in nanoseconds.
+     */
+    public long getFullStallNanos() {
+        return (long) INDEX.getOpaque(indices, FULL_NANOS);
+    }
+
+    /**
+     * Checks if the deck has no cards in it.
+     * @return true if the deck is empty.
+     */
+    public boolean isEmpty() {
+        return (long) INDEX.getVolatile(indices, HEAD) >= (long) INDEX.getVolatile(indices, TAIL);
+    }
+
+    /**
+     * Checks if the deck has no room for another card.
+     * @return true if the deck is full.
+     */
+    public boolean isFull() {
+        return (long) INDEX.getVolatile(indices, TAIL) - (long) INDEX.getVolatile(indices, HEAD) >= slots.length;
+    }
+
+    /**
+     * Returns the number of cards in the deck.
+     * @return The number of cards currently in the deck.
+     */
+    public int size() {
+        long head = (long) INDEX.getVolatile(indices, HEAD);
+        long tail = (long) INDEX.getVolatile(indices, TAIL);
+        return (int) Math.max(0, tail - head);
     }
 
     /**
      * Reads the list of cards in the deck.
+     * Like iterating a concurrent queue, the copy is only exact when nobody is adding or drawing at the same time.
      * @return A list of cards in the deck
      */
     public List<Card> getCards() {
-        return new ArrayList<>(cards);
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        long head = Math.max((long) INDEX.getAcquire(indices, HEAD), tail - slots.length);
+        List<Card> cards = new ArrayList<>((int) Math.max(0, tail - head));
+        for (long i = head; i < tail; i++) {
+            cards.add(new Card(slots[(int) i & mask]));
+        }
+        return cards;
+    }
+
+    /**
+     * Reads the values of the cards in the deck, with the same caveat as getCards.
+     * @return Card values in the deck, top first.
+     */
+    public int[] getValues() {
+        long tail = (long) INDEX.getAcquire(indices, TAIL);
+        long head = Math.max((long) INDEX.getAcquire(indices, HEAD), tail - slots.length);
+        int[] values = new int[(int) Math.max(0, tail - head)];
+        for (long i = head; i < tail; i++) {
+            values[(int) (i - head)] = slots[(int) i & mask];
+        }
+        return values;
     }
-}
\ No newline at end of file
+}
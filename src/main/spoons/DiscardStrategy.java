@@ -0,0 +1,20 @@
+package spoons;
+
+/**
+ * Chooses which card a player discards after drawing.
+ * A strategy is called with the player's lock held and may keep state between turns,
+ * so each player needs its own instance.
+ */
+public interface DiscardStrategy {
+
+    /**
+     * Picks the card to discard from a hand.
+     * Implementations should use the hand's per-value buckets rather than scanning it, the hand
+     * only holds 5 cards during a turn but strategies are compared over millions of turns.
+     *
+     * @param hand                  The player's hand, including the card just drawn.
+     * @param preferredDenomination The player's preferred denomination.
+     * @return Slot handle of the card to discard.
+     */
+    int chooseDiscard(Hand hand, int preferredDenomination);
+}
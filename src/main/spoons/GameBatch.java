@@ -0,0 +1,342 @@
+package spoons;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many games with the same number of players, all held at once in off-heap memory.
+ * Every hand, deck and per-game counter of the batch lives in one of a few flat segments of ints and bytes,
+ * struct-of-arrays style, so a batch of tens of millions of games adds no objects to the heap and the
+ * garbage collector never sees it. Turns follow the same rules as GameSimulator, and so Player.playTurn:
+ * seats move in order, each drawing from its left deck and discarding the first card it doesn't prefer.
+ * Each game only ever touches its own slots, so different games can be played on different threads.
+ * Close the batch to free its memory.
+ */
+public final class GameBatch implements AutoCloseable {
+    // Cards held between turns, the drawn card is kept in a local until the discard
+    private static final int HAND_SIZE = 4;
+    // Outcomes other than a winning player ID
+    private static final int RUNNING = 0;
+    private static final int STALLED = -1;
+    // Games played by one task, enough to amortise the fork
+    private static final int GAMES_PER_TASK = 1024;
+
+    private final int numGames;
+    private final int numPlayers;
+    private final int deckCapacity;
+    private final int deckMask;
+    private final Arena arena;
+    // Hand of seat p in game g at ints ((g * numPlayers + p) * HAND_SIZE), oldest card first
+    private final MemorySegment hands;
+    // Deck d of game g is a ring of deckCapacity ints at ((g * numPlayers + d) * deckCapacity)
+    private final MemorySegment deckCards;
+    // Ring head and card count of each deck, one byte each
+    private final MemorySegment deckHeads;
+    private final MemorySegment deckSizes;
+    // Per game: RUNNING, STALLED or the winner's ID, the turns taken and the seat to move next
+    private final MemorySegment outcomes;
+    private final MemorySegment turns;
+    private final MemorySegment seats;
+
+    /**
+     * Allocates a batch of games, none of them dealt.
+     * A deck holds as many cards as a Deck does by default, or fewer when the game has too few cards to fill it,
+     * which plays the same because such a deck can never be full.
+     *
+     * @param numGames   Number of games in the batch.
+     * @param numPlayers Number of players in each game.
+     */
+    public GameBatch(int numGames, int numPlayers) {
+        if (numGames <= 0) {
+            throw new IllegalArgumentException("Number of games must be positive.");
+        }
+        if (numPlayers <= 0 || numPlayers > PackGenerator.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between 1 and "
+                    + PackGenerator.MAX_PLAYERS + ".");
+        }
+        this.numGames = numGames;
+        this.numPlayers = numPlayers;
+        // At most 4n cards are ever in the decks at once, and ring indices are kept in a byte
+        int cards = (int) Math.min(4L * numPlayers, Math.min(Deck.DEFAULT_CAPACITY, 1 << 7));
+        int capacity = Integer.highestOneBit(cards);
+        this.deckCapacity = capacity < cards ? capacity << 1 : capacity;
+        this.deckMask = deckCapacity - 1;
+
+        long seatCount = (long) numGames * numPlayers;
+        this.arena = Arena.ofShared();
+        this.hands = arena.allocate(seatCount * HAND_SIZE * Integer.BYTES, Integer.BYTES);
+        this.deckCards = arena.allocate(seatCount * deckCapacity * Integer.BYTES, Integer.BYTES);
+        this.deckHeads = arena.allocate(seatCount, 1);
+        this.deckSizes = arena.allocate(seatCount, 1);
+        this.outcomes = arena.allocate((long) numGames * Integer.BYTES, Integer.BYTES);
+        this.turns = arena.allocate((long) numGames * Long.BYTES, Long.BYTES);
+        this.seats = arena.allocate((long) numGames * Integer.BYTES, Integer.BYTES);
+    }
+
+    /**
+     * Returns the number of games in the batch.
+     * @return Number of games.
+     */
+    public int getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * Returns the number of players in each game.
+     * @return Number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the off-heap memory the batch holds.
+     * @return Bytes allocated for all games.
+     */
+    public long byteSize() {
+        return hands.byteSize() + deckCards.byteSize() + deckHeads.byteSize() + deckSizes.byteSize()
+                + outcomes.byteSize() + turns.byteSize() + seats.byteSize();
+    }
+
+    /**
+     * Deals a pack to one game, as CardGame.distributeCards does, and resets its turns.
+     * A dealt hand that is already a win ends the game at once, the lowest seat winning.
+     *
+     * @param game Index of the game.
+     * @param pack Card values, exactly 8 per player.
+     */
+    public void deal(int game, int[] pack) {
+        if (pack.length != numPlayers * 8) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        long firstSeat = (long) game * numPlayers;
+        MemorySegment.copy(pack, 0, hands, ValueLayout.JAVA_INT, firstSeat * HAND_SIZE * Integer.BYTES,
+                numPlayers * HAND_SIZE);
+        int cardIndex = numPlayers * HAND_SIZE;
+        for (int d = 0; d < numPlayers; d++) {
+            MemorySegment.copy(pack, cardIndex, deckCards, ValueLayout.JAVA_INT,
+                    (firstSeat + d) * deckCapacity * Integer.BYTES, 4);
+            cardIndex += 4;
+            deckHeads.set(ValueLayout.JAVA_BYTE, firstSeat + d, (byte) 0);
+            deckSizes.set(ValueLayout.JAVA_BYTE, firstSeat + d, (byte) 4);
+        }
+        turns.setAtIndex(ValueLayout.JAVA_LONG, game, 0);
+        seats.setAtIndex(ValueLayout.JAVA_INT, game, 0);
+
+        long winner = WinDetector.firstWinningHand(hands, firstSeat, firstSeat + numPlayers);
+        outcomes.setAtIndex(ValueLayout.JAVA_INT, game, winner < 0 ? RUNNING : (int) (winner - firstSeat) + 1);
+    }
+
+    /**
+     * Deals every game its own shuffle of a pack, game i shuffled with a SplittableRandom seeded from seed and i
+     * as GameSimulator.runBatch does, so both play the same games.
+     *
+     * @param pack Card values, exactly 8 per player.
+     * @param seed Seed for the shuffles.
+     * @param pool Pool to deal on.
+     */
+    public void dealShuffled(int[] pack, long seed, ForkJoinPool pool) {
+        if (pack.length != numPlayers * 8) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        pool.invoke(new RangeTask(0, numGames, (from, to) -> {
+            int[] shuffled = new int[pack.length];
+            for (int game = from; game < to; game++) {
+                System.arraycopy(pack, 0, shuffled, 0, pack.length);
+                GameSimulator.shuffle(shuffled, new SplittableRandom(seed + game));
+                deal(game, shuffled);
+            }
+        }));
+    }
+
+    /**
+     * Plays every unfinished game on a pool until it is won, stalls or reaches the turn limit.
+     * A game stopped by the limit carries on from the same seat when played again with a higher limit.
+     *
+     * @param maxTurns Total turns after which a game stops without a winner.
+     * @param pool     Pool to play on.
+     */
+    public void play(long maxTurns, ForkJoinPool pool) {
+        pool.invoke(new RangeTask(0, numGames, (from, to) -> {
+            for (int game = from; game < to; game++) {
+                play(game, maxTurns);
+            }
+        }));
+    }
+
+    /**
+     * Plays one game until it is won, stalls or reaches the turn limit.
+     *
+     * @param game     Index of the game.
+     * @param maxTurns Total turns after which the game stops without a winner.
+     */
+    public void play(int game, long maxTurns) {
+        if (outcomes.getAtIndex(ValueLayout.JAVA_INT, game) != RUNNING) {
+            return;
+        }
+        long firstSeat = (long) game * numPlayers;
+        long taken = turns.getAtIndex(ValueLayout.JAVA_LONG, game);
+        int seat = seats.getAtIndex(ValueLayout.JAVA_INT, game);
+        int outcome = RUNNING;
+        // Seats in a row that could not move, a whole round of them means nobody ever will
+        int idle = 0;
+        while (taken < maxTurns) {
+            if (playTurn(firstSeat, seat)) {
+                taken++;
+                idle = 0;
+                if (isWinningHand(firstSeat + seat)) {
+                    outcome = seat + 1;
+                    break;
+                }
+            } else if (++idle == numPlayers) {
+                outcome = STALLED;
+                break;
+            }
+            seat = seat + 1 == numPlayers ? 0 : seat + 1;
+        }
+        turns.setAtIndex(ValueLayout.JAVA_LONG, game, taken);
+        seats.setAtIndex(ValueLayout.JAVA_INT, game, seat);
+        outcomes.setAtIndex(ValueLayout.JAVA_INT, game, outcome);
+    }
+
+    /**
+     * Returns a game's winner.
+     * @param game Index of the game.
+     * @return ID of the winning player, or SimulationResult.NO_WINNER.
+     */
+    public int getWinnerId(int game) {
+        return Math.max(SimulationResult.NO_WINNER, outcomes.getAtIndex(ValueLayout.JAVA_INT, game));
+    }
+
+    /**
+     * Checks whether a game has been won, or can't go on because nobody can move.
+     * @param game Index of the game.
+     * @return true if playing the game further would not change it.
+     */
+    public boolean isFinished(int game) {
+        return outcomes.getAtIndex(ValueLayout.JAVA_INT, game) != RUNNING;
+    }
+
+    /**
+     * Returns the turns a game has taken.
+     * @param game Index of the game.
+     * @return Turns taken by all players.
+     */
+    public long getTurns(int game) {
+        return turns.getAtIndex(ValueLayout.JAVA_LONG, game);
+    }
+
+    /**
+     * Copies a game's state onto the heap, in the same form GameSimulator returns.
+     * @param game Index of the game.
+     * @return The winner, turns taken and final hands.
+     */
+    public SimulationResult result(int game) {
+        int[] finalHands = new int[numPlayers * HAND_SIZE];
+        MemorySegment.copy(hands, ValueLayout.JAVA_INT, (long) game * numPlayers * HAND_SIZE * Integer.BYTES,
+                finalHands, 0, finalHands.length);
+        return new SimulationResult(getWinnerId(game), getTurns(game), finalHands);
+    }
+
+    /**
+     * Frees the batch's memory. No game may be played or read afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Draws from the left deck and discards to the right deck, as in GameSimulator.playTurn.
+     * @return false if the player could not move.
+     */
+    private boolean playTurn(long firstSeat, int p) {
+        long left = firstSeat + p;
+        long right = p + 1 == numPlayers ? firstSeat : left + 1;
+        int leftSize = Byte.toUnsignedInt(deckSizes.get(ValueLayout.JAVA_BYTE, left));
+        if (leftSize == 0) {
+            return false;
+        }
+        int rightSize = Byte.toUnsignedInt(deckSizes.get(ValueLayout.JAVA_BYTE, right));
+        if (right != left && rightSize == deckCapacity) {
+            return false;
+        }
+
+        int leftHead = Byte.toUnsignedInt(deckHeads.get(ValueLayout.JAVA_BYTE, left));
+        int drawn = deckCards.getAtIndex(ValueLayout.JAVA_INT, left * deckCapacity + leftHead);
+        deckHeads.set(ValueLayout.JAVA_BYTE, left, (byte) ((leftHead + 1) & deckMask));
+        deckSizes.set(ValueLayout.JAVA_BYTE, left, (byte) --leftSize);
+        if (right == left) {
+            rightSize = leftSize;
+        }
+
+        // Discard the first card not matching the preferred denomination, or the first card if they all match
+        long hand = (firstSeat + p) * HAND_SIZE;
+        int preferred = p + 1;
+        int discard = 0;
+        while (discard < HAND_SIZE && hands.getAtIndex(ValueLayout.JAVA_INT, hand + discard) == preferred) {
+            discard++;
+        }
+        int discarded;
+        if (discard == HAND_SIZE && drawn != preferred) {
+            discarded = drawn;  // The hand is unchanged
+        } else {
+            if (discard == HAND_SIZE) {
+                discard = 0;
+            }
+            discarded = hands.getAtIndex(ValueLayout.JAVA_INT, hand + discard);
+            for (int i = discard; i < HAND_SIZE - 1; i++) {
+                hands.setAtIndex(ValueLayout.JAVA_INT, hand + i, hands.getAtIndex(ValueLayout.JAVA_INT, hand + i + 1));
+            }
+            hands.setAtIndex(ValueLayout.JAVA_INT, hand + HAND_SIZE - 1, drawn);
+        }
+
+        int rightHead = Byte.toUnsignedInt(deckHeads.get(ValueLayout.JAVA_BYTE, right));
+        deckCards.setAtIndex(ValueLayout.JAVA_INT, right * deckCapacity + ((rightHead + rightSize) & deckMask), discarded);
+        deckSizes.set(ValueLayout.JAVA_BYTE, right, (byte) (rightSize + 1));
+        return true;
+    }
+
+    private boolean isWinningHand(long seat) {
+        long hand = seat * HAND_SIZE;
+        int first = hands.getAtIndex(ValueLayout.JAVA_INT, hand);
+        return hands.getAtIndex(ValueLayout.JAVA_INT, hand + 1) == first
+                && hands.getAtIndex(ValueLayout.JAVA_INT, hand + 2) == first
+                && hands.getAtIndex(ValueLayout.JAVA_INT, hand + 3) == first;
+    }
+
+    // Work on a range of games
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits a range of games in half until it is small enough for one thread.
+     */
+    @SuppressWarnings("serial")  // ForkJoinTask is Serializable, but the tasks are never serialized
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final RangeAction action;
+
+        RangeTask(int from, int to, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                action.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, action), new RangeTask(mid, to, action));
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package spoons;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * A consistent cut of a game in progress: every hand, every deck and the turn counts, as they were between turns.
+ * Taken by CardGame.checkpoint and dealt back into a new game by CardGame.resume.
+ * <p>
+ * The file is a 16 byte big-endian header, a payload of unsigned LEB128 varints and a 4 byte trailer:
+ * <pre>
+ *  0  magic        0x89 'S' 'C' 'K'
+ *  4  version      u16, currently 1
+ *  6  reserved     u16, 0
+ *  8  player count u32
+ * 12  reserved     u32, 0
+ * 16  total turns, then for each player its turns, hand size and hand oldest first,
+ *     then for each deck its size and cards top first, card values zigzag encoded
+ *  -4 checksum     u32, CRC32C of everything before it
+ * </pre>
+ * Both ends stream, so a checkpoint of any size is written and read a buffer at a time.
+ *
+ * @param hands       Each player's hand, oldest card first.
+ * @param decks       Each deck's cards, top first.
+ * @param totalTurns  Turns taken by all players.
+ * @param playerTurns Turns taken by each player.
+ */
+public record GameCheckpoint(int[][] hands, int[][] decks, long totalTurns, long[] playerTurns) {
+    /** First four bytes of every checkpoint. */
+    public static final int MAGIC = 0x8953434B;
+    /** Format version written by this class. */
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Constructor checking the cut holds 4 cards in every hand and 8 cards per player in all.
+     *
+     * @param hands       Each player's hand, oldest card first.
+     * @param decks       Each deck's cards, top first.
+     * @param totalTurns  Turns taken by all players.
+     * @param playerTurns Turns taken by each player.
+     */
+    public GameCheckpoint {
+        if (hands.length == 0 || decks.length != hands.length || playerTurns.length != hands.length) {
+            throw new IllegalArgumentException("Invalid checkpoint: needs a hand, a deck and a turn count per player.");
+        }
+        long cards = 0;
+        for (int i = 0; i < hands.length; i++) {
+            if (hands[i].length != 4) {
+                throw new IllegalArgumentException("Invalid checkpoint: player " + (i + 1) + " holds "
+                        + hands[i].length + " cards, between turns every hand holds 4.");
+            }
+            cards += hands[i].length + decks[i].length;
+        }
+        if (cards != hands.length * 8L) {
+            throw new IllegalArgumentException("Invalid checkpoint: " + cards + " cards is not 8 per player.");
+        }
+    }
+
+    /**
+     * Returns the number of players in the game.
+     * @return Number of players.
+     */
+    public int numPlayers() {
+        return hands.length;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it into place,
+     * so a crash part way through leaves any earlier checkpoint at the path intact.
+     *
+     * @param path Where to write the checkpoint.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     new CheckedOutputStream(file, crc), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(hands.length);
+            out.writeInt(0);
+            putVarlong(out, totalTurns);
+            for (int i = 0; i < hands.length; i++) {
+                putVarlong(out, playerTurns[i]);
+                putCards(out, hands[i]);
+            }
+            for (int[] deck : decks) {
+                putCards(out, deck);
+            }
+            out.flush();
+            // Straight to the file, the checksum doesn't cover itself
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);  // No atomic moves on this file system
+        }
+    }
+
+    /**
+     * Reads a checkpoint, checking its header, its card count and its checksum.
+     *
+     * @param path A checkpoint file.
+     * @return The checkpoint.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a valid checkpoint.
+     */
+    public static GameCheckpoint read(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Invalid checkpoint: not a checkpoint file.");
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Invalid checkpoint: unsupported version " + version + ".");
+            }
+            in.readUnsignedShort();
+            int numPlayers = in.readInt();
+            in.readInt();
+            if (numPlayers <= 0 || numPlayers > PackGenerator.MAX_PLAYERS) {
+                throw new IllegalArgumentException("Invalid checkpoint: bad player count " + numPlayers + ".");
+            }
+
+            long totalTurns = getVarlong(in);
+            int[][] hands = new int[numPlayers][];
+            int[][] decks = new int[numPlayers][];
+            long[] playerTurns = new long[numPlayers];
+            for (int i = 0; i < numPlayers; i++) {
+                playerTurns[i] = getVarlong(in);
+                hands[i] = getCards(in, numPlayers);
+            }
+            for (int i = 0; i < numPlayers; i++) {
+                decks[i] = getCards(in, numPlayers);
+            }
+
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IllegalArgumentException("Invalid checkpoint: checksum mismatch.");
+            }
+            if (file.read() != -1) {
+                throw new IllegalArgumentException("Invalid checkpoint: unexpected bytes after the checksum.");
+            }
+            return new GameCheckpoint(hands, decks, totalTurns, playerTurns);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Invalid checkpoint: file ends early.");
+        }
+    }
+
+    /**
+     * Checkpoints a game at a fixed rate on a background daemon thread until closed.
+     * Each checkpoint replaces the last, and a failed one is reported and tried again next time.
+     *
+     * @param game   A game that has been initialised.
+     * @param path   Where to keep the latest checkpoint.
+     * @param period Time between checkpoints.
+     * @return A schedule which stops the checkpoints when closed.
+     */
+    public static Schedule schedule(CardGame game, Path path, Duration period) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodNanos = period.toNanos();
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                game.checkpoint().write(path);
+            } catch (IOException e) {
+                System.err.println("Error writing checkpoint " + path + ": " + e.getMessage());
+            }
+        }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        return new Schedule(scheduler);
+    }
+
+    /**
+     * Stops periodic checkpoints started by schedule.
+     */
+    public static final class Schedule implements AutoCloseable {
+        private final ScheduledExecutorService scheduler;
+
+        private Schedule(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * Stops the checkpoints, waiting for one being written to finish so the file is never left half moved.
+         */
+        @Override
+        public void close() {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void putCards(DataOutputStream out, int[] cards) throws IOException {
+        putVarlong(out, cards.length);
+        for (int card : cards) {
+            putVarlong(out, Integer.toUnsignedLong((card << 1) ^ (card >> 31)));  // Zigzag, like BinaryPack
+        }
+    }
+
+    private static int[] getCards(DataInputStream in, int numPlayers) throws IOException {
+        long count = getVarlong(in);
+        if (count > numPlayers * 8L) {
+            throw new IllegalArgumentException("Invalid checkpoint: incorrect number of cards.");
+        }
+        int[] cards = new int[(int) count];
+        for (int i = 0; i < cards.length; i++) {
+            int bits = (int) getVarlong(in);
+            cards[i] = (bits >>> 1) ^ -(bits & 1);
+        }
+        return cards;
+    }
+
+    private static void putVarlong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long getVarlong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid checkpoint: varint too long.");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameCheckpoint other && Arrays.deepEquals(hands, other.hands)
+                && Arrays.deepEquals(decks, other.decks) && totalTurns == other.totalTurns
+                && Arrays.equals(playerTurns, other.playerTurns);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.deepHashCode(hands);
+        result = 31 * result + Arrays.deepHashCode(decks);
+        result = 31 * result + Long.hashCode(totalTurns);
+        return 31 * result + Arrays.hashCode(playerTurns);
+    }
+
+    @Override
+    public String toString() {
+        return "GameCheckpoint[hands=" + Arrays.deepToString(hands) + ", decks=" + Arrays.deepToString(decks)
+                + ", totalTurns=" + totalTurns + ", playerTurns=" + Arrays.toString(playerTurns) + "]";
+    }
+}
@@ -0,0 +1,238 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.IntFunction;
+
+/**
+ * Settings for a game started with CardGame.startAsync, for services that run many games at once.
+ * Unlike the command line game, nothing is written to disk or the console unless a log directory is set,
+ * and players run on virtual threads so hundreds of games cost no more than a few platform threads.
+ */
+public class GameConfig {
+    // Runs each game on a virtual thread of its own, which spends most of its time waiting for the players
+    private static final Executor VIRTUAL_THREAD_PER_GAME = runnable -> Thread.ofVirtual().name("game").start(runnable);
+
+    private final int numPlayers;
+    private final int[] pack;  // null when the pack is loaded from packPath
+    private final Path packPath;
+    private Executor executor;
+    private ThreadMode threadMode;
+    private WaitPolicy waitPolicy;
+    private int workerCount;
+    private Path logDirectory;
+    private IntFunction<DiscardStrategy> discardStrategyFactory;
+    private long maxTurns;
+    private long maxWallTime;
+    private long noProgressTimeout;
+    private final List<Observer> observers = new ArrayList<>();
+
+    // A subscriber to attach to the game's events before it starts
+    private record Observer(Flow.Subscriber<? super GameEvent> subscriber, int bufferSize,
+                            GameEventPublisher.Backpressure backpressure) {
+    }
+
+    /**
+     * Constructor for a game dealt from card values.
+     * The array is used as it is, it must not change until the game has been dealt.
+     *
+     * @param numPlayers Number of players.
+     * @param pack       Card values, exactly 8 per player.
+     */
+    public GameConfig(int numPlayers, int[] pack) {
+        this(numPlayers, pack, null);
+        if (pack.length != numPlayers * 8L) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+    }
+
+    /**
+     * Constructor for a game dealt from a text or binary pack file, loaded when the game starts.
+     *
+     * @param numPlayers Number of players.
+     * @param packPath   Pack file, which must hold exactly 8 cards per player.
+     */
+    public GameConfig(int numPlayers, Path packPath) {
+        this(numPlayers, null, packPath);
+    }
+
+    private GameConfig(int numPlayers, int[] pack, Path packPath) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        this.numPlayers = numPlayers;
+        this.pack = pack;
+        this.packPath = packPath;
+        this.executor = VIRTUAL_THREAD_PER_GAME;
+        this.threadMode = ThreadMode.VIRTUAL;
+        this.waitPolicy = WaitPolicy.PARK;
+        this.workerCount = Runtime.getRuntime().availableProcessors();
+        this.discardStrategyFactory = id -> new PreferredDiscard();
+    }
+
+    /**
+     * Sets what loads the pack, deals and waits for the players, a new virtual thread per game by default.
+     * The players themselves run on threads chosen by the thread mode.
+     *
+     * @param executor Executor for the game's own work.
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null.");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Selects the kind of thread each player runs on, virtual threads by default.
+     * @param threadMode Platform or virtual threads, or cooperative tasks on a pool per game.
+     */
+    public void setThreadMode(ThreadMode threadMode) {
+        if (threadMode == null) {
+            throw new IllegalArgumentException("Thread mode cannot be null.");
+        }
+        this.threadMode = threadMode;
+    }
+
+    /**
+     * Selects how players wait while their left deck is empty, parking by default.
+     * @param waitPolicy Park, spin, or spin then yield then park.
+     */
+    public void setWaitPolicy(WaitPolicy waitPolicy) {
+        if (waitPolicy == null) {
+            throw new IllegalArgumentException("Wait policy cannot be null.");
+        }
+        this.waitPolicy = waitPolicy;
+    }
+
+    /**
+     * Sets how many workers the players share in cooperative mode, one per core by default.
+     * @param workerCount Number of worker threads.
+     */
+    public void setWorkerCount(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive.");
+        }
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Sets where the player and deck output files go, or turns them off.
+     * @param logDirectory Existing directory for the output files, null for none, which is the default.
+     */
+    public void setLogDirectory(Path logDirectory) {
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * Gives every player its own discard strategy, PreferredDiscard by default.
+     * @param strategyFactory Creates the strategy for a player ID.
+     */
+    public void setDiscardStrategy(IntFunction<DiscardStrategy> strategyFactory) {
+        if (strategyFactory == null) {
+            throw new IllegalArgumentException("Discard strategy factory cannot be null.");
+        }
+        this.discardStrategyFactory = strategyFactory;
+    }
+
+    /**
+     * Limits the total turns, the game is a draw once they are used up.
+     * @param maxTurns Turns allowed, zero for no limit.
+     */
+    public void setMaxTurns(long maxTurns) {
+        if (maxTurns < 0) {
+            throw new IllegalArgumentException("Turn limit cannot be negative.");
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Limits how long the game may run, it is a draw once the time is up.
+     * @param maxWallTime Time allowed in milliseconds, zero for no limit.
+     */
+    public void setMaxWallTime(long maxWallTime) {
+        if (maxWallTime < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative.");
+        }
+        this.maxWallTime = maxWallTime;
+    }
+
+    /**
+     * Ends the game as a draw when the players' hands reach no new state for a while.
+     * @param noProgressTimeout Time allowed without progress in milliseconds, zero for no limit.
+     */
+    public void setNoProgressTimeout(long noProgressTimeout) {
+        if (noProgressTimeout < 0) {
+            throw new IllegalArgumentException("No-progress timeout cannot be negative.");
+        }
+        this.noProgressTimeout = noProgressTimeout;
+    }
+
+    /**
+     * Subscribes to the game's events as soon as the game is created, so the subscriber sees the whole game.
+     * The subscriber is completed when the game ends, and is subscribed again by each game started from this config.
+     *
+     * @param subscriber   Receives the game's events.
+     * @param bufferSize   Events held for the subscriber while it has no demand.
+     * @param backpressure What happens to events once the buffer is full.
+     */
+    public void addSubscriber(Flow.Subscriber<? super GameEvent> subscriber, int bufferSize,
+                              GameEventPublisher.Backpressure backpressure) {
+        if (subscriber == null || backpressure == null) {
+            throw new IllegalArgumentException("Subscriber and backpressure cannot be null.");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive.");
+        }
+        observers.add(new Observer(subscriber, bufferSize, backpressure));
+    }
+
+    /**
+     * Returns the number of players.
+     * @return Number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the executor the game's own work runs on.
+     * @return The executor.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Loads the pack if needed and creates the game, on the thread starting it.
+     * @throws IOException If the pack file can't be read.
+     * @throws IllegalArgumentException If the pack is invalid or the wrong size.
+     */
+    CardGame createGame() throws IOException {
+        int[] values = pack != null ? pack : CardGame.loadPackValues(packPath.toString());
+        if (values.length != numPlayers * 8L) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        CardGame game = new CardGame(numPlayers, values);
+        game.setAnnouncing(false);
+        game.setThreadMode(threadMode);
+        game.setWaitPolicy(waitPolicy);
+        game.setWorkerCount(workerCount);
+        game.setLoggingEnabled(logDirectory != null);
+        if (logDirectory != null) {
+            game.setLogDirectory(logDirectory);
+        }
+        game.setDiscardStrategy(discardStrategyFactory);
+        game.setMaxTurns(maxTurns);
+        game.setMaxWallTime(maxWallTime);
+        game.setNoProgressTimeout(noProgressTimeout);
+        for (Observer observer : observers) {
+            game.getEvents().subscribe(observer.subscriber(), observer.bufferSize(), observer.backpressure());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,111 @@
+package spoons;
+
+import java.util.Arrays;
+
+/**
+ * Something a player did, as seen by live observers of a game through its GameEventPublisher.
+ *
+ * @param type     What happened.
+ * @param playerId ID of the player it happened to.
+ * @param deckId   Deck drawn from or discarded to, 0 for WIN and EXIT.
+ * @param card     Card drawn or discarded, 0 for WIN and EXIT.
+ * @param hand     The player's hand just after the event, oldest card first, null for DRAW.
+ * @param nanoTime System.nanoTime when the event happened.
+ */
+public record GameEvent(Type type, int playerId, int deckId, int card, int[] hand, long nanoTime) {
+
+    /** Kinds of event. */
+    public enum Type {
+        /** A player drew a card from its left deck. */
+        DRAW,
+        /** A player discarded a card to its right deck. */
+        DISCARD,
+        /** A player was elected the winner. */
+        WIN,
+        /** A player stopped playing because the game is over. */
+        EXIT
+    }
+
+    /**
+     * Creates a draw event.
+     * @param playerId ID of the player drawing.
+     * @param deckId   ID of the deck drawn from.
+     * @param card     Value of the card drawn.
+     * @return The event.
+     */
+    public static GameEvent draw(int playerId, int deckId, int card) {
+        return new GameEvent(Type.DRAW, playerId, deckId, card, null, System.nanoTime());
+    }
+
+    /**
+     * Creates a discard event.
+     * @param playerId ID of the player discarding.
+     * @param deckId   ID of the deck discarded to.
+     * @param card     Value of the card discarded.
+     * @param hand     The player's hand after the discard.
+     * @return The event.
+     */
+    public static GameEvent discard(int playerId, int deckId, int card, int[] hand) {
+        return new GameEvent(Type.DISCARD, playerId, deckId, card, hand, System.nanoTime());
+    }
+
+    /**
+     * Creates a win event.
+     * @param playerId ID of the winner.
+     * @param hand     The winning hand.
+     * @return The event.
+     */
+    public static GameEvent win(int playerId, int[] hand) {
+        return new GameEvent(Type.WIN, playerId, 0, 0, hand, System.nanoTime());
+    }
+
+    /**
+     * Creates an exit event.
+     * @param playerId ID of the player leaving the game.
+     * @param hand     The hand the player leaves with.
+     * @return The event.
+     */
+    public static GameEvent exit(int playerId, int[] hand) {
+        return new GameEvent(Type.EXIT, playerId, 0, 0, hand, System.nanoTime());
+    }
+
+    /**
+     * Formats the hand the way the player logs show it.
+     * @return Card values separated by spaces, oldest first, empty for a draw.
+     */
+    public String handToString() {
+        if (hand == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < hand.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(hand[i]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameEvent other && type == other.type && playerId == other.playerId
+                && deckId == other.deckId && card == other.card && Arrays.equals(hand, other.hand)
+                && nanoTime == other.nanoTime;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * type.hashCode() + playerId;
+        result = 31 * result + deckId;
+        result = 31 * result + card;
+        result = 31 * result + Arrays.hashCode(hand);
+        return 31 * result + Long.hashCode(nanoTime);
+    }
+
+    @Override
+    public String toString() {
+        return "GameEvent[type=" + type + ", playerId=" + playerId + ", deckId=" + deckId + ", card=" + card
+                + ", hand=" + Arrays.toString(hand) + ", nanoTime=" + nanoTime + "]";
+    }
+}
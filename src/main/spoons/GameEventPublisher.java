@@ -0,0 +1,546 @@
+package spoons;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes a game's events to live subscribers such as dashboards, recorders and the player log files.
+ * <p>
+ * Players hand events to a bounded lock-free queue. A single dispatcher thread copies each event into every
+ * subscription's bounded buffer, and each subscription delivers from its buffer on its own thread, as many events
+ * at a time as its subscriber has requested. What happens when a buffer is full is up to the subscription's
+ * Backpressure. Events published while the queue itself is full are dropped and counted, players never wait.
+ * <p>
+ * The log files can't lose a line, so the game's log subscriber skips the queue: players add every event to its own
+ * unbounded buffer, see subscribeLossless.
+ */
+public class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+    /** Buffer size for subscribers that don't choose one. */
+    public static final int DEFAULT_BUFFER_SIZE = Flow.defaultBufferSize();
+    /** Events waiting for the dispatcher before players start dropping them. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
+    /** What a subscription does with an event when its buffer is full. */
+    public enum Backpressure {
+        /** The new event is dropped, so the subscriber sees the oldest events. */
+        DROP,
+        /**
+         * The dispatcher waits for room, so the subscriber sees every event the queue took. Other subscribers wait
+         * with it, and once the queue is full players drop events rather than wait.
+         */
+        BLOCK,
+        /** The oldest buffered event is dropped to make room, so the subscriber sees the latest events. */
+        SAMPLE
+    }
+
+    private final int queueCapacity;
+    // Runs each subscription's deliveries
+    private final Executor executor;
+    // Events waiting for the dispatcher, with their count kept separately so players can check the bound
+    private final ConcurrentLinkedQueue<GameEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Subscribers fed straight by the players, see subscribeLossless
+    private final CopyOnWriteArrayList<LosslessSubscription> lossless = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    // The dispatcher thread, null until the first subscriber arrives
+    private volatile Thread dispatcher;
+    // The dispatcher while it is parked on an empty queue
+    private volatile Thread parked;
+
+    /**
+     * Constructor for a publisher that delivers to each subscriber on virtual threads.
+     */
+    public GameEventPublisher() {
+        this(DEFAULT_QUEUE_CAPACITY, runnable -> Thread.ofVirtual().name("game-events").start(runnable));
+    }
+
+    /**
+     * Constructor for a publisher with its own queue size and delivery threads.
+     *
+     * @param queueCapacity Events waiting for the dispatcher before more are dropped.
+     * @param executor      Runs deliveries to subscribers, one task at a time per subscriber.
+     */
+    public GameEventPublisher(int queueCapacity, Executor executor) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null.");
+        }
+        this.queueCapacity = queueCapacity;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes with the default buffer size, dropping new events when the subscriber falls behind.
+     * @param subscriber Receives the game's events.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        subscribe(subscriber, DEFAULT_BUFFER_SIZE, Backpressure.DROP);
+    }
+
+    /**
+     * Subscribes to the game's events. A subscriber that arrives after the publisher is closed is completed straight away.
+     *
+     * @param subscriber   Receives the game's events.
+     * @param bufferSize   Events held for the subscriber while it has no demand.
+     * @param backpressure What happens to events once the buffer is full.
+     */
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber, int bufferSize, Backpressure backpressure) {
+        if (subscriber == null || backpressure == null) {
+            throw new NullPointerException("Subscriber and backpressure cannot be null.");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive.");
+        }
+        Subscription subscription = new Subscription(subscriber, bufferSize, backpressure);
+        subscriber.onSubscribe(subscription);
+        subscriptions.add(subscription);
+        if (closed) {
+            subscription.complete();  // The dispatcher may already have completed the others
+        } else if (dispatcher == null) {
+            startDispatcher();
+        }
+    }
+
+    /**
+     * Subscribes to every event without going through the queue. Players add each event to the subscriber's own
+     * unbounded buffer, so it never drops one and never holds up a player or the other subscribers.
+     * Meant for the game's log subscriber, which keeps up with anything. A subscriber that stops asking for events
+     * lets its buffer grow for as long as the game runs.
+     *
+     * @param subscriber Receives every game event published while it is subscribed.
+     */
+    void subscribeLossless(Flow.Subscriber<? super GameEvent> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null.");
+        }
+        LosslessSubscription subscription = new LosslessSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        lossless.add(subscription);
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Checks if anybody is listening, players skip building events when nobody is.
+     * @return true if there is at least one subscriber and the publisher is open.
+     */
+    public boolean hasSubscribers() {
+        return !closed && (!subscriptions.isEmpty() || !lossless.isEmpty());
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     * @return Subscribers that have not cancelled.
+     */
+    public int getNumberOfSubscribers() {
+        return subscriptions.size() + lossless.size();
+    }
+
+    /**
+     * Returns the number of events dropped, by the full queue or by subscribers' full buffers.
+     * An event dropped by two subscribers counts twice.
+     * @return Events dropped so far.
+     */
+    public long getDropped() {
+        long total = dropped.sum();
+        for (Subscription subscription : subscriptions) {
+            total += subscription.dropped;
+        }
+        return total;
+    }
+
+    /**
+     * Queues an event for the subscribers. Never waits, the lossless subscribers are handed the event straight away.
+     *
+     * @param event What happened.
+     * @return false if the event was dropped because the queue is full or the publisher is closed.
+     */
+    public boolean publish(GameEvent event) {
+        if (closed) {
+            return false;
+        }
+        if (!lossless.isEmpty()) {
+            for (LosslessSubscription subscription : lossless) {
+                subscription.offer(event);
+            }
+            if (subscriptions.isEmpty()) {
+                return true;  // Nobody else to queue it for
+            }
+        }
+        if (queued.getAndIncrement() >= queueCapacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(event);
+        Thread waiting = parked;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+        return true;
+    }
+
+    /**
+     * Stops taking events and completes every subscriber once it has been sent what was published before.
+     * Waits for the dispatcher to hand out the queued events, which a full BLOCK subscriber can hold up.
+     */
+    @Override
+    public void close() {
+        Thread thread = shutdown();
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops taking events and completes the subscribers like close, without waiting for the dispatcher.
+     * The game ends this way, so a subscriber that stops asking for events never holds up the end of the game.
+     * @return The dispatcher thread, or null if there is none.
+     */
+    Thread shutdown() {
+        closed = true;
+        for (LosslessSubscription subscription : lossless) {
+            subscription.complete();  // Every event published before is already in its buffer
+        }
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        return thread;
+    }
+
+    private synchronized void startDispatcher() {
+        if (dispatcher == null) {
+            Thread thread = new Thread(this::runDispatcher, "game-event-dispatcher");
+            thread.setDaemon(true);  // A game that is never closed must not keep the JVM alive
+            dispatcher = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Main loop of the dispatcher thread. Moves events from the queue into each subscription's buffer.
+     */
+    private void runDispatcher() {
+        while (true) {
+            GameEvent event = queue.poll();
+            if (event == null) {
+                if (closed && queue.isEmpty()) {
+                    break;
+                }
+                parked = Thread.currentThread();
+                // Check again now we are visible, or an event queued in between would never wake us
+                if (queue.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                parked = null;
+                continue;
+            }
+            queued.decrementAndGet();
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * One subscriber's buffer and demand. The dispatcher adds to the buffer and a delivery task drains it,
+     * taking as many events as the subscriber has asked for under one lock and delivering them outside it.
+     */
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final Backpressure backpressure;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        // Ring of buffered events, guarded by the lock
+        private final GameEvent[] buffer;
+        private int head;
+        private int count;
+        private long demand;
+        private boolean cancelled;
+        private boolean completing;
+        private boolean completed;
+        // Written under the lock, read without it for getDropped
+        private volatile long dropped;
+        // Set while a delivery task is queued or running, so there is never more than one
+        private final AtomicBoolean delivering = new AtomicBoolean();
+
+        Subscription(Flow.Subscriber<? super GameEvent> subscriber, int bufferSize, Backpressure backpressure) {
+            this.subscriber = subscriber;
+            this.backpressure = backpressure;
+            this.buffer = new GameEvent[bufferSize];
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " events, must be positive."));
+                return;
+            }
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;  // Saturate, as the Flow spec allows
+            } finally {
+                lock.unlock();
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                count = 0;
+                notFull.signalAll();  // Let a waiting dispatcher move on
+            } finally {
+                lock.unlock();
+            }
+            subscriptions.remove(this);
+        }
+
+        // Called by the dispatcher
+        void offer(GameEvent event) {
+            lock.lock();
+            try {
+                if (count == buffer.length) {
+                    switch (backpressure) {
+                        case DROP -> {
+                            dropped++;
+                            return;
+                        }
+                        case SAMPLE -> {
+                            buffer[head] = null;
+                            head = (head + 1) % buffer.length;
+                            count--;
+                            dropped++;
+                        }
+                        case BLOCK -> {
+                            while (count == buffer.length && !cancelled) {
+                                notFull.awaitUninterruptibly();
+                            }
+                        }
+                    }
+                }
+                if (cancelled) {
+                    return;
+                }
+                buffer[(head + count) % buffer.length] = event;
+                count++;
+                if (demand == 0) {
+                    return;  // Nothing to deliver until the subscriber asks
+                }
+            } finally {
+                lock.unlock();
+            }
+            signal();
+        }
+
+        // Called once the publisher is closed, the subscriber is completed after the buffered events
+        void complete() {
+            lock.lock();
+            try {
+                completing = true;
+            } finally {
+                lock.unlock();
+            }
+            signal();
+        }
+
+        private void signal() {
+            if (delivering.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RuntimeException e) {
+                    delivering.set(false);
+                    System.err.println("Error delivering game events: " + e.getMessage());
+                }
+            }
+        }
+
+        private void deliver() {
+            while (true) {
+                GameEvent[] batch;
+                boolean finish;
+                lock.lock();
+                try {
+                    int n = cancelled ? 0 : (int) Math.min(demand, count);
+                    batch = new GameEvent[n];
+                    for (int i = 0; i < n; i++) {
+                        batch[i] = buffer[head];
+                        buffer[head] = null;
+                        head = (head + 1) % buffer.length;
+                    }
+                    count -= n;
+                    demand -= n;
+                    finish = completing && count == 0 && !completed && !cancelled;
+                    if (finish) {
+                        completed = true;
+                    }
+                    if (n > 0) {
+                        notFull.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    for (GameEvent event : batch) {
+                        subscriber.onNext(event);
+                    }
+                    if (finish) {
+                        subscriber.onComplete();
+                    }
+                } catch (RuntimeException e) {
+                    cancel();  // A subscriber that throws is dropped, the game carries on
+                    System.err.println("Error in game event subscriber: " + e.getMessage());
+                }
+
+                if (batch.length == 0 && !finish) {
+                    delivering.set(false);
+                    // Demand or events may have arrived after we looked but before the flag was cleared
+                    if (!hasWork() || !delivering.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private boolean hasWork() {
+            lock.lock();
+            try {
+                return !cancelled && ((demand > 0 && count > 0) || (completing && count == 0 && !completed));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A lossless subscriber's unbounded buffer and demand. Players add to the buffer without a lock
+     * and a delivery task drains it, as many events as the subscriber has asked for.
+     */
+    private final class LosslessSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final ConcurrentLinkedQueue<GameEvent> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private boolean completed;  // Only touched by the delivery task
+        // Set while a delivery task is queued or running, so there is never more than one
+        private final AtomicBoolean delivering = new AtomicBoolean();
+
+        LosslessSubscription(Flow.Subscriber<? super GameEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " events, must be positive."));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, more) -> current + more < 0 ? Long.MAX_VALUE : current + more);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            lossless.remove(this);
+            buffer.clear();
+        }
+
+        // Called by the players
+        void offer(GameEvent event) {
+            buffer.offer(event);
+            if (demand.get() > 0) {
+                signal();
+            }
+        }
+
+        // Called once the publisher is closed, the subscriber is completed after the buffered events
+        void complete() {
+            completing = true;
+            signal();
+        }
+
+        private void signal() {
+            if (delivering.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::deliver);
+                } catch (RuntimeException e) {
+                    delivering.set(false);
+                    System.err.println("Error delivering game events: " + e.getMessage());
+                }
+            }
+        }
+
+        private void deliver() {
+            while (true) {
+                try {
+                    while (!cancelled && demand.get() > 0) {
+                        GameEvent event = buffer.poll();
+                        if (event == null) {
+                            break;
+                        }
+                        if (demand.get() != Long.MAX_VALUE) {
+                            demand.decrementAndGet();
+                        }
+                        subscriber.onNext(event);
+                    }
+                    // Read completing before looking at the buffer, the events published before it was set are there
+                    if (completing && !completed && !cancelled && buffer.isEmpty()) {
+                        completed = true;
+                        subscriber.onComplete();
+                    }
+                } catch (RuntimeException e) {
+                    cancel();  // A subscriber that throws is dropped, the game carries on
+                    System.err.println("Error in game event subscriber: " + e.getMessage());
+                }
+
+                delivering.set(false);
+                // Demand or events may have arrived after we looked but before the flag was cleared
+                if (!hasWork() || !delivering.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean hasWork() {
+            boolean empty = buffer.isEmpty();
+            return !cancelled && !completed && ((demand.get() > 0 && !empty) || (completing && empty));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package spoons;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events emitted by the game, under the "Spoons" category.
+ * The per-turn event is off by default, enable it for a recording with
+ * -XX:StartFlightRecording:spoons.Turn#enabled=true. When an event is off, creating and ending it
+ * is optimised away by the JIT and nothing is recorded.
+ */
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    /**
+     * A whole game, from starting the player threads to the last one finishing.
+     */
+    @Name("spoons.Game")
+    @Label("Game")
+    @Category("Spoons")
+    @Description("A game from start to end")
+    @StackTrace(false)
+    public static final class GameRun extends Event {
+        @Label("Players")
+        public int players;
+
+        @Label("Winner")
+        @Description("ID of the winning player, 0 if nobody won")
+        public int winnerId;
+
+        @Label("Turns")
+        public long turns;
+    }
+
+    /**
+     * One player's turn, from starting to wait for a card to discarding.
+     */
+    @Name("spoons.Turn")
+    @Label("Turn")
+    @Category("Spoons")
+    @Description("A player drawing a card and discarding one")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Turn extends Event {
+        @Label("Player")
+        public int playerId;
+
+        @Label("Card Drawn")
+        public int drawnCard;
+
+        @Label("Card Discarded")
+        public int discardedCard;
+
+        @Label("Left Deck")
+        public int leftDeckId;
+
+        @Label("Right Deck")
+        public int rightDeckId;
+    }
+
+    /**
+     * A player parked on a deck, waiting for a card or for room to discard.
+     */
+    @Name("spoons.DeckStall")
+    @Label("Deck Stall")
+    @Category("Spoons")
+    @Description("A player parked on an empty deck, or a full one")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class DeckStall extends Event {
+        @Label("Deck")
+        public int deckId;
+
+        @Label("Full")
+        @Description("true when waiting for room to discard, false when waiting for a card")
+        public boolean full;
+    }
+
+    /**
+     * A player with a winning hand asking to be the winner.
+     */
+    @Name("spoons.WinnerSignal")
+    @Label("Winner Signal")
+    @Category("Spoons")
+    @Description("A player signalling a winning hand")
+    @StackTrace(false)
+    public static final class WinnerSignal extends Event {
+        @Label("Player")
+        public int playerId;
+
+        @Label("Elected")
+        @Description("false if another player had already won")
+        public boolean elected;
+    }
+}
@@ -0,0 +1,238 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only binary journal of every card movement in a game, one memory-mapped file per game.
+ * <p>
+ * The file is a 64 byte header followed by fixed-size 24 byte records:
+ * <pre>
+ *  0  sequence   u64, the record's position in the game, starting at 0
+ *  8  type       u8, DEAL_PLAYER, DEAL_DECK, DRAW, DISCARD or WIN
+ *  9  position   u8, position in the hand of a discarded card
+ * 12  player     i32, 0 for DEAL_DECK
+ * 16  deck       i32, 0 for DEAL_PLAYER and WIN
+ * 20  card       i32, 0 for WIN
+ * </pre>
+ * Appending claims a sequence number with one atomic add and writes the record with absolute puts,
+ * so players never format strings or share a lock. A discard is journalled before the card goes into the
+ * deck and a draw after it comes out, so the card's discard always has the lower sequence number.
+ * JournalReplay rebuilds the game from a journal.
+ */
+public class GameJournal implements AutoCloseable {
+    /** First four bytes of every journal. */
+    public static final int MAGIC = 0x89534A4E;
+    /** Format version written by this class. */
+    public static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    public static final int HEADER_SIZE = 64;
+    /** Size of each record in bytes. */
+    public static final int RECORD_SIZE = 24;
+
+    /** A card dealt to a player. */
+    public static final byte DEAL_PLAYER = 1;
+    /** A card dealt to a deck. */
+    public static final byte DEAL_DECK = 2;
+    /** A player drawing a card from its left deck. */
+    public static final byte DRAW = 3;
+    /** A player discarding a card to its right deck. */
+    public static final byte DISCARD = 4;
+    /** A player being elected the winner. */
+    public static final byte WIN = 5;
+
+    // Header fields
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 6;
+    static final int HEADER_PLAYERS = 8;
+    static final int HEADER_RECORDS = 16;  // -1 until the journal is closed
+
+    // Records are mapped a segment at a time as the journal grows
+    private static final int SEGMENT_SHIFT = 20;
+    private static final long SEGMENT_RECORDS = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_BYTES = SEGMENT_RECORDS * RECORD_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Mapped segments, grown under the lock and read without it
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    // A lock rather than a monitor, mapping does I/O and would pin a virtual thread's carrier
+    private final ReentrantLock growLock = new ReentrantLock();
+    private boolean closed;
+
+    /**
+     * Creates a journal, replacing any file already at the path.
+     *
+     * @param path       Where to write the journal.
+     * @param numPlayers Number of players in the game.
+     * @throws IOException If the file can't be created.
+     */
+    public GameJournal(Path path, int numPlayers) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC)
+                .putShort(HEADER_VERSION, (short) VERSION)
+                .putShort(HEADER_RECORD_SIZE, (short) RECORD_SIZE)
+                .putInt(HEADER_PLAYERS, numPlayers)
+                .putLong(HEADER_RECORDS, -1);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Returns the journal's file.
+     * @return Path of the journal.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Records a card dealt to a player.
+     * @param playerId The player receiving the card.
+     * @param card     The card's value.
+     */
+    public void recordDealToPlayer(int playerId, int card) {
+        append(DEAL_PLAYER, 0, playerId, 0, card);
+    }
+
+    /**
+     * Records a card dealt to a deck.
+     * @param deckId The deck receiving the card.
+     * @param card   The card's value.
+     */
+    public void recordDealToDeck(int deckId, int card) {
+        append(DEAL_DECK, 0, 0, deckId, card);
+    }
+
+    /**
+     * Records a player drawing a card, after it has been taken from the deck.
+     * @param playerId The player drawing.
+     * @param deckId   The deck drawn from.
+     * @param card     The card's value.
+     */
+    public void recordDraw(int playerId, int deckId, int card) {
+        append(DRAW, 0, playerId, deckId, card);
+    }
+
+    /**
+     * Records a player discarding a card, before it is added to the deck.
+     * @param playerId The player discarding.
+     * @param deckId   The deck discarded to.
+     * @param card     The card's value.
+     * @param position Position of the card in the player's hand, 0 for the oldest.
+     */
+    public void recordDiscard(int playerId, int deckId, int card, int position) {
+        append(DISCARD, position, playerId, deckId, card);
+    }
+
+    /**
+     * Records the elected winner.
+     * @param playerId The winning player.
+     */
+    public void recordWin(int playerId) {
+        append(WIN, 0, playerId, 0, 0);
+    }
+
+    /**
+     * Returns the number of records appended so far.
+     * @return The next sequence number.
+     */
+    public long size() {
+        return nextSequence.get();
+    }
+
+    private void append(byte type, int position, int playerId, int deckId, int card) {
+        long sequence = nextSequence.getAndIncrement();
+        MappedByteBuffer segment = segment((int) (sequence >>> SEGMENT_SHIFT));
+        int offset = (int) (sequence & (SEGMENT_RECORDS - 1)) * RECORD_SIZE;
+        segment.putLong(offset, sequence)
+                .put(offset + 8, type)
+                .put(offset + 9, (byte) position)
+                .putInt(offset + 12, playerId)
+                .putInt(offset + 16, deckId)
+                .putInt(offset + 20, card);
+    }
+
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer[] mapped = segments;
+        if (index < mapped.length) {
+            return mapped[index];
+        }
+        return mapSegment(index);
+    }
+
+    private MappedByteBuffer mapSegment(int index) {
+        growLock.lock();
+        try {
+            MappedByteBuffer[] mapped = segments;
+            if (index < mapped.length) {
+                return mapped[index];  // Another player mapped it first
+            }
+            if (closed) {
+                throw new IllegalStateException("Journal " + path + " is closed.");
+            }
+            MappedByteBuffer[] grown = Arrays.copyOf(mapped, index + 1);
+            for (int i = mapped.length; i <= index; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * SEGMENT_BYTES, SEGMENT_BYTES);
+            }
+            segments = grown;
+            return grown[index];
+        } catch (IOException e) {
+            throw new IllegalStateException("Error growing journal " + path + ": " + e.getMessage(), e);
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the record count into the header, trims the unused end of the last segment and closes the file.
+     * Every player must have stopped appending.
+     *
+     * @throws IOException If the file can't be finished.
+     */
+    @Override
+    public void close() throws IOException {
+        growLock.lock();
+        try {
+            finish();
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private void finish() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long records = nextSequence.get();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        segments = new MappedByteBuffer[0];
+        // Some platforms can't shrink a mapped file, the header count is what readers trust
+        try {
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        } catch (IOException e) {
+            System.err.println("Error trimming journal " + path + ": " + e.getMessage());
+        }
+        ByteBuffer count = ByteBuffer.allocate(8).putLong(0, records);
+        while (count.hasRemaining()) {
+            channel.write(count, HEADER_RECORDS + count.position());
+        }
+        channel.force(true);
+        channel.close();
+    }
+}
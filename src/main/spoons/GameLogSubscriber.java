@@ -0,0 +1,78 @@
+package spoons;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+/**
+ * Writes the player log files from the game's events, the lines each player used to write on its own thread.
+ * Formatting happens on the delivery thread, so logging costs a player no more than publishing an event.
+ */
+final class GameLogSubscriber implements Flow.Subscriber<GameEvent> {
+    private final CardGame game;
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    GameLogSubscriber(CardGame game) {
+        this.game = game;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);  // Writing only queues the text, so it never falls behind
+    }
+
+    @Override
+    public void onNext(GameEvent event) {
+        int playerId = event.playerId();
+        Player player = game.getPlayer(playerId);
+        switch (event.type()) {
+            case DRAW -> player.writeToFile("Player " + playerId + " draws a " + event.card() + " from deck "
+                    + event.deckId() + "\n");
+            case DISCARD -> player.writeToFile("Player " + playerId + " discards a " + event.card() + " to deck "
+                    + event.deckId() + "\n" + "Player " + playerId + " current hand is " + event.handToString() + "\n");
+            case WIN -> player.writeToFile("Player " + playerId + " wins with hand: " + event.handToString() + "\n");
+            case EXIT -> logExit(player, event);
+        }
+    }
+
+    // The game is over by the time anybody exits, so its winner and outcome are settled
+    private void logExit(Player player, GameEvent event) {
+        int playerId = event.playerId();
+        int winnerId = game.getWinnerId();
+        GameOutcome outcome = game.getOutcome();
+        if (winnerId != CardGame.NO_WINNER && winnerId != playerId) {
+            player.logWinnerNotification(winnerId);  // The player has stopped, so its hand is the one it left with
+        } else if (outcome != null && outcome.isDraw()) {
+            player.writeToFile("The game ended without a winner: " + outcome.getDescription() + ".\n" + "Player "
+                    + playerId + " exits.\n" + "Player " + playerId + " hand: " + event.handToString() + "\n");
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("Error logging game events: " + throwable.getMessage());
+        completed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        completed.countDown();
+    }
+
+    /**
+     * Blocks until every event published before the game's publisher was closed has been handed to the log writer.
+     */
+    void awaitCompletion() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                completed.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package spoons;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics for one game, cheap enough to leave on.
+ * Counters shared by every player are striped LongAdders. Latencies go into a histogram owned by each player
+ * and stalls are counted by the deck's own waiting thread, so the hot path never writes to a shared cache line.
+ * Everything is combined only when a snapshot is taken.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    // Numbers the games registered with JMX in one JVM
+    private static final AtomicInteger GAME_IDS = new AtomicInteger();
+
+    private final List<Player> players;
+    private final List<Deck> decks;
+    private final LogWriter logWriter;
+    private final LongAdder turns = new LongAdder();
+    // Turns played before the game was resumed from a checkpoint, already added to turns
+    private volatile long resumedTurns;
+    private volatile long[] resumedPlayerTurns = new long[0];
+    // System.nanoTime when the game started, 0 before
+    private volatile long startNanos;
+    // Name the MBean is registered under, null when not registered
+    private volatile ObjectName objectName;
+
+    /**
+     * Constructor to create the metrics for a game. The lists are read at each snapshot,
+     * so the game can fill them in after the metrics are made.
+     *
+     * @param players   The game's players.
+     * @param decks     The game's decks.
+     * @param logWriter Writes the game's log files.
+     */
+    public GameMetrics(List<Player> players, List<Deck> decks, LogWriter logWriter) {
+        this.players = players;
+        this.decks = decks;
+        this.logWriter = logWriter;
+    }
+
+    /**
+     * Marks the start of the game, turn rates are measured from here.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Counts a turn taken by any player.
+     */
+    public void recordTurn() {
+        turns.increment();
+    }
+
+    /**
+     * Carries on the turn counts of a game resumed from a checkpoint, before it starts.
+     *
+     * @param totalTurns  Turns taken by all players before the checkpoint.
+     * @param playerTurns Turns taken by each player before the checkpoint.
+     */
+    void resume(long totalTurns, long[] playerTurns) {
+        turns.add(totalTurns);
+        resumedTurns = totalTurns;
+        resumedPlayerTurns = playerTurns.clone();
+    }
+
+    /**
+     * Turns taken by one player, read by a checkpoint while it holds that player's lock.
+     */
+    long playerTurns(int index) {
+        long[] resumed = resumedPlayerTurns;
+        return players.get(index).getTurnsTaken() + (index < resumed.length ? resumed[index] : 0);
+    }
+
+    /**
+     * Takes a snapshot of every metric.
+     * Players and decks keep playing while it is taken, so the numbers are each a moment apart.
+     *
+     * @return The game's metrics now.
+     */
+    public MetricsSnapshot snapshot() {
+        long[] playerTurns = new long[players.size()];
+        LatencyHistogram.Snapshot turnLatency = LatencyHistogram.Snapshot.EMPTY;
+        LatencyHistogram.Snapshot drawLatency = LatencyHistogram.Snapshot.EMPTY;
+        for (int i = 0; i < playerTurns.length; i++) {
+            Player player = players.get(i);
+            LatencyHistogram.Snapshot playerLatency = player.getTurnLatency().snapshot();
+            playerTurns[i] = player.getTurnsTaken() + (i < resumedPlayerTurns.length ? resumedPlayerTurns[i] : 0);
+            turnLatency = turnLatency.merge(playerLatency);
+            drawLatency = drawLatency.merge(player.getDrawLatency().snapshot());
+        }
+
+        int[] deckDepths = new int[decks.size()];
+        long emptyStalls = 0;
+        long emptyNanos = 0;
+        long fullStalls = 0;
+        long fullNanos = 0;
+        for (int i = 0; i < deckDepths.length; i++) {
+            Deck deck = decks.get(i);
+            deckDepths[i] = deck.size();
+            emptyStalls += deck.getEmptyStalls();
+            emptyNanos += deck.getEmptyStallNanos();
+            fullStalls += deck.getFullStalls();
+            fullNanos += deck.getFullStallNanos();
+        }
+
+        long now = System.nanoTime();
+        long start = startNanos;
+        return new MetricsSnapshot(now, start == 0 ? 0 : now - start, turns.sum(), playerTurns, deckDepths,
+                emptyStalls, emptyNanos, fullStalls, fullNanos, logWriter.getBytesWritten(), turnLatency, drawLatency);
+    }
+
+    /**
+     * Takes a snapshot at a fixed rate on a background daemon thread until the reporter is closed.
+     * No snapshot is delivered once close returns.
+     *
+     * @param period   Time between snapshots.
+     * @param listener Called with each snapshot, on the reporting thread.
+     * @return A reporter which stops the snapshots when closed.
+     */
+    public Reporter startReporting(Duration period, Consumer<MetricsSnapshot> listener) {
+        Reporter reporter = new Reporter();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            reporter.thread = thread;
+            return thread;
+        });
+        reporter.scheduler = scheduler;
+        long periodNanos = period.toNanos();
+        scheduler.scheduleAtFixedRate(() -> listener.accept(snapshot()), periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        return reporter;
+    }
+
+    /**
+     * Stops periodic snapshots started by startReporting.
+     */
+    public static final class Reporter implements AutoCloseable {
+        private volatile ScheduledExecutorService scheduler;
+        // The reporting thread, which can't wait for itself when the listener closes the reporter
+        private volatile Thread thread;
+
+        private Reporter() {
+        }
+
+        /**
+         * Stops the snapshots, waiting for one being delivered to finish unless called by the listener.
+         */
+        @Override
+        public void close() {
+            scheduler.shutdownNow();
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            boolean interrupted = false;
+            while (!scheduler.isTerminated()) {
+                try {
+                    scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // true once closed and no snapshot is being delivered
+        boolean isClosed() {
+            return scheduler.isTerminated();
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, under spoons:type=GameMetrics,game=N.
+     *
+     * @return The name the metrics are registered under.
+     * @throws JMException If the MBean can't be registered.
+     */
+    public synchronized ObjectName register() throws JMException {
+        if (objectName == null) {
+            ObjectName name = new ObjectName("spoons:type=GameMetrics,game=" + GAME_IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        }
+        return objectName;
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            System.err.println("Error unregistering game metrics: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    // JMX attributes
+
+    @Override
+    public long getTotalTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public double getTurnsPerSecond() {
+        long start = startNanos;
+        return start == 0 ? 0 : (turns.sum() - resumedTurns) * 1e9 / (System.nanoTime() - start);
+    }
+
+    @Override
+    public long[] getPlayerTurns() {
+        return snapshot().playerTurns();
+    }
+
+    @Override
+    public int[] getDeckDepths() {
+        return snapshot().deckDepths();
+    }
+
+    @Override
+    public int getMaxDeckDepth() {
+        return snapshot().maxDeckDepth();
+    }
+
+    @Override
+    public long getEmptyDeckStalls() {
+        return snapshot().emptyDeckStalls();
+    }
+
+    @Override
+    public long getEmptyDeckStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(snapshot().emptyDeckStallNanos());
+    }
+
+    @Override
+    public long getFullDeckStalls() {
+        return snapshot().fullDeckStalls();
+    }
+
+    @Override
+    public long getBytesLogged() {
+        return logWriter.getBytesWritten();
+    }
+
+    @Override
+    public double getTurnLatencyMeanNanos() {
+        return snapshot().turnLatency().mean();
+    }
+
+    @Override
+    public long getTurnLatencyP99Nanos() {
+        return snapshot().turnLatency().percentile(99);
+    }
+
+    @Override
+    public long getDrawLatencyP99Nanos() {
+        return snapshot().drawLatency().percentile(99);
+    }
+}
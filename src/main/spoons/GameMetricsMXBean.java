@@ -0,0 +1,44 @@
+package spoons;
+
+/**
+ * JMX view of a running game's metrics, registered by GameMetrics.register.
+ * Totals are cheap to read, attributes built from every player or deck walk the whole ring.
+ */
+public interface GameMetricsMXBean {
+
+    /** @return Turns taken by all players. */
+    long getTotalTurns();
+
+    /** @return Average turns per second since the game started. */
+    double getTurnsPerSecond();
+
+    /** @return Turns taken by each player, in player order. */
+    long[] getPlayerTurns();
+
+    /** @return Cards in each deck, in deck order. */
+    int[] getDeckDepths();
+
+    /** @return Cards in the fullest deck. */
+    int getMaxDeckDepth();
+
+    /** @return Times a player parked waiting for a card. */
+    long getEmptyDeckStalls();
+
+    /** @return Milliseconds players spent parked waiting for a card. */
+    long getEmptyDeckStallMillis();
+
+    /** @return Times a player parked waiting for room to discard. */
+    long getFullDeckStalls();
+
+    /** @return Bytes written to the player log files. */
+    long getBytesLogged();
+
+    /** @return Mean turn latency in nanoseconds. */
+    double getTurnLatencyMeanNanos();
+
+    /** @return 99th percentile turn latency in nanoseconds, to within a factor of two. */
+    long getTurnLatencyP99Nanos();
+
+    /** @return 99th percentile draw latency in nanoseconds, to within a factor of two. */
+    long getDrawLatencyP99Nanos();
+}
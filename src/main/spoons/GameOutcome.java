@@ -0,0 +1,42 @@
+package spoons;
+
+/**
+ * How a game ended, with a winner or stopped by one of the game's limits.
+ * Games stopped by a limit are a draw, nobody wins.
+ */
+public enum GameOutcome {
+    /** A player collected four of a kind. */
+    WON("won"),
+    /** The players took the most turns the game allows. */
+    TURN_LIMIT("turn limit reached"),
+    /** The game ran for the most time it is allowed. */
+    TIME_LIMIT("time limit reached"),
+    /** No hand changed to a state not seen recently for the game's no-progress window. */
+    NO_PROGRESS("no progress"),
+    /** The game was stopped from outside, such as by cancelling its future. */
+    CANCELLED("cancelled"),
+    /** A segment of a ring spread over several processes lost its connection to the others. */
+    DISCONNECTED("a segment of the ring was lost");
+
+    private final String description;
+
+    GameOutcome(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Checks if the game ended without a winner.
+     * @return true for every outcome but WON.
+     */
+    public boolean isDraw() {
+        return this != WON;
+    }
+
+    /**
+     * Returns the outcome as it appears in messages and logs.
+     * @return A short description, such as "turn limit reached".
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,69 @@
+package spoons;
+
+import java.util.Arrays;
+
+/**
+ * Everything a finished CardGame leaves behind, held in memory instead of in output files.
+ *
+ * @param winnerId      ID of the winning player, or CardGame.NO_WINNER for a draw.
+ * @param outcome       How the game ended.
+ * @param turns         Total turns taken by all players.
+ * @param playerTurns   Turns taken by each player in player order.
+ * @param finalHands    Each player's hand at the end, oldest card first.
+ * @param deckContents  Each deck's cards at the end, top first.
+ * @param durationNanos Time from the players starting until they had all stopped.
+ */
+public record GameResult(int winnerId, GameOutcome outcome, long turns, long[] playerTurns, int[][] finalHands,
+                         int[][] deckContents, long durationNanos) {
+
+    /**
+     * Checks if the game ended with a winner.
+     * @return true if a player won.
+     */
+    public boolean hasWinner() {
+        return winnerId != CardGame.NO_WINNER;
+    }
+
+    /**
+     * Returns one player's final hand.
+     * @param playerId ID of the player, starting at 1.
+     * @return The player's card values.
+     */
+    public int[] handOf(int playerId) {
+        return finalHands[playerId - 1].clone();
+    }
+
+    /**
+     * Returns one deck's final contents.
+     * @param deckId ID of the deck, starting at 1.
+     * @return The deck's card values, top first.
+     */
+    public int[] deckOf(int deckId) {
+        return deckContents[deckId - 1].clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameResult other && winnerId == other.winnerId && outcome == other.outcome
+                && turns == other.turns && Arrays.equals(playerTurns, other.playerTurns)
+                && Arrays.deepEquals(finalHands, other.finalHands) && Arrays.deepEquals(deckContents, other.deckContents)
+                && durationNanos == other.durationNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * winnerId + (outcome == null ? 0 : outcome.hashCode());
+        result = 31 * result + Long.hashCode(turns);
+        result = 31 * result + Arrays.hashCode(playerTurns);
+        result = 31 * result + Arrays.deepHashCode(finalHands);
+        result = 31 * result + Arrays.deepHashCode(deckContents);
+        return 31 * result + Long.hashCode(durationNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "GameResult[winnerId=" + winnerId + ", outcome=" + outcome + ", turns=" + turns
+                + ", playerTurns=" + Arrays.toString(playerTurns) + ", finalHands=" + Arrays.deepToString(finalHands)
+                + ", deckContents=" + Arrays.deepToString(deckContents) + ", durationNanos=" + durationNanos + "]";
+    }
+}
@@ -0,0 +1,243 @@
+package spoons;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Headless, single threaded engine that plays a game with the same rules as Player.
+ * There are no threads, files or console output, and all state lives in primitive arrays which are
+ * reused from game to game, so a turn does not allocate. Players take turns in seat order, round after round.
+ * A simulator is not thread-safe, use one per thread or runBatch for many games at once.
+ */
+public class GameSimulator {
+    // Cards held between turns, and while drawing before a discard
+    private static final int HAND_SIZE = 4;
+    private static final int HAND_SLOTS = HAND_SIZE + 1;
+
+    // Number of players and decks in the ring
+    private final int numPlayers;
+    // Player p's hand is hands[p * HAND_SLOTS] to hands[p * HAND_SLOTS + 3], in the order it was received
+    private final int[] hands;
+    // Deck d's cards are a ring buffer in deckCards[d * deckCapacity], indexed by deckHeads[d] and deckTails[d]
+    private final int[] deckCards;
+    private final int[] deckHeads;
+    private final int[] deckTails;
+    private final int deckCapacity;
+    private final int deckMask;
+
+    /**
+     * Constructor to create a simulator for games with a given number of players.
+     * Decks hold as many cards as a Deck does by default, a player waits when its right deck is full.
+     *
+     * @param numPlayers Number of players in each game.
+     */
+    public GameSimulator(int numPlayers) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        this.numPlayers = numPlayers;
+        this.deckCapacity = Deck.DEFAULT_CAPACITY;  // A power of two, so the mask below works
+        this.deckMask = deckCapacity - 1;
+        this.hands = new int[numPlayers * HAND_SLOTS];
+        this.deckCards = new int[numPlayers * deckCapacity];
+        this.deckHeads = new int[numPlayers];
+        this.deckTails = new int[numPlayers];
+    }
+
+    /**
+     * Plays one game with the given pack, dealt the same way as CardGame.distributeCards.
+     *
+     * @param pack     Card values, exactly 8 per player.
+     * @param maxTurns Turns after which the game is given up without a winner.
+     * @return The winner, number of turns taken and the final hands.
+     */
+    public SimulationResult simulate(int[] pack, long maxTurns) {
+        if (pack.length != numPlayers * 8) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        deal(pack);
+
+        // A dealt hand can already be a winner, the lowest player ID to check in wins
+        for (int p = 0; p < numPlayers; p++) {
+            if (isWinningHand(p)) {
+                return result(p + 1, 0);
+            }
+        }
+
+        long turns = 0;
+        while (turns < maxTurns) {
+            for (int p = 0; p < numPlayers && turns < maxTurns; p++) {
+                if (!playTurn(p)) {
+                    continue;  // Left deck empty or right deck full, try again next round
+                }
+                turns++;
+                if (isWinningHand(p)) {
+                    return result(p + 1, turns);
+                }
+            }
+        }
+        return result(SimulationResult.NO_WINNER, turns);
+    }
+
+    /**
+     * Plays many games at once on a ForkJoinPool, each with its own shuffle of the pack.
+     * Game i shuffles with a SplittableRandom seeded from seed and i, so the results don't depend on
+     * how the games are split between threads.
+     *
+     * @param numPlayers Number of players in each game.
+     * @param pack       Card values, exactly 8 per player.
+     * @param numGames   Number of games to play.
+     * @param seed       Seed for the shuffles.
+     * @param maxTurns   Turns after which a game is given up without a winner.
+     * @param pool       Pool to run the games on.
+     * @return The result of each game, in game order.
+     */
+    public static List<SimulationResult> runBatch(int numPlayers, int[] pack, int numGames, long seed,
+                                                  long maxTurns, ForkJoinPool pool) {
+        if (pack.length != numPlayers * 8) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        SimulationResult[] results = new SimulationResult[numGames];
+        pool.invoke(new BatchTask(numPlayers, pack, seed, maxTurns, results, 0, numGames));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Plays many games at once on the common ForkJoinPool, using every core.
+     *
+     * @param numPlayers Number of players in each game.
+     * @param pack       Card values, exactly 8 per player.
+     * @param numGames   Number of games to play.
+     * @param seed       Seed for the shuffles.
+     * @param maxTurns   Turns after which a game is given up without a winner.
+     * @return The result of each game, in game order.
+     */
+    public static List<SimulationResult> runBatch(int numPlayers, int[] pack, int numGames, long seed, long maxTurns) {
+        return runBatch(numPlayers, pack, numGames, seed, maxTurns, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Shuffles a pack in place with a Fisher-Yates shuffle.
+     *
+     * @param pack   Card values to shuffle.
+     * @param random Source of randomness.
+     */
+    static void shuffle(int[] pack, SplittableRandom random) {
+        for (int i = pack.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = pack[i];
+            pack[i] = pack[j];
+            pack[j] = swap;
+        }
+    }
+
+    /**
+     * Deals 4 cards to each player in turn, then 4 cards to each deck in turn.
+     */
+    private void deal(int[] pack) {
+        int cardIndex = 0;
+        for (int p = 0; p < numPlayers; p++) {
+            System.arraycopy(pack, cardIndex, hands, p * HAND_SLOTS, HAND_SIZE);
+            cardIndex += HAND_SIZE;
+        }
+        for (int d = 0; d < numPlayers; d++) {
+            System.arraycopy(pack, cardIndex, deckCards, d * deckCapacity, 4);
+            cardIndex += 4;
+            deckHeads[d] = 0;
+            deckTails[d] = 4;
+        }
+    }
+
+    /**
+     * Draws from the left deck and discards to the right deck, as in Player.playTurn.
+     * @return false if the player could not move.
+     */
+    private boolean playTurn(int p) {
+        int left = p;
+        int right = p + 1 == numPlayers ? 0 : p + 1;
+        if (deckHeads[left] == deckTails[left]) {
+            return false;
+        }
+        if (right != left && deckTails[right] - deckHeads[right] == deckCapacity) {
+            return false;
+        }
+
+        int base = p * HAND_SLOTS;
+        hands[base + HAND_SIZE] = deckCards[left * deckCapacity + (deckHeads[left]++ & deckMask)];
+
+        // Discard the first card not matching the preferred denomination, or the first card if they all match
+        int preferred = p + 1;
+        int discard = 0;
+        for (int i = 0; i < HAND_SLOTS; i++) {
+            if (hands[base + i] != preferred) {
+                discard = i;
+                break;
+            }
+        }
+        int discarded = hands[base + discard];
+        System.arraycopy(hands, base + discard + 1, hands, base + discard, HAND_SIZE - discard);
+        deckCards[right * deckCapacity + (deckTails[right]++ & deckMask)] = discarded;
+        return true;
+    }
+
+    private boolean isWinningHand(int p) {
+        int base = p * HAND_SLOTS;
+        int first = hands[base];
+        return hands[base + 1] == first && hands[base + 2] == first && hands[base + 3] == first;
+    }
+
+    private SimulationResult result(int winnerId, long turns) {
+        int[] finalHands = new int[numPlayers * HAND_SIZE];
+        for (int p = 0; p < numPlayers; p++) {
+            System.arraycopy(hands, p * HAND_SLOTS, finalHands, p * HAND_SIZE, HAND_SIZE);
+        }
+        return new SimulationResult(winnerId, turns, finalHands);
+    }
+
+    /**
+     * Splits a range of games in half until it is small enough to play on one thread.
+     */
+    @SuppressWarnings("serial")  // ForkJoinTask is Serializable, but the tasks are never serialized
+    private static final class BatchTask extends RecursiveAction {
+        // Games played by a single task, enough to amortise the simulator's arrays
+        private static final int GAMES_PER_TASK = 16;
+
+        private final int numPlayers;
+        private final int[] pack;
+        private final long seed;
+        private final long maxTurns;
+        private final SimulationResult[] results;
+        private final int from;
+        private final int to;
+
+        BatchTask(int numPlayers, int[] pack, long seed, long maxTurns, SimulationResult[] results, int from, int to) {
+            this.numPlayers = numPlayers;
+            this.pack = pack;
+            this.seed = seed;
+            this.maxTurns = maxTurns;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                GameSimulator simulator = new GameSimulator(numPlayers);
+                int[] shuffled = new int[pack.length];
+                for (int game = from; game < to; game++) {
+                    System.arraycopy(pack, 0, shuffled, 0, pack.length);
+                    shuffle(shuffled, new SplittableRandom(seed + game));
+                    results[game] = simulator.simulate(shuffled, maxTurns);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(numPlayers, pack, seed, maxTurns, results, from, mid),
+                    new BatchTask(numPlayers, pack, seed, maxTurns, results, mid, to));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package spoons;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stops a game that has gone on too long, so a pack nobody can win never holds its threads forever.
+ * A daemon thread looks at the game a few times per limit and ends it as a draw once it has taken too many turns,
+ * run for too long, or gone a whole no-progress window without any player's hands reaching a state it has not
+ * seen recently. The last catches games where every player is stuck waiting as well as games going round in
+ * a short cycle. Limits are checked as the thread wakes, so a game may run a few turns or milliseconds past them.
+ */
+final class GameWatchdog {
+    // Bounds on how often the game is looked at
+    private static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // Recent hand states remembered, a state seen again within this many looks is not progress
+    private static final int RECENT_STATES = 4096;
+
+    private final CardGame game;
+    private final List<Player> players;
+    private final long maxTurns;
+    private final long maxWallNanos;
+    private final long noProgressNanos;
+    private final long pollNanos;
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a watchdog for a game, started by start.
+     *
+     * @param game              The game to watch.
+     * @param maxTurns          Total turns allowed, 0 for no limit.
+     * @param maxWallMillis     Time the game may run for in milliseconds, 0 for no limit.
+     * @param noProgressMillis  Time allowed without a new hand state in milliseconds, 0 for no limit.
+     */
+    GameWatchdog(CardGame game, long maxTurns, long maxWallMillis, long noProgressMillis) {
+        this.game = game;
+        this.players = game.getPlayers();
+        this.maxTurns = maxTurns;
+        this.maxWallNanos = TimeUnit.MILLISECONDS.toNanos(maxWallMillis);
+        this.noProgressNanos = TimeUnit.MILLISECONDS.toNanos(noProgressMillis);
+        long shortest = Long.MAX_VALUE;
+        for (long limit : new long[]{maxWallNanos, noProgressNanos}) {
+            if (limit > 0) {
+                shortest = Math.min(shortest, limit);
+            }
+        }
+        // Turns go by quickly, so a turn limit is checked as often as possible
+        this.pollNanos = maxTurns > 0 ? MIN_POLL_NANOS : Math.max(MIN_POLL_NANOS, Math.min(MAX_POLL_NANOS, shortest / 8));
+        this.thread = Thread.ofPlatform().daemon().name("game-watchdog").unstarted(this::watch);
+    }
+
+    /**
+     * Starts watching, call as the players start.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops watching and waits for the watchdog's thread to finish, call once every player has stopped.
+     */
+    void stop() {
+        stopped = true;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch() {
+        long start = System.nanoTime();
+        long lastNewState = start;
+        // Insertion ordered so the oldest state is forgotten first
+        Map<Long, Boolean> recentStates = new LinkedHashMap<>(RECENT_STATES * 2) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > RECENT_STATES;
+            }
+        };
+
+        while (!stopped && !game.isGameOver()) {
+            LockSupport.parkNanos(this, pollNanos);
+            long now = System.nanoTime();
+            if (maxTurns > 0 && game.getMetrics().getTotalTurns() >= maxTurns) {
+                game.declareDraw(GameOutcome.TURN_LIMIT);
+            } else if (maxWallNanos > 0 && now - start >= maxWallNanos) {
+                game.declareDraw(GameOutcome.TIME_LIMIT);
+            } else if (noProgressNanos > 0) {
+                if (recentStates.put(handState(), Boolean.TRUE) == null) {
+                    lastNewState = now;
+                } else if (now - lastNewState >= noProgressNanos) {
+                    game.declareDraw(GameOutcome.NO_PROGRESS);
+                }
+            }
+        }
+    }
+
+    // Every player's hand folded into one number, in seat order
+    private long handState() {
+        long state = 0;
+        for (Player player : players) {
+            state = state * 0x9E3779B97F4A7C15L + player.handFingerprint();
+        }
+        return state;
+    }
+}
@@ -0,0 +1,452 @@
+package spoons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A player's hand of card values, kept as primitive ints in the order they were received.
+ * Alongside the cards the hand keeps a bucket for each value: how many of it are held and the chain of
+ * cards with that value, oldest first. Buckets are updated on every add and remove, so checking for four
+ * of a kind is a single compare, and finding or removing the oldest card of a value takes constant time.
+ * Cards are addressed by slot handles which stay valid until the card is removed.
+ * A hand is not thread-safe, the owning player guards it.
+ */
+public class Hand {
+    /** Slot handle meaning no card. */
+    public static final int NONE = -1;
+
+    // Per slot: value, neighbours in received order, neighbours with the same value, and when it was received
+    private int[] values = new int[8];
+    private int[] next = new int[8];
+    private int[] prev = new int[8];
+    private int[] nextSame = new int[8];
+    private int[] prevSame = new int[8];
+    private long[] received = new long[8];
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeSlot = NONE;  // Free slots are chained through next
+    private int usedSlots;
+    private int size;
+    private long receivedCount;
+
+    // Open addressing table of value buckets, a count of 0 marks a free entry
+    private int[] keys = new int[16];
+    private int[] counts = new int[16];
+    private int[] oldest = new int[16];
+    private int[] newest = new int[16];
+    private int[] densePos = new int[16];
+    private int mask = 15;
+
+    // Values currently held, each once, so strategies can visit every bucket without scanning the table
+    private int[] distinctValues = new int[8];
+    private int distinct;
+
+    // Number of values held four or more times
+    private int fours;
+
+    /**
+     * Adds a card to the end of the hand.
+     * @param value The card's value.
+     * @return The new card's slot handle.
+     */
+    public int add(int value) {
+        int slot = allocateSlot();
+        values[slot] = value;
+        received[slot] = receivedCount++;
+
+        // Append to received order
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+        size++;
+
+        // Append to the value's bucket
+        int entry = findOrInsert(value);
+        prevSame[slot] = newest[entry];
+        nextSame[slot] = NONE;
+        if (newest[entry] == NONE) {
+            oldest[entry] = slot;
+        } else {
+            nextSame[newest[entry]] = slot;
+        }
+        newest[entry] = slot;
+        if (++counts[entry] == 4) {
+            fours++;
+        }
+        return slot;
+    }
+
+    /**
+     * Removes a card by its slot handle.
+     * @param slot The card's slot handle.
+     * @return The removed card's value.
+     */
+    public int removeSlot(int slot) {
+        if (slot < 0 || slot >= usedSlots || !isLive(slot)) {
+            throw new IllegalArgumentException("No card in slot " + slot);
+        }
+        int value = values[slot];
+
+        // Unlink from received order
+        if (prev[slot] == NONE) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+        size--;
+
+        // Unlink from the value's bucket
+        int entry = find(value);
+        if (prevSame[slot] == NONE) {
+            oldest[entry] = nextSame[slot];
+        } else {
+            nextSame[prevSame[slot]] = nextSame[slot];
+        }
+        if (nextSame[slot] == NONE) {
+            newest[entry] = prevSame[slot];
+        } else {
+            prevSame[nextSame[slot]] = prevSame[slot];
+        }
+        if (counts[entry] == 1) {
+            removeEntry(entry);  // Still counted, so lookups can probe past it while the table is fixed up
+        } else if (counts[entry]-- == 4) {
+            fours--;
+        }
+
+        prev[slot] = slot;  // Marks the slot as free
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        return value;
+    }
+
+    /**
+     * Removes the card at a position, the cards after it move up by one.
+     * @param index Position of the card, 0 for the oldest.
+     * @return The removed card's value.
+     */
+    public int removeAt(int index) {
+        return removeSlot(slotAt(index));
+    }
+
+    /**
+     * Returns the value of the card at a position.
+     * @param index Position of the card, 0 for the oldest.
+     * @return The card's value.
+     */
+    public int get(int index) {
+        return values[slotAt(index)];
+    }
+
+    /**
+     * Returns the position of the oldest card without the given value.
+     * @param value The value to skip.
+     * @return The card's position, or -1 if every card has the value.
+     */
+    public int indexOfFirstNot(int value) {
+        int index = 0;
+        for (int slot = head; slot != NONE; slot = next[slot], index++) {
+            if (values[slot] != value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of a card from its slot handle.
+     * @param slot A card's slot handle.
+     * @return The card's position, 0 for the oldest, or -1 if the slot holds no card.
+     */
+    public int indexOfSlot(int slot) {
+        int index = 0;
+        for (int s = head; s != NONE; s = next[s], index++) {
+            if (s == slot) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the oldest card in the hand.
+     * @return The slot handle, or NONE if the hand is empty.
+     */
+    public int firstSlot() {
+        return head;
+    }
+
+    /**
+     * Returns the slot of the card received after the given one.
+     * @param slot A card's slot handle.
+     * @return The next card's slot handle, or NONE after the newest card.
+     */
+    public int nextSlot(int slot) {
+        return next[slot];
+    }
+
+    /**
+     * Returns the value of a card by its slot handle.
+     * @param slot The card's slot handle.
+     * @return The card's value.
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Returns when a card was received relative to the others, a lower number is older.
+     * @param slot The card's slot handle.
+     * @return The card's position in the order all cards were received.
+     */
+    public long receivedAt(int slot) {
+        return received[slot];
+    }
+
+    /**
+     * Returns the slot of the oldest card with a value.
+     * @param value The card value.
+     * @return The slot handle, or NONE if no card has the value.
+     */
+    public int oldestSlotOf(int value) {
+        int entry = find(value);
+        return entry < 0 ? NONE : oldest[entry];
+    }
+
+    /**
+     * Returns how many cards of a value are in the hand.
+     * @param value The card value.
+     * @return Number of cards with that value.
+     */
+    public int count(int value) {
+        int entry = find(value);
+        return entry < 0 ? 0 : counts[entry];
+    }
+
+    /**
+     * Returns how many different values are in the hand.
+     * @return Number of distinct values.
+     */
+    public int distinctCount() {
+        return distinct;
+    }
+
+    /**
+     * Returns one of the distinct values in the hand, in no particular order.
+     * @param index From 0 to distinctCount() - 1.
+     * @return A value held in the hand.
+     */
+    public int distinctValue(int index) {
+        if (index < 0 || index >= distinct) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + distinct + " values");
+        }
+        return distinctValues[index];
+    }
+
+    /**
+     * Checks if the hand holds four cards of the same value.
+     * @return true if the hand is a winning hand.
+     */
+    public boolean hasFourOfAKind() {
+        return fours > 0;
+    }
+
+    /**
+     * Returns the number of cards in the hand.
+     * @return The hand's size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the hand has no cards.
+     * @return true if the hand is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies the hand into a list of cards.
+     * @return The cards in the order they were received.
+     */
+    public List<Card> toCards() {
+        List<Card> list = new ArrayList<>(size);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            list.add(new Card(values[slot]));
+        }
+        return list;
+    }
+
+    /**
+     * Copies the hand's values.
+     * @return The card values in the order they were received.
+     */
+    public int[] toArray() {
+        int[] array = new int[size];
+        int index = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            array[index++] = values[slot];
+        }
+        return array;
+    }
+
+    /**
+     * Formats the hand the way the player logs show it.
+     * @return Card values separated by spaces, oldest first.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (slot != head) {
+                sb.append(' ');
+            }
+            sb.append(values[slot]);
+        }
+        return sb.toString();
+    }
+
+    private boolean isLive(int slot) {
+        return prev[slot] != slot;
+    }
+
+    private int slotAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for hand of " + size);
+        }
+        int slot = head;
+        for (int i = 0; i < index; i++) {
+            slot = next[slot];
+        }
+        return slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (usedSlots == values.length) {
+            int capacity = usedSlots * 2;
+            values = Arrays.copyOf(values, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            nextSame = Arrays.copyOf(nextSame, capacity);
+            prevSame = Arrays.copyOf(prevSame, capacity);
+            received = Arrays.copyOf(received, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;  // Fibonacci hashing spreads consecutive values
+        return h ^ (h >>> 16);
+    }
+
+    private int find(int value) {
+        int entry = hash(value) & mask;
+        while (counts[entry] != 0) {
+            if (keys[entry] == value) {
+                return entry;
+            }
+            entry = (entry + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(int value) {
+        int entry = hash(value) & mask;
+        while (counts[entry] != 0) {
+            if (keys[entry] == value) {
+                return entry;
+            }
+            entry = (entry + 1) & mask;
+        }
+        if ((distinct + 1) * 2 > keys.length) {
+            grow();
+            return findOrInsert(value);
+        }
+        keys[entry] = value;
+        oldest[entry] = NONE;
+        newest[entry] = NONE;
+        if (distinct == distinctValues.length) {
+            distinctValues = Arrays.copyOf(distinctValues, distinct * 2);
+        }
+        densePos[entry] = distinct;
+        distinctValues[distinct++] = value;
+        return entry;
+    }
+
+    private void removeEntry(int entry) {
+        // Swap the last distinct value into this value's place
+        int pos = densePos[entry];
+        int last = distinctValues[--distinct];
+        distinctValues[pos] = last;
+        if (last != keys[entry]) {
+            densePos[find(last)] = pos;
+        }
+
+        // Backward shift deletion: pull later entries of the probe run into the gap so lookups still find them
+        int gap = entry;
+        int probe = (gap + 1) & mask;
+        while (counts[probe] != 0) {
+            int home = hash(keys[probe]) & mask;
+            if (((probe - home) & mask) >= ((probe - gap) & mask)) {
+                moveEntry(probe, gap);
+                gap = probe;
+            }
+            probe = (probe + 1) & mask;
+        }
+        counts[gap] = 0;
+    }
+
+    private void moveEntry(int from, int to) {
+        keys[to] = keys[from];
+        counts[to] = counts[from];
+        oldest[to] = oldest[from];
+        newest[to] = newest[from];
+        densePos[to] = densePos[from];
+        counts[from] = 0;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldOldest = oldest;
+        int[] oldNewest = newest;
+        int[] oldDensePos = densePos;
+        int capacity = oldKeys.length * 2;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        oldest = new int[capacity];
+        newest = new int[capacity];
+        densePos = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int entry = hash(oldKeys[i]) & mask;
+                while (counts[entry] != 0) {
+                    entry = (entry + 1) & mask;
+                }
+                keys[entry] = oldKeys[i];
+                counts[entry] = oldCounts[i];
+                oldest[entry] = oldOldest[i];
+                newest[entry] = oldNewest[i];
+                densePos[entry] = oldDensePos[i];
+            }
+        }
+    }
+}
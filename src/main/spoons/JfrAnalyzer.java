@@ -0,0 +1,160 @@
+package spoons;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Command line tool that reads a flight recording and reports the slowest players and decks.
+ * Players are ranked by mean turn time from spoons.Turn events, so the recording needs those enabled.
+ * Decks are ranked by the total time players spent stalled on them.
+ * Usage: java spoons.JfrAnalyzer &lt;recording.jfr&gt; [top N]
+ */
+public final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    /**
+     * Prints a report of the recording named by the first argument.
+     *
+     * @param args Path to a .jfr file and optionally how many players and decks to list, 10 by default.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java spoons.JfrAnalyzer <recording.jfr> [top N]");
+            System.exit(2);
+        }
+        try {
+            int top = args.length == 2 ? Integer.parseInt(args[1]) : 10;
+            analyze(Paths.get(args[0])).print(System.out, top);
+        } catch (Exception e) {
+            System.err.println("Error analysing recording: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads every game event in a recording, one event at a time.
+     *
+     * @param recording Path to a .jfr file.
+     * @return Totals per player and per deck.
+     * @throws IOException If the recording can't be read.
+     */
+    public static Report analyze(Path recording) throws IOException {
+        Map<Integer, long[]> players = new HashMap<>();  // turns, total nanos, max nanos
+        Map<Integer, long[]> decks = new HashMap<>();    // empty stalls, full stalls, total nanos
+        int games = 0;
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "spoons.Turn" -> {
+                        long nanos = event.getDuration().toNanos();
+                        long[] totals = players.computeIfAbsent(event.getInt("playerId"), id -> new long[3]);
+                        totals[0]++;
+                        totals[1] += nanos;
+                        totals[2] = Math.max(totals[2], nanos);
+                    }
+                    case "spoons.DeckStall" -> {
+                        long[] totals = decks.computeIfAbsent(event.getInt("deckId"), id -> new long[3]);
+                        totals[event.getBoolean("full") ? 1 : 0]++;
+                        totals[2] += event.getDuration().toNanos();
+                    }
+                    case "spoons.Game" -> games++;
+                    default -> {
+                        // Not one of ours
+                    }
+                }
+            }
+        }
+
+        List<PlayerSummary> playerSummaries = new ArrayList<>(players.size());
+        players.forEach((id, t) -> playerSummaries.add(new PlayerSummary(id, t[0], t[1], t[2])));
+        playerSummaries.sort(Comparator.comparingDouble(PlayerSummary::meanNanos).reversed()
+                .thenComparingInt(PlayerSummary::playerId));
+
+        List<DeckSummary> deckSummaries = new ArrayList<>(decks.size());
+        decks.forEach((id, t) -> deckSummaries.add(new DeckSummary(id, t[0], t[1], t[2])));
+        deckSummaries.sort(Comparator.comparingLong(DeckSummary::stallNanos).reversed()
+                .thenComparingInt(DeckSummary::deckId));
+        return new Report(games, playerSummaries, deckSummaries);
+    }
+
+    /**
+     * Turn times of one player.
+     *
+     * @param playerId   The player's ID.
+     * @param turns      Turns recorded.
+     * @param totalNanos Time spent in those turns.
+     * @param maxNanos   Longest turn.
+     */
+    public record PlayerSummary(int playerId, long turns, long totalNanos, long maxNanos) {
+        /**
+         * Returns the player's mean turn time.
+         * @return Mean in nanoseconds.
+         */
+        public double meanNanos() {
+            return turns == 0 ? 0 : (double) totalNanos / turns;
+        }
+    }
+
+    /**
+     * Stalls on one deck.
+     *
+     * @param deckId      The deck's ID.
+     * @param emptyStalls Times a player waited for a card.
+     * @param fullStalls  Times a player waited for room to discard.
+     * @param stallNanos  Time spent in both kinds of stall.
+     */
+    public record DeckSummary(int deckId, long emptyStalls, long fullStalls, long stallNanos) {
+    }
+
+    /**
+     * What a recording shows, slowest first.
+     *
+     * @param games   Games recorded.
+     * @param players Players by mean turn time, slowest first.
+     * @param decks   Decks by total stall time, slowest first.
+     */
+    public record Report(int games, List<PlayerSummary> players, List<DeckSummary> decks) {
+
+        /**
+         * Prints the slowest players and decks as a table.
+         *
+         * @param out Where to print.
+         * @param top How many players and decks to list.
+         */
+        public void print(PrintStream out, int top) {
+            out.println("Games recorded: " + games);
+            if (players.isEmpty()) {
+                out.println("No turns recorded, enable them with -XX:StartFlightRecording:spoons.Turn#enabled=true");
+            } else {
+                out.println("Slowest players by mean turn time:");
+                out.printf("%8s %10s %14s %14s%n", "player", "turns", "mean (us)", "max (us)");
+                for (PlayerSummary player : players.subList(0, Math.min(top, players.size()))) {
+                    out.printf("%8d %10d %14.1f %14.1f%n", player.playerId(), player.turns(),
+                            player.meanNanos() / 1e3, player.maxNanos() / 1e3);
+                }
+            }
+            if (decks.isEmpty()) {
+                out.println("No deck stalls recorded.");
+            } else {
+                out.println("Slowest decks by total stall time:");
+                out.printf("%8s %10s %10s %14s%n", "deck", "empty", "full", "stalled (ms)");
+                for (DeckSummary deck : decks.subList(0, Math.min(top, decks.size()))) {
+                    out.printf("%8d %10d %10d %14.1f%n", deck.deckId(), deck.emptyStalls(), deck.fullStalls(),
+                            deck.stallNanos() / 1e6);
+                }
+            }
+        }
+    }
+}
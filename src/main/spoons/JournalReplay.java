@@ -0,0 +1,297 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rebuilds a game from a GameJournal, at the end or at any sequence number, and can regenerate
+ * the playerN_output.txt and deckN_output.txt files the game writes when logging is on.
+ * Usage: java spoons.JournalReplay &lt;journal&gt; [sequence] [output directory]
+ */
+public final class JournalReplay {
+    // Records read from the file at once
+    private static final int READ_RECORDS = 1 << 14;
+
+    private final Path path;
+    private final int numPlayers;
+    private final long recordCount;
+
+    private JournalReplay(Path path, int numPlayers, long recordCount) {
+        this.path = path;
+        this.numPlayers = numPlayers;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Opens a journal and checks its header.
+     * A journal that was never closed, say after a crash, replays up to the last complete record: the file grows
+     * a whole segment at a time, so it ends at the first record that is zero filled or out of sequence.
+     *
+     * @param path Path to the journal.
+     * @return A replay of that journal.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file is not a journal.
+     */
+    public static JournalReplay open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GameJournal.HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read the whole header
+            }
+            if (header.hasRemaining() || header.getInt(0) != GameJournal.MAGIC) {
+                throw new IllegalArgumentException("Invalid journal: not a game journal.");
+            }
+            if (header.getShort(GameJournal.HEADER_VERSION) != GameJournal.VERSION
+                    || header.getShort(GameJournal.HEADER_RECORD_SIZE) != GameJournal.RECORD_SIZE) {
+                throw new IllegalArgumentException("Invalid journal: unsupported version.");
+            }
+            long records = header.getLong(GameJournal.HEADER_RECORDS);
+            long complete = (channel.size() - GameJournal.HEADER_SIZE) / GameJournal.RECORD_SIZE;
+            return new JournalReplay(path, header.getInt(GameJournal.HEADER_PLAYERS),
+                    records < 0 ? countWrittenRecords(channel, complete) : Math.min(records, complete));
+        }
+    }
+
+    // Counts the records of an unclosed journal up to the first one that was never written, or only partly
+    private static long countWrittenRecords(FileChannel channel, long complete) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_RECORDS * GameJournal.RECORD_SIZE);
+        long next = 0;
+        while (next < complete) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), (complete - next) * GameJournal.RECORD_SIZE));
+            long filePosition = GameJournal.HEADER_SIZE + next * GameJournal.RECORD_SIZE;
+            while (buffer.hasRemaining() && channel.read(buffer, filePosition + buffer.position()) > 0) {
+                // Fill the buffer with whole records
+            }
+            buffer.flip();
+            for (int offset = 0; offset + GameJournal.RECORD_SIZE <= buffer.limit(); offset += GameJournal.RECORD_SIZE) {
+                if (buffer.getLong(offset) != next || buffer.get(offset + 8) == 0) {
+                    return next;
+                }
+                next++;
+            }
+            if (buffer.limit() < GameJournal.RECORD_SIZE) {
+                break;  // The file is shorter than its size said
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Prints the game's state at a sequence number, and regenerates its log files if given a directory.
+     *
+     * @param args Journal path, optionally a sequence number (the end by default) and an output directory.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: java spoons.JournalReplay <journal> [sequence] [output directory]");
+            System.exit(2);
+        }
+        try {
+            JournalReplay replay = open(Paths.get(args[0]));
+            long sequence = args.length >= 2 ? Long.parseLong(args[1]) : replay.getRecordCount();
+            State state = args.length == 3 ? replay.writeLogs(Paths.get(args[2]), sequence) : replay.replay(sequence);
+            System.out.println(state);
+        } catch (Exception e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the number of players in the journalled game.
+     * @return Number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the number of complete records in the journal.
+     * @return Record count, one past the last sequence number.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Rebuilds the game as it was just before a sequence number.
+     *
+     * @param sequence Records before this one are applied, use getRecordCount() for the end of the game.
+     * @return Every hand and deck at that point.
+     * @throws IOException If the journal can't be read.
+     */
+    public State replay(long sequence) throws IOException {
+        return run(sequence, null, null);
+    }
+
+    /**
+     * Rebuilds the game up to a sequence number and writes the log files it would have written by then.
+     * At the end of the game the files match the ones the game writes with logging on.
+     *
+     * @param directory Where to write the playerN_output.txt and deckN_output.txt files.
+     * @param sequence  Records before this one are applied.
+     * @return Every hand and deck at that point.
+     * @throws IOException If the journal can't be read.
+     */
+    public State writeLogs(Path directory, long sequence) throws IOException {
+        LogWriter logWriter = new LogWriter();
+        try {
+            return run(sequence, logWriter, directory);
+        } finally {
+            logWriter.close();
+        }
+    }
+
+    private State run(long sequence, LogWriter logWriter, Path directory) throws IOException {
+        long end = Math.min(Math.max(sequence, 0), recordCount);
+        Hand[] hands = new Hand[numPlayers];
+        List<ArrayDeque<Integer>> decks = new ArrayList<>(numPlayers);
+        LogWriter.Channel[] logs = new LogWriter.Channel[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            hands[i] = new Hand();
+            decks.add(new ArrayDeque<>());
+            if (logWriter != null) {
+                Path file = directory.resolve("player" + (i + 1) + "_output.txt");
+                Files.deleteIfExists(file);
+                logs[i] = logWriter.channel(file);
+            }
+        }
+
+        boolean dealt = false;
+        int winnerId = CardGame.NO_WINNER;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_RECORDS * GameJournal.RECORD_SIZE);
+            long next = 0;
+            while (next < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), (end - next) * GameJournal.RECORD_SIZE));
+                long filePosition = GameJournal.HEADER_SIZE + next * GameJournal.RECORD_SIZE;
+                while (buffer.hasRemaining() && channel.read(buffer, filePosition + buffer.position()) > 0) {
+                    // Fill the buffer with whole records
+                }
+                buffer.flip();
+                for (int offset = 0; offset + GameJournal.RECORD_SIZE <= buffer.limit(); offset += GameJournal.RECORD_SIZE) {
+                    if (buffer.getLong(offset) != next) {
+                        throw new IllegalArgumentException("Invalid journal: record " + next + " is missing.");
+                    }
+                    byte type = buffer.get(offset + 8);
+                    int position = Byte.toUnsignedInt(buffer.get(offset + 9));
+                    int player = buffer.getInt(offset + 12) - 1;
+                    int deck = buffer.getInt(offset + 16) - 1;
+                    int card = buffer.getInt(offset + 20);
+
+                    if (!dealt && type != GameJournal.DEAL_PLAYER && type != GameJournal.DEAL_DECK) {
+                        dealt = true;
+                        logInitialHands(hands, logs);
+                    }
+                    switch (type) {
+                        case GameJournal.DEAL_PLAYER -> hands[player].add(card);
+                        case GameJournal.DEAL_DECK -> decks.get(deck).addLast(card);
+                        case GameJournal.DRAW -> {
+                            Integer top = decks.get(deck).pollFirst();
+                            if (top == null || top != card) {
+                                throw new IllegalStateException("Journal is inconsistent at " + next
+                                        + ": deck " + (deck + 1) + " does not have " + card + " on top.");
+                            }
+                            hands[player].add(card);
+                            log(logs, player, "Player " + (player + 1) + " draws a " + card + " from deck " + (deck + 1) + "\n");
+                        }
+                        case GameJournal.DISCARD -> {
+                            if (position >= hands[player].size() || hands[player].get(position) != card) {
+                                throw new IllegalStateException("Journal is inconsistent at " + next
+                                        + ": player " + (player + 1) + " does not hold " + card + " at " + position + ".");
+                            }
+                            hands[player].removeAt(position);
+                            decks.get(deck).addLast(card);
+                            log(logs, player, "Player " + (player + 1) + " discards a " + card + " to deck " + (deck + 1) + "\n"
+                                    + "Player " + (player + 1) + " current hand is " + hands[player] + "\n");
+                        }
+                        case GameJournal.WIN -> {
+                            winnerId = player + 1;
+                            log(logs, player, "Player " + winnerId + " wins with hand: " + hands[player] + "\n");
+                        }
+                        default -> throw new IllegalArgumentException("Invalid journal: unknown record type " + type + ".");
+                    }
+                    next++;
+                }
+            }
+        }
+        if (!dealt) {
+            logInitialHands(hands, logs);
+        }
+
+        // Everyone else exits once the winner is known, and the decks are written out
+        if (logWriter != null && winnerId != CardGame.NO_WINNER) {
+            for (int i = 0; i < numPlayers; i++) {
+                if (i + 1 != winnerId) {
+                    log(logs, i, "Player " + winnerId + " has informed player " + (i + 1) + " that player " + winnerId
+                            + " has won.\nPlayer " + (i + 1) + " exits.\nPlayer " + (i + 1) + " hand: " + hands[i] + "\n");
+                }
+            }
+            for (int i = 0; i < numPlayers; i++) {
+                StringBuilder contents = new StringBuilder("deck" + (i + 1) + " contents: ");
+                for (int card : decks.get(i)) {
+                    contents.append(card).append(' ');
+                }
+                Path file = directory.resolve("deck" + (i + 1) + "_output.txt");
+                Files.deleteIfExists(file);
+                logWriter.channel(file).append(contents.append(System.lineSeparator()).toString());
+            }
+        }
+
+        int[][] handValues = new int[numPlayers][];
+        int[][] deckValues = new int[numPlayers][];
+        for (int i = 0; i < numPlayers; i++) {
+            handValues[i] = hands[i].toArray();
+            deckValues[i] = decks.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new State(end, winnerId, handValues, deckValues);
+    }
+
+    private static void logInitialHands(Hand[] hands, LogWriter.Channel[] logs) {
+        for (int i = 0; i < hands.length; i++) {
+            log(logs, i, "Player " + (i + 1) + " initial hand: " + hands[i] + "\n");
+        }
+    }
+
+    private static void log(LogWriter.Channel[] logs, int player, String message) {
+        if (logs[player] != null) {
+            logs[player].append(message);
+        }
+    }
+
+    /**
+     * The game rebuilt at one sequence number.
+     *
+     * @param sequence Number of records applied.
+     * @param winnerId The winner, or CardGame.NO_WINNER if nobody had won by then.
+     * @param hands    Each player's hand in the order the cards were received, in player order.
+     * @param decks    Each deck's cards from top to bottom, in deck order.
+     */
+    public record State(long sequence, int winnerId, int[][] hands, int[][] decks) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State other && sequence == other.sequence && winnerId == other.winnerId
+                    && Arrays.deepEquals(hands, other.hands) && Arrays.deepEquals(decks, other.decks);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * Long.hashCode(sequence) + winnerId) + Arrays.deepHashCode(hands)) + Arrays.deepHashCode(decks);
+        }
+
+        @Override
+        public String toString() {
+            return "State[sequence=" + sequence + ", winnerId=" + winnerId + ", hands=" + Arrays.deepToString(hands)
+                    + ", decks=" + Arrays.deepToString(decks) + "]";
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package spoons;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in nanoseconds with one bucket per power of two.
+ * Only one thread may record into a histogram, the player that owns it, so recording is a few plain
+ * adds with no CAS or fence. Any thread can take a snapshot, which may be a moment behind but never torn.
+ */
+public class LatencyHistogram {
+    // Bucket i holds durations from 2^(i-1) to 2^i - 1 nanoseconds, bucket 0 holds zero
+    private static final int BUCKETS = 64;
+    private static final int COUNT = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Buckets followed by the count, sum and max, read by other threads with opaque loads
+    private final long[] cells = new long[BUCKETS + 3];
+
+    /**
+     * Records one duration. Must only be called by the histogram's owning thread.
+     * @param nanos Duration in nanoseconds, negative values count as zero.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        int bucket = BUCKETS - Long.numberOfLeadingZeros(nanos);
+        add(bucket, 1);
+        add(COUNT, 1);
+        add(SUM, nanos);
+        if (nanos > cells[MAX]) {
+            CELL.setOpaque(cells, MAX, nanos);
+        }
+    }
+
+    private void add(int index, long delta) {
+        CELL.setOpaque(cells, index, cells[index] + delta);
+    }
+
+    /**
+     * Copies the histogram's current state.
+     * @return A snapshot which can be read and merged from any thread.
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = (long) CELL.getOpaque(cells, i);
+        }
+        return new Snapshot(buckets, (long) CELL.getOpaque(cells, COUNT), (long) CELL.getOpaque(cells, SUM),
+                (long) CELL.getOpaque(cells, MAX));
+    }
+
+    /**
+     * An immutable copy of a histogram, or several merged together.
+     *
+     * @param buckets Number of durations in each power of two bucket.
+     * @param count   Number of durations recorded.
+     * @param sum     Total of all durations in nanoseconds.
+     * @param max     Longest duration in nanoseconds.
+     */
+    public record Snapshot(long[] buckets, long count, long sum, long max) {
+        /** A snapshot of a histogram nothing has been recorded in. */
+        public static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0, 0);
+
+        /**
+         * Returns the mean duration.
+         * @return Mean in nanoseconds, 0 if nothing was recorded.
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns an upper bound for a percentile, accurate to within a factor of two.
+         * @param percentile From 0 to 100.
+         * @return The top of the bucket the percentile falls in, in nanoseconds, capped at the max.
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    long upper = i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upper, max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Combines this snapshot with another.
+         * @param other Snapshot to add.
+         * @return A snapshot holding the durations of both.
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] = buckets[i] + other.buckets[i];
+            }
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Snapshot other && count == other.count && sum == other.sum && max == other.max
+                    && Arrays.equals(buckets, other.buckets);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * Long.hashCode(count) + Long.hashCode(sum)) + Long.hashCode(max)) + Arrays.hashCode(buckets);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot[count=" + count + ", mean=" + (long) mean() + "ns, p50=" + percentile(50) + "ns, p99="
+                    + percentile(99) + "ns, max=" + max + "ns]";
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package spoons;
+
+/**
+ * Discards a card of the value held least often, keeping the preferred denomination where possible.
+ * Ties go to the value whose oldest card was received first, and that oldest card is discarded.
+ */
+public class LeastFrequentDiscard implements DiscardStrategy {
+
+    @Override
+    public int chooseDiscard(Hand hand, int preferredDenomination) {
+        int best = Hand.NONE;
+        int bestCount = Integer.MAX_VALUE;
+        // One visit per distinct value, at most 5 during a turn
+        for (int i = 0; i < hand.distinctCount(); i++) {
+            int value = hand.distinctValue(i);
+            if (value == preferredDenomination) {
+                continue;
+            }
+            int count = hand.count(value);
+            int slot = hand.oldestSlotOf(value);
+            if (count < bestCount || (count == bestCount && hand.receivedAt(slot) < hand.receivedAt(best))) {
+                best = slot;
+                bestCount = count;
+            }
+        }
+        return best == Hand.NONE ? hand.firstSlot() : best;
+    }
+}
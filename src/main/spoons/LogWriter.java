@@ -0,0 +1,275 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous writer for the game's log files.
+ * Players hand messages to a lock-free queue and a single background thread appends them to
+ * long-lived file channels, writing in batches once enough bytes are pending or a short interval has passed.
+ * The thread runs until the writer is closed, or until nothing has been submitted for a while,
+ * so a game that is never started or closed does not leave it behind.
+ */
+public class LogWriter {
+    // Pending characters on a channel before its batch is written out
+    private static final int BATCH_SIZE = 8192;
+    // Longest time a message waits in memory before being written
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    // Flush intervals with nothing submitted before the writer thread closes its files and stops, about half a second
+    private static final int IDLE_INTERVALS = 25;
+    // Most files held open at once, big rings would otherwise run out of file descriptors
+    private static final int MAX_OPEN_FILES = 256;
+
+    // Messages and barriers waiting for the writer thread
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    // Channels with unwritten data, only touched by the writer thread
+    private final List<Channel> dirty = new ArrayList<>();
+    // Channels with an open file in least recently written order, only touched by the writer thread
+    private final LinkedHashMap<Channel, Boolean> open = new LinkedHashMap<>(16, 0.75f, true);
+    // Encoding used by FileWriter, so the bytes on disk stay the same
+    private final Charset charset = Charset.defaultCharset();
+    // The running writer thread, or null when idle or closed
+    private volatile Thread writerThread;
+    // Bytes written to disk so far, only updated by the writer thread
+    private volatile long bytesWritten;
+
+    /**
+     * A queued item: either a message for a channel, or a barrier released once everything before it is on disk.
+     */
+    private record Entry(Channel channel, String message, CountDownLatch barrier, boolean close) {}
+
+    /**
+     * Returns the number of bytes written to log files so far.
+     * Messages still queued are not counted until the writer thread writes them.
+     *
+     * @return Total bytes written by this writer.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    // Whether the writer thread is running, for tests
+    boolean isRunning() {
+        return writerThread != null;
+    }
+
+    /**
+     * Creates a channel which appends to the given file.
+     * The file is opened lazily by the writer thread and kept open until the writer is closed or goes idle,
+     * or until it is the least recently written of too many open files.
+     *
+     * @param path The file this channel appends to
+     * @return A new channel for the file
+     */
+    public Channel channel(Path path) {
+        return new Channel(path);
+    }
+
+    /**
+     * Blocks until every message submitted before this call has been written to disk.
+     */
+    public void flush() {
+        if (writerThread == null && queue.isEmpty()) {
+            return;  // Nothing has been written since the last flush or close
+        }
+        awaitBarrier(false);
+    }
+
+    /**
+     * Writes all pending messages, closes every open file and stops the writer thread.
+     * The writer restarts on its own if more messages are submitted afterwards.
+     */
+    public void close() {
+        if (writerThread == null && queue.isEmpty()) {
+            return;
+        }
+        awaitBarrier(true);
+    }
+
+    private void awaitBarrier(boolean close) {
+        CountDownLatch barrier = new CountDownLatch(1);
+        submit(new Entry(null, null, barrier, close));
+        LockSupport.unpark(writerThread);  // Don't make the caller wait out the flush interval
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Entry entry) {
+        queue.offer(entry);
+        if (writerThread == null) {
+            startWriter();
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writerThread == null) {
+            Thread thread = new Thread(this::runWriter, "log-writer");
+            thread.setDaemon(true);  // A forgotten close must not keep the JVM alive
+            writerThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Main loop of the writer thread. Drains the queue into per-channel batches and writes them out.
+     */
+    private void runWriter() {
+        long lastFlush = System.nanoTime();
+        int idleIntervals = 0;
+        while (true) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                writeDirty();
+                lastFlush = System.nanoTime();
+                if (++idleIntervals >= IDLE_INTERVALS) {
+                    // Idle, stop as close would. Anything submitted meanwhile is picked up by stopWriter
+                    closeFiles();
+                    stopWriter();
+                    return;
+                }
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+                continue;
+            }
+            idleIntervals = 0;
+
+            if (entry.barrier() != null) {
+                writeDirty();
+                lastFlush = System.nanoTime();
+                if (entry.close()) {
+                    closeFiles();
+                    stopWriter();
+                    entry.barrier().countDown();
+                    return;
+                }
+                entry.barrier().countDown();
+                continue;
+            }
+
+            Channel channel = entry.channel();
+            if (channel.pending.isEmpty()) {
+                dirty.add(channel);
+            }
+            channel.pending.append(entry.message());
+            if (channel.pending.length() >= BATCH_SIZE) {
+                write(channel);
+            }
+
+            if (System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                writeDirty();
+                lastFlush = System.nanoTime();
+            }
+        }
+    }
+
+    private void stopWriter() {
+        synchronized (this) {
+            writerThread = null;
+        }
+        // A message may have been queued while this thread was shutting down
+        if (!queue.isEmpty()) {
+            startWriter();
+        }
+    }
+
+    private void writeDirty() {
+        for (Channel channel : dirty) {
+            write(channel);
+        }
+        dirty.clear();
+    }
+
+    private void write(Channel channel) {
+        if (channel.pending.isEmpty()) {
+            return;
+        }
+        ByteBuffer bytes = charset.encode(channel.pending.toString());
+        channel.pending.setLength(0);
+        try {
+            if (channel.file == null) {
+                if (open.size() >= MAX_OPEN_FILES) {
+                    closeEldest();
+                }
+                channel.file = FileChannel.open(channel.path,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                open.put(channel, Boolean.TRUE);
+            } else {
+                open.get(channel);  // Mark as most recently written
+            }
+            while (bytes.hasRemaining()) {
+                bytesWritten += channel.file.write(bytes);  // Single writer, so the volatile add can't lose updates
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to log file " + channel.path + ": " + e.getMessage());
+        }
+    }
+
+    private void closeEldest() {
+        Iterator<Channel> eldest = open.keySet().iterator();
+        closeFile(eldest.next());
+        eldest.remove();
+    }
+
+    private void closeFiles() {
+        for (Channel channel : open.keySet()) {
+            closeFile(channel);
+        }
+        open.clear();
+    }
+
+    private void closeFile(Channel channel) {
+        try {
+            channel.file.close();
+        } catch (IOException e) {
+            System.err.println("Error closing log file " + channel.path + ": " + e.getMessage());
+        }
+        channel.file = null;
+    }
+
+    /**
+     * A single log file fed through this writer.
+     * Messages appended to a channel reach the file in the order they were appended.
+     */
+    public final class Channel {
+        private final Path path;
+        // Messages not yet written, only touched by the writer thread
+        private final StringBuilder pending = new StringBuilder();
+        // Open file, only touched by the writer thread
+        private FileChannel file;
+
+        private Channel(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Queues a message to be appended to the end of the file.
+         *
+         * @param message The text to append
+         */
+        public void append(String message) {
+            submit(new Entry(this, message, null, false));
+        }
+
+        /**
+         * Returns the file this channel appends to.
+         * @return The path of the log file.
+         */
+        public Path getPath() {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package spoons;
+
+/**
+ * Metrics of a game at one moment, taken by GameMetrics.snapshot.
+ *
+ * @param timestampNanos      System.nanoTime when the snapshot was taken.
+ * @param elapsedNanos        Time since the game started, 0 if it hasn't.
+ * @param totalTurns          Turns taken by all players.
+ * @param playerTurns         Turns taken by each player, in player order.
+ * @param deckDepths          Cards in each deck, in deck order.
+ * @param emptyDeckStalls     Times a player parked waiting for a card.
+ * @param emptyDeckStallNanos Time players spent parked waiting for a card.
+ * @param fullDeckStalls      Times a player parked waiting for room to discard.
+ * @param fullDeckStallNanos  Time players spent parked waiting for room to discard.
+ * @param bytesLogged         Bytes written to the player log files.
+ * @param turnLatency         Time from starting to wait for a card to finishing the discard, across all players.
+ * @param drawLatency         Time from starting to wait for a card to having drawn it, across all players.
+ */
+public record MetricsSnapshot(long timestampNanos, long elapsedNanos, long totalTurns, long[] playerTurns,
+                              int[] deckDepths, long emptyDeckStalls, long emptyDeckStallNanos, long fullDeckStalls,
+                              long fullDeckStallNanos, long bytesLogged,
+                              LatencyHistogram.Snapshot turnLatency, LatencyHistogram.Snapshot drawLatency) {
+
+    /**
+     * Returns the average turn rate since the game started.
+     * @return Turns per second, 0 before the game starts.
+     */
+    public double turnsPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalTurns * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the turn rate between an earlier snapshot and this one, as used by periodic reports.
+     * @param earlier A snapshot of the same game taken before this one.
+     * @return Turns per second over the interval.
+     */
+    public double turnsPerSecondSince(MetricsSnapshot earlier) {
+        long nanos = timestampNanos - earlier.timestampNanos;
+        return nanos <= 0 ? 0 : (totalTurns - earlier.totalTurns) * 1e9 / nanos;
+    }
+
+    /**
+     * Returns the number of cards in the fullest deck.
+     * @return Largest deck depth.
+     */
+    public int maxDeckDepth() {
+        int max = 0;
+        for (int depth : deckDepths) {
+            max = Math.max(max, depth);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot[elapsed=" + elapsedNanos / 1_000_000 + "ms, turns=" + totalTurns
+                + ", turnsPerSecond=" + (long) turnsPerSecond() + ", maxDeckDepth=" + maxDeckDepth()
+                + ", emptyDeckStalls=" + emptyDeckStalls + ", fullDeckStalls=" + fullDeckStalls
+                + ", bytesLogged=" + bytesLogged
+                + ", turnLatency=" + turnLatency + ", drawLatency=" + drawLatency + "]";
+    }
+}
@@ -0,0 +1,58 @@
+package spoons;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Command line tool that converts a text card pack into a binary pack.
+ * Usage: java spoons.PackConverter &lt;text pack&gt; &lt;binary pack&gt; [varint|fixed]
+ */
+public final class PackConverter {
+
+    private PackConverter() {
+    }
+
+    /**
+     * Converts the text pack named by the first argument into the binary pack named by the second.
+     * The player count is taken from the pack size, which must be a multiple of 8.
+     *
+     * @param args Input path, output path and optionally the encoding, varint by default.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java spoons.PackConverter <text pack> <binary pack> [varint|fixed]");
+            System.exit(2);
+        }
+        try {
+            BinaryPack.Encoding encoding = args.length == 3
+                    ? BinaryPack.Encoding.valueOf(args[2].toUpperCase(Locale.ROOT))
+                    : BinaryPack.Encoding.VARINT;
+            int numPlayers = convert(Paths.get(args[0]), Paths.get(args[1]), encoding);
+            System.out.println("Wrote " + args[1] + " for " + numPlayers + " players.");
+        } catch (Exception e) {
+            System.err.println("Error converting pack: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a text pack into a binary pack.
+     *
+     * @param textPack   Text pack to read.
+     * @param binaryPack Binary pack to write.
+     * @param encoding   How the binary pack stores the values.
+     * @return Number of players the pack is for.
+     * @throws java.io.IOException If either file can't be read or written.
+     * @throws IllegalArgumentException If the text pack is invalid or not 8 cards per player.
+     */
+    public static int convert(Path textPack, Path binaryPack, BinaryPack.Encoding encoding) throws java.io.IOException {
+        int[] values = PackLoader.load(textPack);
+        if (values.length % 8 != 0) {
+            throw new IllegalArgumentException("Invalid card pack: incorrect number of cards.");
+        }
+        int numPlayers = values.length / 8;
+        BinaryPack.write(binaryPack, values, numPlayers, encoding);
+        return numPlayers;
+    }
+}
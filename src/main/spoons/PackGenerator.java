@@ -0,0 +1,424 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates card packs of any size, written straight to disk as text or binary packs.
+ * The pack is made in chunks, each with its own SplittableRandom split from the seed in chunk order,
+ * so the same seed gives the same pack however many threads fill the chunks.
+ * Chunks are filled and encoded in parallel and written in order, with only a few of them in memory at once.
+ * Usage: java spoons.PackGenerator &lt;players&gt; &lt;output&gt; [uniform|zipf|winnable|unwinnable] [text|fixed|varint]
+ */
+public class PackGenerator {
+    /** Largest number of players a pack can be generated for. */
+    public static final int MAX_PLAYERS = (Integer.MAX_VALUE - 8) / 8;
+    /** Zipf exponent used when none is set. */
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+    // Cards per chunk, a multiple of 3 so unwinnable chunks hold whole triples
+    static final int CHUNK_CARDS = 3 << 18;
+    // Longest text line, a sign, ten digits and the line break
+    private static final int MAX_LINE_BYTES = 12;
+
+    /** How card values are drawn. */
+    public enum Distribution {
+        /** Every value from 1 to the maximum is equally likely. */
+        UNIFORM,
+        /** Value k has probability proportional to 1 / k^s, so low values are common and high values rare. */
+        ZIPF,
+        /** Uniform, with at least four 1s so player 1 can always collect a winning hand. */
+        WINNABLE,
+        /** No value appears more than three times, so no hand can ever win. The maximum value is ignored. */
+        UNWINNABLE
+    }
+
+    private final int numPlayers;
+    private final Distribution distribution;
+    private long seed;
+    private int maxValue;
+    private double zipfExponent;
+    private int parallelism;
+
+    /**
+     * Constructor for a generator of packs for a number of players.
+     *
+     * @param numPlayers   Number of players, the pack has 8 cards for each.
+     * @param distribution How card values are drawn.
+     */
+    public PackGenerator(int numPlayers, Distribution distribution) {
+        if (numPlayers <= 0 || numPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between 1 and " + MAX_PLAYERS + ".");
+        }
+        this.numPlayers = numPlayers;
+        this.distribution = distribution;
+        this.maxValue = numPlayers;
+        this.zipfExponent = DEFAULT_ZIPF_EXPONENT;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Generates a pack from the command line.
+     * The seed, largest value and Zipf exponent can be set with -Dspoons.seed, -Dspoons.maxValue and
+     * -Dspoons.zipfExponent. Packs are written as text unless an encoding is given.
+     *
+     * @param args Number of players, the output file, then optionally the distribution and the format.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: java spoons.PackGenerator <players> <output> [uniform|zipf|winnable|unwinnable] [text|fixed|varint]");
+            System.exit(2);
+        }
+        try {
+            Distribution distribution = args.length > 2
+                    ? Distribution.valueOf(args[2].toUpperCase(Locale.ROOT))
+                    : Distribution.UNIFORM;
+            PackGenerator generator = new PackGenerator(Integer.parseInt(args[0]), distribution);
+            generator.setSeed(Long.getLong("spoons.seed", 0));
+            generator.setMaxValue(Integer.getInteger("spoons.maxValue", generator.getMaxValue()));
+            generator.setZipfExponent(Double.parseDouble(
+                    System.getProperty("spoons.zipfExponent", String.valueOf(DEFAULT_ZIPF_EXPONENT))));
+
+            Path output = Paths.get(args[1]);
+            String format = args.length > 3 ? args[3].toUpperCase(Locale.ROOT) : "TEXT";
+            if (format.equals("TEXT")) {
+                generator.writeText(output);
+            } else {
+                generator.writeBinary(output, BinaryPack.Encoding.valueOf(format));
+            }
+            System.out.println("Wrote " + args[1] + " for " + args[0] + " players.");
+        } catch (Exception e) {
+            System.err.println("Error generating pack: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sets the seed all randomness comes from.
+     * @param seed Seed for the pack, 0 by default.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the largest value drawn, values start at 1.
+     * @param maxValue Largest card value, the number of players by default.
+     */
+    public void setMaxValue(int maxValue) {
+        if (maxValue <= 0) {
+            throw new IllegalArgumentException("Largest card value must be positive.");
+        }
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Returns the largest value drawn.
+     * @return Largest card value.
+     */
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Sets the exponent of the Zipf distribution, larger exponents favour low values more.
+     * @param zipfExponent Exponent s, greater than 0.
+     */
+    public void setZipfExponent(double zipfExponent) {
+        if (!(zipfExponent > 0) || Double.isInfinite(zipfExponent)) {
+            throw new IllegalArgumentException("Zipf exponent must be positive.");
+        }
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * Sets the number of threads that fill and encode chunks.
+     * @param parallelism Number of threads, one per core by default.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Generates the whole pack in memory, the same values writeText and writeBinary would write.
+     *
+     * @return Card values in pack order.
+     */
+    public int[] generate() {
+        int[] values = new int[numPlayers * 8];
+        SplittableRandom root = new SplittableRandom(seed);
+        int[] chunk = new int[Math.min(CHUNK_CARDS, values.length)];
+        for (int c = 0; c < chunkCount(); c++) {
+            int length = fill(c, root.split(), chunk);
+            System.arraycopy(chunk, 0, values, c * CHUNK_CARDS, length);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the pack as a text pack, one value per line.
+     *
+     * @param path Where to write the pack, replacing any existing file.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeText(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            stream(null, (buffer, cards) -> {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the pack as a binary pack.
+     *
+     * @param path     Where to write the pack, replacing any existing file.
+     * @param encoding How the binary pack stores the values.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeBinary(Path path, BinaryPack.Encoding encoding) throws IOException {
+        try (BinaryPack.Writer writer = new BinaryPack.Writer(path, numPlayers, encoding)) {
+            stream(encoding, writer::append);
+        }
+    }
+
+    // Something that takes encoded chunks in pack order
+    private interface ChunkSink {
+        void accept(ByteBuffer encoded, int cards) throws IOException;
+    }
+
+    // An encoded chunk
+    private record Encoded(ByteBuffer bytes, int cards) {
+    }
+
+    /**
+     * Fills and encodes chunks on a pool, keeping at most two per thread in flight, and hands them on in order.
+     * The chunk randoms are split on this thread, so the order they are split in never depends on the pool.
+     */
+    private void stream(BinaryPack.Encoding encoding, ChunkSink sink) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pack-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            SplittableRandom root = new SplittableRandom(seed);
+            ArrayDeque<Future<Encoded>> inFlight = new ArrayDeque<>();
+            int chunks = chunkCount();
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                SplittableRandom random = root.split();
+                inFlight.add(pool.submit(() -> encode(chunk, random, encoding)));
+                if (inFlight.size() >= 2 * parallelism) {
+                    drain(inFlight.poll(), sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                drain(inFlight.poll(), sink);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void drain(Future<Encoded> future, ChunkSink sink) throws IOException {
+        Encoded encoded;
+        try {
+            encoded = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating pack.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error generating chunk: " + e.getCause().getMessage(), e.getCause());
+        }
+        sink.accept(encoded.bytes(), encoded.cards());
+    }
+
+    private Encoded encode(int chunk, SplittableRandom random, BinaryPack.Encoding encoding) {
+        int[] values = new int[Math.min(CHUNK_CARDS, numPlayers * 8)];
+        int length = fill(chunk, random, values);
+        if (encoding != null) {
+            ByteBuffer buffer = ByteBuffer.allocate(length * 5);
+            BinaryPack.encode(values, 0, length, encoding, buffer);
+            return new Encoded(buffer.flip(), length);
+        }
+        byte[] text = new byte[length * MAX_LINE_BYTES];
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            position = putLine(text, position, values[i]);
+        }
+        return new Encoded(ByteBuffer.wrap(text, 0, position), length);
+    }
+
+    // Writes a value's digits and a line break, without going through a String
+    private static int putLine(byte[] text, int position, int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            text[position++] = '-';
+            remaining = -remaining;
+        }
+        int end = position + digits(remaining);
+        for (int i = end - 1; i >= position; i--) {
+            text[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        text[end] = '\n';
+        return end + 1;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private int chunkCount() {
+        return (int) ((numPlayers * 8L + CHUNK_CARDS - 1) / CHUNK_CARDS);
+    }
+
+    /**
+     * Fills one chunk's values.
+     * @return Number of cards in the chunk, less than a full chunk only for the last one.
+     */
+    int fill(int chunk, SplittableRandom random, int[] values) {
+        int length = (int) Math.min(CHUNK_CARDS, numPlayers * 8L - (long) chunk * CHUNK_CARDS);
+        switch (distribution) {
+            case UNIFORM -> {
+                for (int i = 0; i < length; i++) {
+                    values[i] = random.nextInt(maxValue) + 1;
+                }
+            }
+            case ZIPF -> {
+                ZipfSampler sampler = new ZipfSampler(maxValue, zipfExponent);
+                for (int i = 0; i < length; i++) {
+                    values[i] = sampler.sample(random);
+                }
+            }
+            case WINNABLE -> {
+                for (int i = 0; i < length; i++) {
+                    values[i] = random.nextInt(maxValue) + 1;
+                }
+                if (chunk == 0) {
+                    forceOnes(random, values, length);
+                }
+            }
+            case UNWINNABLE -> {
+                // Three copies of each of the chunk's own values, so no value is repeated in another chunk
+                int base = chunk * (CHUNK_CARDS / 3) + 1;
+                for (int i = 0; i < length; i++) {
+                    values[i] = base + i / 3;
+                }
+                for (int i = length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                }
+            }
+        }
+        return length;
+    }
+
+    // Puts a 1 in four different places, a pack of 8 cards has room for them
+    private static void forceOnes(SplittableRandom random, int[] values, int length) {
+        int ones = 0;
+        for (int i = 0; i < length; i++) {
+            if (values[i] == 1) {
+                ones++;
+            }
+        }
+        while (ones < 4) {
+            int i = random.nextInt(length);
+            if (values[i] != 1) {
+                values[i] = 1;
+                ones++;
+            }
+        }
+    }
+
+    /**
+     * Draws Zipf distributed values by rejection-inversion (Hörmann and Derflinger, 1996).
+     * A sample takes a few logs and exps whatever the largest value, with no table of probabilities.
+     */
+    static final class ZipfSampler {
+        private final int maxValue;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralMax;
+        private final double s;
+
+        ZipfSampler(int maxValue, double exponent) {
+            this.maxValue = maxValue;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralMax = hIntegral(maxValue + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralMax + random.nextDouble() * (hIntegralX1 - hIntegralMax);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > maxValue) {
+                    k = maxValue;
+                }
+                // Most samples are accepted by the first, cheap test
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        // Integral of h, up to a constant
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - exponent) * logX) * logX;
+        }
+
+        // The unnormalised probability 1 / x^s
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - exponent);
+            if (t < -1) {
+                t = -1;  // Rounding can take t just past the pole at -1
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log(1 + x) / x, accurate near 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, accurate near 0
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+}
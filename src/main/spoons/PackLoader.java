@@ -0,0 +1,206 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads text card packs, one value per line, straight into an int array.
+ * The file is memory-mapped a window at a time and the digits are parsed from the mapped bytes,
+ * so no line strings or Card objects are created and a pack of millions of cards costs one int each.
+ * Lines follow the same rules as CardGame.loadPack always has: surrounding whitespace is ignored,
+ * lines end at \n, \r or \r\n, and anything but a single int is rejected.
+ */
+public final class PackLoader {
+    // Bytes mapped at once, files bigger than this are read in several windows
+    private static final long WINDOW_SIZE = 1L << 28;
+    // Largest array the loader will grow to, as with ArrayList
+    private static final int MAX_CARDS = Integer.MAX_VALUE - 8;
+
+    private PackLoader() {
+    }
+
+    /**
+     * Loads a text card pack into an array of card values.
+     *
+     * @param path Path to the file containing card values.
+     * @return Card values in the order they appear in the file.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the file is empty or a line is not a valid card value.
+     */
+    public static int[] load(Path path) throws IOException {
+        long fileSize = Files.size(path);
+        // Every line but the last takes at least two bytes, so this is rarely grown
+        ArrayFiller filler = new ArrayFiller((int) Math.min(fileSize / 2 + 1, 1 << 24));
+        forEach(path, filler);
+        return filler.toArray();
+    }
+
+    /**
+     * Parses a text card pack and passes each value on in file order, without keeping any of them.
+     * This is how packs too big for an array are checked.
+     *
+     * @param path   Path to the file containing card values.
+     * @param action Called with each card value.
+     * @return Number of cards in the pack.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If the file is empty or a line is not a valid card value.
+     */
+    public static long forEach(Path path, IntConsumer action) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                throw new IllegalArgumentException("Card pack file is empty");
+            }
+
+            long count = 0;
+            LineParser parser = new LineParser();
+            long lineStart = 0;
+            boolean afterCarriageReturn = false;
+            for (long windowStart = 0; windowStart < fileSize; windowStart += WINDOW_SIZE) {
+                long windowSize = Math.min(WINDOW_SIZE, fileSize - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                for (int i = 0; i < windowSize; i++) {
+                    byte b = window.get(i);
+                    if (b == '\n' || b == '\r') {
+                        if (b == '\n' && afterCarriageReturn) {
+                            afterCarriageReturn = false;  // Second half of \r\n, the line already ended
+                            lineStart = windowStart + i + 1;
+                            continue;
+                        }
+                        afterCarriageReturn = b == '\r';
+                        long lineEnd = windowStart + i;
+                        action.accept(parser.finish(channel, lineStart, lineEnd));
+                        count++;
+                        lineStart = lineEnd + 1;
+                    } else {
+                        afterCarriageReturn = false;
+                        parser.accept(b);
+                    }
+                }
+            }
+
+            // A last line without a line break still counts
+            if (lineStart < fileSize) {
+                action.accept(parser.finish(channel, lineStart, fileSize));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Collects values into an array, growing it as ArrayList would.
+     */
+    private static final class ArrayFiller implements IntConsumer {
+        private int[] values;
+        private int count;
+
+        ArrayFiller(int capacity) {
+            values = new int[capacity];
+        }
+
+        @Override
+        public void accept(int value) {
+            if (count == values.length) {
+                if (values.length == MAX_CARDS) {
+                    throw new IllegalArgumentException("Card pack has too many cards.");
+                }
+                values = Arrays.copyOf(values, (int) Math.min((long) values.length * 2, MAX_CARDS));
+            }
+            values[count++] = value;
+        }
+
+        int[] toArray() {
+            return count == values.length ? values : Arrays.copyOf(values, count);
+        }
+    }
+
+    /**
+     * Parses one line a byte at a time with the same rules as Integer.parseInt(line.trim()).
+     */
+    private static final class LineParser {
+        private static final int LEADING = 0;
+        private static final int SIGN = 1;
+        private static final int DIGITS = 2;
+        private static final int TRAILING = 3;
+
+        private int state = LEADING;
+        private boolean negative;
+        private boolean invalid;
+        private long magnitude;
+
+        void accept(byte b) {
+            if (invalid) {
+                return;
+            }
+            boolean blank = (b & 0xFF) <= ' ';  // What String.trim strips
+            switch (state) {
+                case LEADING -> {
+                    if (blank) {
+                        return;
+                    }
+                    if (b == '-' || b == '+') {
+                        negative = b == '-';
+                        state = SIGN;
+                    } else {
+                        digit(b);
+                    }
+                }
+                case SIGN -> digit(b);
+                case DIGITS -> {
+                    if (blank) {
+                        state = TRAILING;
+                    } else {
+                        digit(b);
+                    }
+                }
+                default -> invalid = !blank;
+            }
+        }
+
+        private void digit(byte b) {
+            if (b < '0' || b > '9') {
+                invalid = true;
+                return;
+            }
+            state = DIGITS;
+            magnitude = magnitude * 10 + (b - '0');
+            if (magnitude > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                invalid = true;  // Out of int range, stop before the long overflows too
+            }
+        }
+
+        /**
+         * Ends the current line and resets for the next one.
+         * The line's text is only read back from the file when it has to go in an error message.
+         */
+        int finish(FileChannel channel, long lineStart, long lineEnd) throws IOException {
+            boolean valid = !invalid && (state == DIGITS || state == TRAILING);
+            long value = negative ? -magnitude : magnitude;
+            state = LEADING;
+            negative = false;
+            invalid = false;
+            magnitude = 0;
+            if (!valid) {
+                throw new IllegalArgumentException("Invalid card value in pack: " + readLine(channel, lineStart, lineEnd));
+            }
+            return (int) value;
+        }
+
+        private static String readLine(FileChannel channel, long lineStart, long lineEnd) throws IOException {
+            ByteBuffer line = ByteBuffer.allocate((int) Math.min(lineEnd - lineStart, 1 << 16));
+            while (line.hasRemaining() && channel.read(line, lineStart + line.position()) > 0) {
+                // Keep reading until the line is in the buffer
+            }
+            return new String(line.array(), 0, line.position(), StandardCharsets.UTF_8);
+        }
+    }
+}
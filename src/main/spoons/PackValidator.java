@@ -0,0 +1,282 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Checks a text or binary card pack without loading it, so packs of any size can be checked in bounded memory.
+ * A pack is valid if it holds exactly 8 non-negative cards per player, all no larger than an optional maximum.
+ * The report also says whether any hand is already a win when dealt, and whether a win is possible at all,
+ * which needs some value to appear at least four times.
+ * Usage: java spoons.PackValidator &lt;pack&gt; [max value]
+ */
+public final class PackValidator {
+
+    private PackValidator() {
+    }
+
+    /**
+     * What was found in a pack.
+     *
+     * @param cards     Number of cards read.
+     * @param minValue  Smallest value, 0 for an empty pack.
+     * @param maxValue  Largest value, 0 for an empty pack.
+     * @param dealtWins Number of players whose dealt hand is already four of a kind.
+     * @param winnable  true if some value appears at least four times.
+     * @param errors    Reasons the pack is invalid, empty if it is valid.
+     */
+    public record Report(long cards, int minValue, int maxValue, long dealtWins, boolean winnable, List<String> errors) {
+
+        /**
+         * Returns whether the pack can be played.
+         * @return true if there are no errors.
+         */
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        /**
+         * Returns the number of players the pack is for.
+         * @return Cards divided by 8.
+         */
+        public long players() {
+            return cards / 8;
+        }
+    }
+
+    /**
+     * Checks a pack from the command line, printing the report.
+     * Exits with status 0 if the pack is valid and 1 if it is not.
+     *
+     * @param args The pack file, then optionally the largest value allowed.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java spoons.PackValidator <pack> [max value]");
+            System.exit(2);
+        }
+        Report report;
+        try {
+            int maxValue = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+            report = validate(Paths.get(args[0]), maxValue);
+        } catch (Exception e) {
+            System.err.println("Error validating pack: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println(args[0] + ": " + report.cards() + " cards for " + report.players() + " players, values "
+                + report.minValue() + " to " + report.maxValue() + ".");
+        if (report.dealtWins() > 0) {
+            System.out.println("Warning: " + report.dealtWins() + " dealt hands are already a win.");
+        }
+        if (!report.winnable()) {
+            System.out.println("Warning: no value appears four times, nobody can win.");
+        }
+        report.errors().forEach(System.out::println);
+        System.exit(report.isValid() ? 0 : 1);
+    }
+
+    /**
+     * Checks a pack with no limit on card values.
+     *
+     * @param path Text or binary pack.
+     * @return What was found.
+     * @throws IOException If the file can't be read.
+     */
+    public static Report validate(Path path) throws IOException {
+        return validate(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks a pack, streaming through it once.
+     * A binary pack's header and checksum are checked as it is read, and a malformed pack is reported as an error.
+     *
+     * @param path     Text or binary pack.
+     * @param maxValue Largest card value allowed.
+     * @return What was found.
+     * @throws IOException If the file can't be read.
+     */
+    public static Report validate(Path path, int maxValue) throws IOException {
+        Checker checker = new Checker(maxValue);
+        List<String> errors = new ArrayList<>();
+        long cards;
+        try {
+            cards = BinaryPack.isBinaryPack(path) ? BinaryPack.forEach(path, checker) : PackLoader.forEach(path, checker);
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+            cards = checker.cards;
+        }
+
+        if (errors.isEmpty() && (cards == 0 || cards % 8 != 0)) {
+            errors.add("Invalid card pack: incorrect number of cards, " + cards + " is not 8 per player.");
+        }
+        if (checker.negatives > 0) {
+            errors.add("Invalid card pack: " + checker.negatives + " negative values, the first at card "
+                    + (checker.firstNegative + 1) + ".");
+        }
+        if (checker.tooLarge > 0) {
+            errors.add("Invalid card pack: " + checker.tooLarge + " values larger than " + maxValue
+                    + ", the first at card " + (checker.firstTooLarge + 1) + ".");
+        }
+        // Only the first n groups of four are hands, the rest are dealt to decks
+        long players = cards / 8;
+        long dealtWins = checker.winningGroups.get(0, (int) Math.min(players, Integer.MAX_VALUE)).cardinality();
+        return new Report(cards, checker.cards == 0 ? 0 : checker.min, checker.cards == 0 ? 0 : checker.max,
+                dealtWins, checker.winnable, List.copyOf(errors));
+    }
+
+    /**
+     * Looks at each value once, as it is parsed.
+     * Copies of each value are counted up to three in an open addressing table of the distinct values seen,
+     * so a few huge values cost no more than small ones. Once the table would take more memory than a bitmap of
+     * 2-bit counts up to the largest value, the counts move to the bitmap, which never takes more than 512MiB.
+     * Counting stops once any value reaches four.
+     */
+    private static final class Checker implements IntConsumer {
+        private final int maxValue;
+        private long cards;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+        private long negatives;
+        private long firstNegative;
+        private long tooLarge;
+        private long firstTooLarge;
+        // Groups of four cards that are all the same, by group index
+        private final BitSet winningGroups = new BitSet();
+        private final int[] group = new int[4];
+        private boolean winnable;
+        // Copies of each non-negative value seen so far, keyed by value with EMPTY in unused slots
+        private static final int EMPTY = -1;
+        private int[] values = newTable(1024);
+        private byte[] copies = new byte[1024];
+        private int distinct;
+        // Two bits of copies per value once the table is too large, null until then
+        private long[] bitmap;
+        private static final int MAX_BITMAP_WORDS = 1 << 26;  // Enough for every int value
+
+        Checker(int maxValue) {
+            this.maxValue = maxValue;
+        }
+
+        @Override
+        public void accept(int value) {
+            int position = (int) (cards & 3);
+            group[position] = value;
+            // No valid pack has groups past Integer.MAX_VALUE, so those are never hands
+            if (position == 3 && cards >>> 2 < Integer.MAX_VALUE
+                    && group[0] == group[1] && group[0] == group[2] && group[0] == group[3]) {
+                winningGroups.set((int) (cards >>> 2));
+            }
+
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (value < 0) {
+                if (negatives++ == 0) {
+                    firstNegative = cards;
+                }
+            } else {
+                if (value > maxValue && tooLarge++ == 0) {
+                    firstTooLarge = cards;
+                }
+                if (!winnable) {
+                    count(value);
+                }
+            }
+            cards++;
+        }
+
+        private void count(int value) {
+            if (bitmap != null) {
+                countInBitmap(value);
+                return;
+            }
+            int slot = find(values, value);
+            if (copies[slot] == 3) {
+                winnable = true;
+                values = null;  // Not needed any more
+                copies = null;
+                return;
+            }
+            copies[slot]++;
+            if (values[slot] == EMPTY) {
+                values[slot] = value;
+                if (++distinct > values.length >>> 1) {
+                    // A doubled table takes 5 bytes a slot, the bitmap a quarter of a byte per value up to the largest
+                    if ((long) values.length * 2 * (Integer.BYTES + 1) < bitmapWords(max) * Long.BYTES) {
+                        grow();
+                    } else {
+                        moveToBitmap();
+                    }
+                }
+            }
+        }
+
+        private void countInBitmap(int value) {
+            int word = value >>> 5;
+            if (word >= bitmap.length) {
+                bitmap = Arrays.copyOf(bitmap, Math.max(word + 1, (int) Math.min(bitmap.length * 2L, MAX_BITMAP_WORDS)));
+            }
+            int shift = (value & 31) << 1;
+            if ((bitmap[word] >>> shift & 3) == 3) {
+                winnable = true;
+                bitmap = null;  // Not needed any more
+            } else {
+                bitmap[word] += 1L << shift;
+            }
+        }
+
+        private static long bitmapWords(int largest) {
+            return (largest >>> 5) + 1;
+        }
+
+        // The slot holding the value, or the empty slot it belongs in
+        private static int find(int[] table, int value) {
+            int mask = table.length - 1;
+            int hash = value * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] != EMPTY && table[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Doubles the table, keeping it at most half full
+        private void grow() {
+            int[] oldValues = values;
+            byte[] oldCopies = copies;
+            values = newTable(oldValues.length * 2);
+            copies = new byte[values.length];
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != EMPTY) {
+                    int slot = find(values, oldValues[i]);
+                    values[slot] = oldValues[i];
+                    copies[slot] = oldCopies[i];
+                }
+            }
+        }
+
+        // Replaces the table with a bitmap as large as the largest value so far needs, it grows from there
+        private void moveToBitmap() {
+            bitmap = new long[(int) bitmapWords(max)];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != EMPTY) {
+                    bitmap[values[i] >>> 5] += (long) copies[i] << ((values[i] & 31) << 1);
+                }
+            }
+            values = null;
+            copies = null;
+        }
+
+        private static int[] newTable(int size) {
+            int[] table = new int[size];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+    }
+}
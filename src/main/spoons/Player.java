@@ -1,9 +1,15 @@
+package spoons;
+
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Represents a player in the card game.
@@ -12,19 +18,44 @@ import java.util.List;
 public class Player {
     // Player's unique identifier
     private final int playerId;
-    // List representing the player's hand of cards
-    private final List<Card> hand;
+    // The player's hand of card values, with per-value counts for the win check
+    private final Hand hand;
     // Player's preferred card denomination (for discarding purposes)
     private int preferredDenomination;
+    // Picks the card to discard each turn
+    private DiscardStrategy discardStrategy;
     // References to the left and right decks the player interacts with
     private final Deck leftDeck;
     private final Deck rightDeck;
     // Log file for recording player's actions
     private final File playerFile;
+    // Long-lived channel that appends to the log file in the background
+    private final LogWriter.Channel logChannel;
     // Flag indicating if the player is still in a game
     private volatile boolean gameInProgress;
     // Reference to the game this player is a part of
     private final CardGame game;
+    // Thread running this player's turns, woken when the game ends
+    private volatile Thread turnThread;
+    // Guards the hand during a turn, a lock rather than a monitor so virtual threads don't pin their carrier
+    private final ReentrantLock turnLock = new ReentrantLock();
+    // Time for each whole turn and for each draw including any wait for a card, only recorded by this player
+    private final LatencyHistogram turnLatency = new LatencyHistogram();
+    private final LatencyHistogram drawLatency = new LatencyHistogram();
+    // Turns taken, counted whether or not they are timed. Only this player writes it, opaquely so others can read it
+    private final AtomicLong turnsTaken = new AtomicLong();
+    // Called by wake, the cooperative scheduler uses it to requeue this player
+    private volatile Runnable wakeListener;
+    // Tells a player spinning on an empty deck to stop, since it can't be unparked
+    private final BooleanSupplier stopWaiting;
+    // Game settings copied when turns start, only used by the thread taking this player's turns
+    private boolean turnSettingsLoaded;
+    private long turnDelayNanos;
+    private GameEventPublisher events;
+    private boolean timing;
+    private WaitPolicy waitPolicy;
+    private GameMetrics metrics;
+    private GameJournal journal;  // null unless the game is journalled
 
     /**
      * Constructor to initialise a player with basic attributes and a log file.
@@ -37,13 +68,16 @@ public class Player {
      */
     public Player(int playerId, int preferredDenomination, Deck leftDeck, Deck rightDeck, CardGame game) {
         this.playerId = playerId;
-        this.hand = new ArrayList<>();
+        this.hand = new Hand();
         this.preferredDenomination = preferredDenomination;
+        this.discardStrategy = new PreferredDiscard();
         this.leftDeck = leftDeck;
         this.rightDeck = rightDeck;
         this.game = game;
-        this.playerFile = new File("player" + playerId + "_output.txt");
+        this.playerFile = game.getLogDirectory().resolve("player" + playerId + "_output.txt").toFile();
+        this.logChannel = game.getLogWriter().channel(playerFile.toPath());
         this.gameInProgress = true;
+        this.stopWaiting = () -> !gameInProgress || game.isGameOver();
 
         initialiseLogFile();  // Initialise the log file for the player
     }
@@ -52,6 +86,10 @@ public class Player {
      * Initialises the player's log file with initial hand information.
      */
     public void initialiseLogFile() {
+        if (!game.isLoggingEnabled()) {
+            return;
+        }
+        flushLog();  // Anything still queued belongs before the truncation
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(playerFile))) {
             writer.write("Player " + playerId + " initial hand: " + handToString() + "\n");
         } catch (IOException e) {
@@ -61,72 +99,215 @@ public class Player {
 
     /**
      * Represents the player's turn during the game.
-     * The player draws a card, discards one, and records actions in the log.
+     * The player draws a card, discards one, and publishes each as a GameEvent for the log and any observers.
+     * Turns run back to back, the player only waits while its left deck is empty or
+     * for the game's turn delay, and is woken straight away when the game ends.
+     * Once the game is over, the player publishes its own exit, which the log subscriber writes to its file.
      */
     public void playTurn() {
-        while (gameInProgress) {
-            synchronized (this) {  // Ensure thread safety during game interaction
-                if (isWinningCondition()) {
-                    writeToFile("Player " + playerId + " wins with hand: " + handToString() + "\n");
-                    game.signalWinner(playerId);  // Notify game that this player has won
-                    notifyOtherPlayers(playerId);  // Notify other players of the winner
-                    gameInProgress = false;  // End the game for this player
-                    return;
-                }
+        turnThread = Thread.currentThread();
+        loadTurnSettings();
 
-                try {
-                    // Draw a card from the left deck
-                    Card drawnCard = leftDeck.drawCard();
-                    hand.add(drawnCard);
-                    writeToFile("Player " + playerId + " draws a " + drawnCard.value() + " from deck " + leftDeck.getDeckId() + "\n");
-
-                    // Discard a card to the right deck
-                    Card discardedCard = discardCard();
-                    rightDeck.addCard(discardedCard);
-                    writeToFile("Player " + playerId + " discards a " + discardedCard.value() + " to deck " + rightDeck.getDeckId() + "\n");
-                    writeToFile("Player " + playerId + " current hand is " + handToString() + "\n");
-                } catch (Exception e) {
-                    System.err.println("Error during player " + playerId + "'s turn: " + e.getMessage());
+        while (gameInProgress && !game.isGameOver()) {
+            if (claimWin()) {
+                break;
+            }
+
+            long turnStart = timing ? System.nanoTime() : 0;
+            GameEvents.Turn turnEvent = new GameEvents.Turn();
+            turnEvent.begin();
+
+            // Wait as the game's policy says until the left deck has a card, and park until the right deck has room
+            // for our discard, the game ending stops either wait. With one player both decks are the same and drawing
+            // always makes room. The unpark that ends the game can be used up by the wait for a card when a card
+            // arrives at the same time, so the wait for space checks the game itself rather than relying on it.
+            if (!leftDeck.awaitCard(waitPolicy, stopWaiting) || !gameInProgress
+                    || (rightDeck != leftDeck && !rightDeck.awaitSpace(stopWaiting))) {
+                if (Thread.currentThread().isInterrupted()) {
+                    gameInProgress = false;  // Interrupted from outside the game, stop playing
                 }
+                continue;
+            }
+
+            if (!takeTurn(turnStart, turnEvent)) {
+                break;  // Another player won while we were waiting
+            }
+            pauseAfterTurn();
+        }
+
+        finishGame();
+    }
+
+    /**
+     * Takes up to a slice of turns without ever blocking, for the cooperative scheduler.
+     * Stops early when the player can't draw or can't discard, the deck in the way
+     * calls the scheduler back once the neighbour has played.
+     *
+     * @param maxTurns Turns to take before giving the thread back.
+     * @return Whether the player finished, is waiting on a deck or used up its slice.
+     */
+    Slice playTurns(int maxTurns) {
+        if (!turnSettingsLoaded) {
+            loadTurnSettings();
+        }
+        for (int turns = 0; turns < maxTurns; turns++) {
+            if (!gameInProgress || game.isGameOver() || claimWin()) {
+                finishGame();
+                return Slice.FINISHED;
+            }
+            if (leftDeck.isEmpty() || (rightDeck != leftDeck && rightDeck.isFull())) {
+                return Slice.WAITING;
+            }
+
+            long turnStart = timing ? System.nanoTime() : 0;
+            GameEvents.Turn turnEvent = new GameEvents.Turn();
+            turnEvent.begin();
+            if (!takeTurn(turnStart, turnEvent)) {
+                finishGame();
+                return Slice.FINISHED;
+            }
+            pauseAfterTurn();
+        }
+        return Slice.YIELDED;
+    }
+
+    /**
+     * How a slice of cooperative turns ended.
+     */
+    enum Slice {
+        /** The game is over for this player. */
+        FINISHED,
+        /** The left deck is empty or the right deck is full. */
+        WAITING,
+        /** The player could keep going but has had its share of turns. */
+        YIELDED
+    }
+
+    // Game settings are read once, by whichever thread starts taking this player's turns
+    private void loadTurnSettings() {
+        turnDelayNanos = TimeUnit.MILLISECONDS.toNanos(game.getTurnDelay());
+        events = game.getEvents();
+        timing = game.isMetricsEnabled();
+        waitPolicy = game.getWaitPolicy();
+        metrics = game.getMetrics();
+        journal = game.getJournal();
+        turnSettingsLoaded = true;
+    }
+
+    // Checks the hand and, if it wins, tries to be elected. Returns true if this player is the winner.
+    private boolean claimWin() {
+        boolean won;
+        turnLock.lock();  // Ensure thread safety during game interaction
+        try {
+            won = isWinningCondition();
+        } finally {
+            turnLock.unlock();
+        }
+
+        // Election is a single CAS, if two players win at once the loser sees the game is over and exits
+        if (won && game.signalWinner(playerId)) {
+            if (events.hasSubscribers()) {
+                events.publish(GameEvent.win(playerId, hand.toArray()));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Draws and discards once the decks are ready. Returns false if the game ended first.
+    private boolean takeTurn(long turnStart, GameEvents.Turn turnEvent) {
+        turnLock.lock();
+        try {
+            if (!gameInProgress || game.isGameOver()) {
+                return false;
             }
 
-            // This is necessary for checking if another player has won or not idk why
             try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();  // Handle interruption
+                // Draw a card from the left deck
+                int drawnCard = leftDeck.drawValue();  // We are the only one drawing, so the card is still there
+                hand.add(drawnCard);
+                if (journal != null) {
+                    journal.recordDraw(playerId, leftDeck.getDeckId(), drawnCard);
+                }
+                long drawn = timing ? System.nanoTime() : 0;
+                // Observers and the log files hear about it through the events, publishing never waits for any of them
+                boolean publishing = events.hasSubscribers();
+                if (publishing) {
+                    events.publish(GameEvent.draw(playerId, leftDeck.getDeckId(), drawnCard));
+                }
+
+                // Discard a card to the right deck
+                int discardedCard = discardValue(journal);
+                rightDeck.addValue(discardedCard);
+                if (publishing) {
+                    events.publish(GameEvent.discard(playerId, rightDeck.getDeckId(), discardedCard, hand.toArray()));
+                }
+
+                metrics.recordTurn();
+                turnsTaken.setOpaque(turnsTaken.getPlain() + 1);
+                if (timing) {
+                    drawLatency.record(drawn - turnStart);
+                    turnLatency.record(System.nanoTime() - turnStart);
+                }
+                turnEvent.end();
+                if (turnEvent.shouldCommit()) {
+                    turnEvent.playerId = playerId;
+                    turnEvent.drawnCard = drawnCard;
+                    turnEvent.discardedCard = discardedCard;
+                    turnEvent.leftDeckId = leftDeck.getDeckId();
+                    turnEvent.rightDeckId = rightDeck.getDeckId();
+                    turnEvent.commit();
+                }
+            } catch (Exception e) {
+                System.err.println("Error during player " + playerId + "'s turn: " + e.getMessage());
             }
+            return true;
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    // Optional pacing so a game can be followed by eye, endGame cuts it short
+    private void pauseAfterTurn() {
+        if (turnDelayNanos > 0) {
+            LockSupport.parkNanos(this, turnDelayNanos);
+        }
+    }
+
+    private void finishGame() {
+        gameInProgress = false;
+        // Only the thread taking our turns touches the hand, so no lock is needed
+        if (events.hasSubscribers()) {
+            events.publish(GameEvent.exit(playerId, hand.toArray()));
         }
     }
 
     /**
      * Checks if the player has met the winning condition (4 of a kind).
+     * The hand keeps its value counts up to date, so this works for any card value without scanning the hand.
      *
      * @return true if the player wins, false otherwise
      */
     public boolean isWinningCondition() {
-        int[] cardCounts = new int[100];  // Array to count the occurrences of each card value
-        for (Card card : hand) {
-            cardCounts[card.value()]++;
-            if (cardCounts[card.value()] == 4) {  // If there are 4 of the same card value, the player wins
-                return true;
-            }
-        }
-        return false;
+        return hand.hasFourOfAKind();
     }
 
     /**
-     * Notifies all other players that a specific player has won.
+     * Folds the hand's values, oldest first, into one number, for the watchdog to tell whether the game is going anywhere.
+     * Takes the turn lock so it never sees a hand halfway through a turn.
      *
-     * @param winnerId The ID of the player who won
-     */
-    public void notifyOtherPlayers(int winnerId) {
-        List<Player> allPlayers = game.getPlayers();  // Get list of all players in the game
-        for (Player player : allPlayers) {
-            if (player.getPlayerId() != winnerId) {
-                player.logWinnerNotification(winnerId);  // Inform each player of the winner
-                player.endGame();  // End the game for each player
+     * @return A hash of the hand.
+     */
+    long handFingerprint() {
+        turnLock.lock();
+        try {
+            long fingerprint = 1;
+            for (int slot = hand.firstSlot(); slot != Hand.NONE; slot = hand.nextSlot(slot)) {
+                fingerprint = fingerprint * 31 + hand.valueAt(slot);
             }
+            return fingerprint;
+        } finally {
+            turnLock.unlock();
         }
     }
 
@@ -136,6 +317,9 @@ public class Player {
      * @param winnerId The ID of the winning player
      */
     public void logWinnerNotification(int winnerId) {
+        if (!game.isLoggingEnabled()) {
+            return;
+        }
         String message = "Player " + winnerId + " has informed player " + playerId + " that player " + winnerId + " has won.\n" +
                 "Player " + playerId + " exits.\n" +
                 "Player " + playerId + " hand: " + handToString() + "\n";
@@ -144,15 +328,19 @@ public class Player {
 
     /**
      * Writes a message to the player's log file.
+     * The message is queued and appended by the game's log writer, call flushLog to wait for it.
      *
      * @param message The message to be written to the log
      */
     public void writeToFile(String message) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(playerFile, true))) {
-            writer.write(message);  // Append message to the log file
-        } catch (IOException e) {
-            System.err.println("Error writing to log file for player " + playerId);
-        }
+        logChannel.append(message);  // Append message to the log file
+    }
+
+    /**
+     * Blocks until every message this player has logged is written to its log file.
+     */
+    public void flushLog() {
+        game.getLogWriter().flush();
     }
 
     /**
@@ -161,21 +349,44 @@ public class Player {
      * @param card The card to be added to the hand
      */
     public void receiveCard(Card card) {
-        hand.add(card);
+        hand.add(card.value());
+    }
+
+    /**
+     * Adds a card to the player's hand by its value, as done when dealing from an array of values.
+     *
+     * @param value The value of the card to be added to the hand
+     */
+    public void receiveValue(int value) {
+        hand.add(value);
     }
 
     /**
-     * Discards a card from the player's hand, preferring a specific denomination.
+     * Discards a card from the player's hand, chosen by the player's discard strategy.
      *
      * @return The card that was discarded
      */
     public Card discardCard() {
-        for (int i = 0; i < hand.size(); i++) {
-            if (hand.get(i).value() != preferredDenomination) {
-                return hand.remove(i);  // Discard the first card not matching the preferred denomination
-            }
+        return new Card(discardValue());
+    }
+
+    /**
+     * Discards a card from the player's hand without creating a Card, as done on every turn.
+     *
+     * @return The value of the card that was discarded
+     */
+    private int discardValue() {
+        return hand.removeSlot(discardStrategy.chooseDiscard(hand, preferredDenomination));
+    }
+
+    // Journals the discard before the card reaches the deck, so a draw of it always comes later
+    private int discardValue(GameJournal journal) {
+        if (journal == null) {
+            return discardValue();
         }
-        return hand.removeFirst();  // If all cards match the preferred denomination, discard the first one
+        int slot = discardStrategy.chooseDiscard(hand, preferredDenomination);
+        journal.recordDiscard(playerId, rightDeck.getDeckId(), hand.valueAt(slot), hand.indexOfSlot(slot));
+        return hand.removeSlot(slot);
     }
 
     /**
@@ -184,30 +395,69 @@ public class Player {
      * @return A string of card values in the player's hand
      */
     private String handToString() {
-        StringBuilder sb = new StringBuilder();
-        for (Card card : hand) {
-            sb.append(card.value()).append(" ");  // Append each card value to the string builder
-        }
-        return sb.toString().trim();  // Return the string representation of the hand
+        return hand.toString();
     }
 
     /**
-     * Ends the game for this player.
+     * Ends the game for this player, waking its thread if it is waiting on a deck.
+     * Takes no locks, a player in the middle of a turn finishes it and then stops.
      */
     public void endGame() {
-        synchronized (this) {  // Ensure thread safety when ending the game
-            this.gameInProgress = false;
+        this.gameInProgress = false;
+        wake();
+    }
+
+    /**
+     * Unparks the player's thread so it checks whether the game is over.
+     */
+    public void wake() {
+        Thread thread = turnThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        Runnable listener = wakeListener;
+        if (listener != null) {
+            listener.run();
         }
     }
 
+    /**
+     * Sets what wake calls for a player with no thread of its own, null for nothing.
+     * @param wakeListener Reschedules the player.
+     */
+    void setWakeListener(Runnable wakeListener) {
+        this.wakeListener = wakeListener;
+    }
+
     // Getters and setters for player attributes
 
     public int getPlayerId() {
         return playerId;
     }
 
+    // Returns a copy, the hand itself is only changed by the player
     public List<Card> getHand() {
-        return hand;
+        return hand.toCards();
+    }
+
+    // Copies the hand's values, only exact while the player isn't taking a turn
+    public int[] getHandValues() {
+        return hand.toArray();
+    }
+
+    /**
+     * Takes the turn lock, so the player can't start a turn until unlockTurns is called.
+     * Waits for a turn in progress to finish, which never takes long as nothing waits while holding the lock.
+     */
+    void lockTurns() {
+        turnLock.lock();
+    }
+
+    /**
+     * Releases the turn lock taken by lockTurns.
+     */
+    void unlockTurns() {
+        turnLock.unlock();
     }
 
     public int getPreferredDenomination() {
@@ -218,6 +468,32 @@ public class Player {
         this.preferredDenomination = newPreferredDenomination;
     }
 
+    public DiscardStrategy getDiscardStrategy() {
+        return discardStrategy;
+    }
+
+    // Must be set before the game starts, the strategy is only read by the player's own thread
+    public void setDiscardStrategy(DiscardStrategy discardStrategy) {
+        if (discardStrategy == null) {
+            throw new IllegalArgumentException("Discard strategy cannot be null.");
+        }
+        this.discardStrategy = discardStrategy;
+    }
+
+    // Counted for every turn, unlike the latency histograms which only count timed turns
+    public long getTurnsTaken() {
+        return turnsTaken.getOpaque();
+    }
+
+    // Histograms are only written by the player's thread, read them through snapshot()
+    public LatencyHistogram getTurnLatency() {
+        return turnLatency;
+    }
+
+    public LatencyHistogram getDrawLatency() {
+        return drawLatency;
+    }
+
     public Deck getLeftDeck() {
         return leftDeck;
     }
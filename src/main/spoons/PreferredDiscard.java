@@ -0,0 +1,21 @@
+package spoons;
+
+/**
+ * The game's standard rule: discard the oldest card that isn't the preferred denomination,
+ * or the oldest card if they all are.
+ */
+public class PreferredDiscard implements DiscardStrategy {
+
+    @Override
+    public int chooseDiscard(Hand hand, int preferredDenomination) {
+        int slot = hand.firstSlot();
+        if (hand.count(preferredDenomination) == 0) {
+            return slot;  // Nothing to keep, the oldest card goes
+        }
+        // Skips at most the preferred cards, never more than 3 in a game that hasn't been won
+        while (slot != Hand.NONE && hand.valueAt(slot) == preferredDenomination) {
+            slot = hand.nextSlot(slot);
+        }
+        return slot == Hand.NONE ? hand.firstSlot() : slot;
+    }
+}
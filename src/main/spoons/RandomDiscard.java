@@ -0,0 +1,36 @@
+package spoons;
+
+import java.util.SplittableRandom;
+
+/**
+ * Discards a random card that isn't the preferred denomination, or a random card if they all are.
+ * Seeded, so a game played again with the same seeds makes the same choices.
+ */
+public class RandomDiscard implements DiscardStrategy {
+    private final SplittableRandom random;
+
+    /**
+     * Constructor to create a strategy with a fixed seed.
+     * @param seed Seed for the random choices.
+     */
+    public RandomDiscard(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseDiscard(Hand hand, int preferredDenomination) {
+        int candidates = hand.size() - hand.count(preferredDenomination);
+        boolean anyCard = candidates == 0;
+        int skip = random.nextInt(anyCard ? hand.size() : candidates);
+
+        int slot = hand.firstSlot();
+        while (true) {
+            if (anyCard || hand.valueAt(slot) != preferredDenomination) {
+                if (skip-- == 0) {
+                    return slot;
+                }
+            }
+            slot = hand.nextSlot(slot);
+        }
+    }
+}
@@ -0,0 +1,773 @@
+package spoons;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One segment of a ring of players spread over several processes on the same machine,
+ * so a ring can use more cores than one JVM has.
+ * <p>
+ * The ring is split into segments of consecutive players, each played by an ordinary CardGame that only creates
+ * its own players and decks. The last player of a segment discards into an outbox, which a non-blocking loopback
+ * connection empties in batches into the next segment's first deck. The next segment grants credit for the room
+ * in that deck, so players on both sides wait on decks just as they do in one process.
+ * <p>
+ * Segment 0 is the coordinator. The other segments find their neighbours through it, and every win or draw is a
+ * claim it settles, so exactly one player wins however many segments see four of a kind at once. Once the players
+ * have stopped each segment sends the rest of its outbox on, so every card ends up in a hand or a deck.
+ * Limits set on a segment's game count that segment's turns, and a segment reaching one ends the whole ring.
+ * The segment's game has its own players' hands and decks in its result, and can't be checkpointed.
+ */
+public class RingSegment implements AutoCloseable {
+    /** First four bytes a segment sends on each connection. */
+    public static final int MAGIC = 0x8953524E;
+    /** How long a segment waits for the others to connect, in milliseconds. */
+    public static final int CONNECT_TIMEOUT = 60_000;
+
+    // Messages, a type byte and its ints
+    private static final byte CARDS = 1;    // Count and cards, to the next segment
+    private static final byte END = 2;      // The last cards have been sent
+    private static final byte CREDIT = 3;   // Cards there is room for, to the previous segment
+    private static final byte CLAIM = 4;    // Winner or DRAWN and outcome, to the coordinator
+    private static final byte VERDICT = 5;  // Winner or DRAWN and outcome, from the coordinator
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Most cards in one message, so a whole message always fits in the buffer
+    private static final int MAX_BATCH = (BUFFER_SIZE - 5) / Integer.BYTES;
+    // Cards the first deck holds in play. It has room for twice as many, so the rest of the outbox always fits
+    private static final int IN_PLAY = Deck.DEFAULT_CAPACITY;
+    // Credit is granted a few cards at a time, not after every draw
+    private static final int CREDIT_BATCH = IN_PLAY / 4;
+
+    // A win or a draw, as claimed by a segment and settled by the coordinator
+    private record Claim(int winnerId, GameOutcome outcome) {
+    }
+
+    // A connection, with what has been read but not handled and what is waiting to be written
+    private static final class Link {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        SelectionKey key;
+        boolean closed;
+
+        Link(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void close() {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing ring connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private final CardGame game;
+    private final int segments;
+    private final int index;
+    private final int firstPlayer;
+    private final int lastPlayer;
+    private final InetSocketAddress coordinator;
+    // Where the coordinator hears from the other segments, null elsewhere and once they have all connected
+    private ServerSocketChannel coordinatorChannel;
+    // The first deck, filled from the previous segment
+    private final Deck inbound;
+    // The last player's discards, on their way to the next segment
+    private final Deck outbox;
+    private final Selector selector;
+    // Set from when the IO thread is woken until it next looks at the decks, so it is woken once per look
+    private final AtomicBoolean woken = new AtomicBoolean();
+    // Claims made by this segment's players and watchdog, for the IO thread to pass on
+    private final ConcurrentLinkedQueue<Claim> claims = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch settled = new CountDownLatch(1);
+    private volatile Claim verdict;
+    // Set once the players have stopped
+    private volatile boolean finishing;
+    private final List<Process> processes = new ArrayList<>();
+    private Thread ioThread;
+
+    // Connections and flow control, used only by the IO thread once it has started
+    private Link next;
+    private Link previous;
+    private Link control;
+    private final List<Link> members = new ArrayList<>();
+    private long credit;
+    private int outstanding;
+    private boolean endSent;
+
+    /**
+     * Makes a new game one segment of a ring. The coordinator, segment 0, starts listening for the
+     * other segments straight away, on the port given or on any free port if it is 0.
+     *
+     * @param game        A new game for the whole ring's players and pack, not yet initialised.
+     * @param segments    Number of segments, from 2 up to one per player.
+     * @param index       This segment, from 0.
+     * @param coordinator The coordinator's loopback address.
+     * @return The segment, attached to the game.
+     * @throws IOException If the coordinator can't listen on the address.
+     */
+    public static RingSegment open(CardGame game, int segments, int index, InetSocketAddress coordinator)
+            throws IOException {
+        RingSegment segment = new RingSegment(game, segments, index, coordinator);
+        try {
+            game.setRing(segment);  // Attached only once it is built, as the game calls back into it
+        } catch (RuntimeException e) {
+            segment.close();
+            throw e;
+        }
+        return segment;
+    }
+
+    private RingSegment(CardGame game, int segments, int index, InetSocketAddress coordinator) throws IOException {
+        int numPlayers = game.getNumPlayers();
+        if (segments < 2 || segments > numPlayers) {
+            throw new IllegalArgumentException("A ring of " + numPlayers + " players can't be split into "
+                    + segments + " segments.");
+        }
+        if (index < 0 || index >= segments) {
+            throw new IllegalArgumentException("Invalid segment: " + index + " of " + segments + ".");
+        }
+        this.game = game;
+        this.segments = segments;
+        this.index = index;
+        this.firstPlayer = firstPlayer(numPlayers, segments, index);
+        this.lastPlayer = firstPlayer(numPlayers, segments, index + 1) - 1;
+        this.inbound = new Deck(firstPlayer, 2 * IN_PLAY);
+        this.outbox = new Deck(lastPlayer % numPlayers + 1);
+        this.selector = Selector.open();
+        try {
+            if (index == 0) {
+                coordinatorChannel = ServerSocketChannel.open().bind(coordinator);
+                coordinator = (InetSocketAddress) coordinatorChannel.getLocalAddress();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.coordinator = coordinator;
+        // Players wake the IO thread when there are cards to send or room to grant credit for
+        outbox.setCardListener(this::wakeup);
+        inbound.setSpaceListener(this::wakeup);
+    }
+
+    // Segments are as even as they can be, the first ones smaller
+    private static int firstPlayer(int numPlayers, int segments, int index) {
+        return (int) ((long) index * numPlayers / segments) + 1;
+    }
+
+    /**
+     * Plays a segment of a ring, started by another process with launch.
+     * Takes the same system properties as CardGame, the first segment announces the result.
+     *
+     * @param args Pack file, number of players, number of segments, this segment and the coordinator's port.
+     */
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            System.err.println("Usage: java spoons.RingSegment <pack> <players> <segments> <segment> <coordinator port>");
+            System.exit(2);
+        }
+        try {
+            CardGame game = new CardGame(Integer.parseInt(args[1]), CardGame.loadPackValues(args[0]));
+            CardGame.applySystemProperties(game);
+            game.setAnnouncing(false);
+            InetSocketAddress coordinator = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(args[4]));
+            try (RingSegment segment = open(game, Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    coordinator)) {
+                game.initialiseGame();
+                segment.connect();
+                game.startGame();
+            }
+        } catch (Exception e) {
+            System.err.println("Error playing ring segment: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Makes a game the first segment of a ring and starts a process on this machine for each of the others,
+     * with the same modules, class path and spoons system properties as this one.
+     * Initialise the game, connect the segment and start the game as usual, then close the segment
+     * to wait for the other processes.
+     *
+     * @param game      A new game for the whole ring, not yet initialised.
+     * @param packFile  The game's pack, which the other processes load.
+     * @param segments  Number of segments, and so of processes.
+     * @param directory Working directory of the other processes, where their players and decks write their logs.
+     * @return The first segment.
+     * @throws IOException If the coordinator can't listen or a process can't be started.
+     */
+    public static RingSegment launch(CardGame game, Path packFile, int segments, Path directory) throws IOException {
+        RingSegment first = open(game, segments, 0,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try {
+            for (int i = 1; i < segments; i++) {
+                List<String> command = new ArrayList<>();
+                command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+                for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                    if (argument.startsWith("--add-modules") || argument.equals("--enable-preview")) {
+                        command.add(argument);
+                    }
+                }
+                for (String name : System.getProperties().stringPropertyNames()) {
+                    if (name.startsWith("spoons.")) {
+                        command.add("-D" + name + "=" + System.getProperty(name));
+                    }
+                }
+                command.addAll(List.of("-cp", System.getProperty("java.class.path"), RingSegment.class.getName(),
+                        packFile.toAbsolutePath().toString(), Integer.toString(game.getNumPlayers()),
+                        Integer.toString(segments), Integer.toString(i), Integer.toString(first.coordinator.getPort())));
+                first.processes.add(new ProcessBuilder(command).directory(directory.toAbsolutePath().toFile())
+                        .inheritIO().start());
+            }
+        } catch (IOException | RuntimeException e) {
+            first.processes.forEach(Process::destroyForcibly);
+            first.close();
+            throw e;
+        }
+        return first;
+    }
+
+    /**
+     * Connects to the neighbouring segments, through the coordinator, and starts passing cards.
+     * Call once the game has been initialised and before it starts. Blocks until every segment has connected.
+     *
+     * @throws IOException If a segment can't be reached or doesn't connect in time.
+     */
+    public void connect() throws IOException {
+        if (ioThread != null) {
+            throw new IllegalStateException("The segment is already connected.");
+        }
+        if (game.getPlayers().isEmpty()) {
+            throw new IllegalStateException("The game has not been initialised.");
+        }
+        try (ServerSocketChannel dataChannel = ServerSocketChannel.open()) {
+            dataChannel.bind(new InetSocketAddress(coordinator.getAddress(), 0));
+            dataChannel.socket().setSoTimeout(CONNECT_TIMEOUT);
+            int dataPort = dataChannel.socket().getLocalPort();
+            int nextPort;
+            if (index == 0) {
+                nextPort = meetSegments(dataPort);
+            } else {
+                control = new Link(open(coordinator, dataPort));
+                nextPort = readInts(control.channel, 1)[0];
+            }
+            // Connect onwards before accepting, so nobody waits for a segment that is waiting for them
+            next = new Link(open(new InetSocketAddress(coordinator.getAddress(), nextPort), 0));
+            Socket socket = dataChannel.socket().accept();
+            socket.setSoTimeout(CONNECT_TIMEOUT);
+            socket.setTcpNoDelay(true);
+            previous = new Link(socket.getChannel());
+            checkHello(previous.channel, (index + segments - 1) % segments);
+        } catch (IOException | RuntimeException e) {
+            closeLinks();
+            throw e;
+        }
+
+        for (Link link : links()) {
+            link.channel.configureBlocking(false);
+            link.key = link.channel.register(selector, SelectionKey.OP_READ, link);
+        }
+        ioThread = new Thread(this::run, "ring-segment-" + index);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    // The coordinator hears from every other segment, then tells each where the segment after it is listening
+    private int meetSegments(int dataPort) throws IOException {
+        Link[] joined = new Link[segments];
+        int[] ports = new int[segments];
+        ports[0] = dataPort;
+        coordinatorChannel.socket().setSoTimeout(CONNECT_TIMEOUT);
+        for (int i = 1; i < segments; i++) {
+            Link link = new Link(coordinatorChannel.socket().accept().getChannel());
+            members.add(link);
+            link.channel.socket().setSoTimeout(CONNECT_TIMEOUT);
+            link.channel.socket().setTcpNoDelay(true);
+            int[] hello = checkHello(link.channel, -1);
+            if (hello[3] == 0 || joined[hello[3]] != null) {
+                throw new IOException("Segment " + hello[3] + " connected twice.");
+            }
+            joined[hello[3]] = link;
+            ports[hello[3]] = hello[4];
+        }
+        coordinatorChannel.close();
+        coordinatorChannel = null;
+        for (int i = 1; i < segments; i++) {
+            writeInts(joined[i].channel, ports[(i + 1) % segments]);
+        }
+        return ports[1];
+    }
+
+    // Opens a blocking connection and introduces this segment on it
+    private SocketChannel open(InetSocketAddress address, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(address, CONNECT_TIMEOUT);
+            channel.socket().setSoTimeout(CONNECT_TIMEOUT);
+            channel.socket().setTcpNoDelay(true);
+            writeInts(channel, MAGIC, game.getNumPlayers(), segments, index, port);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    // Reads another segment's introduction and checks it plays the same ring, returns it
+    private int[] checkHello(SocketChannel channel, int expected) throws IOException {
+        int[] hello = readInts(channel, 5);
+        if (hello[0] != MAGIC || hello[1] != game.getNumPlayers() || hello[2] != segments) {
+            throw new IOException("A process that isn't a segment of this ring connected.");
+        }
+        if (hello[3] < 0 || hello[3] >= segments || (expected >= 0 && hello[3] != expected)) {
+            throw new IOException("Segment " + hello[3] + " connected out of turn.");
+        }
+        return hello;
+    }
+
+    private static void writeInts(SocketChannel channel, int... values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Reads through the socket, which unlike the channel gives up after its timeout
+    private static int[] readInts(SocketChannel channel, int count) throws IOException {
+        DataInputStream in = new DataInputStream(channel.socket().getInputStream());
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Claims a win or a draw for the whole ring and waits for the coordinator's verdict,
+     * which has ended the game in this segment by the time this returns.
+     *
+     * @param winnerId The winning player's ID, or CardGame.DRAWN.
+     * @param outcome  WON, or why the game is a draw.
+     * @return true if the verdict is this claim.
+     */
+    boolean claim(int winnerId, GameOutcome outcome) {
+        Claim claim = new Claim(winnerId, outcome);
+        if (verdict == null) {
+            if (ioThread == null) {
+                throw new IllegalStateException("The segment is not connected.");
+            }
+            claims.add(claim);
+            wakeup();
+            awaitVerdict();
+        }
+        return claim.equals(verdict);
+    }
+
+    /**
+     * Called by the game once its players have stopped. Sends the rest of the outbox on and waits for the cards
+     * the previous segment had left, so every card is in a hand or a deck. If the game stopped without a verdict
+     * the whole ring is ended as cancelled first.
+     */
+    void finish() {
+        if (ioThread == null) {
+            return;
+        }
+        if (verdict == null) {
+            claim(CardGame.DRAWN, GameOutcome.CANCELLED);
+        }
+        finishing = true;
+        wakeup();
+        boolean interrupted = false;
+        while (ioThread.isAlive()) {
+            try {
+                ioThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitVerdict() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                settled.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeup() {
+        if (!woken.get() && !woken.getAndSet(true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Main loop of the IO thread. Passes on claims, grants credit, sends cards and handles whatever arrives,
+     * until the players have stopped and every connection has been closed in an orderly way.
+     */
+    private void run() {
+        try {
+            while (!isDone()) {
+                woken.set(false);
+                passOnClaims();
+                grantCredit();
+                sendCards();
+                for (Link link : links()) {
+                    flush(link);
+                }
+                if (isDone()) {
+                    break;
+                }
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Link link = (Link) key.attachment();
+                    if (key.isValid() && key.isReadable()) {
+                        read(link);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(link);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error in ring segment " + index + ": " + e.getMessage());
+            settle(new Claim(CardGame.DRAWN, GameOutcome.DISCONNECTED));
+        } finally {
+            closeLinks();
+        }
+    }
+
+    // Every connection is closed once the side that sends last has seen the other close, so nothing sent is lost
+    private boolean isDone() {
+        if (!finishing || !next.closed || !previous.closed) {
+            return false;
+        }
+        for (Link member : members) {
+            if (!member.closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void passOnClaims() {
+        for (Claim claim; (claim = claims.poll()) != null; ) {
+            if (verdict != null) {
+                continue;  // Too late, the game is over
+            }
+            if (index == 0) {
+                settle(claim);
+            } else if (!control.closed) {
+                control.out.put(CLAIM).putInt(claim.winnerId()).putInt(claim.outcome().ordinal());
+            }
+        }
+    }
+
+    // Ends the game here with the first claim to arrive, the coordinator also tells the other segments
+    private void settle(Claim claim) {
+        if (verdict != null) {
+            return;
+        }
+        verdict = claim;
+        if (index == 0) {
+            for (Link member : members) {
+                if (!member.closed) {
+                    member.out.put(VERDICT).putInt(claim.winnerId()).putInt(claim.outcome().ordinal());
+                }
+            }
+        }
+        game.settle(claim.winnerId(), claim.outcome());
+        settled.countDown();
+    }
+
+    // Tells the previous segment how much room there is in the first deck, while the game lasts
+    private void grantCredit() {
+        if (previous.closed || verdict != null) {
+            return;
+        }
+        int free = IN_PLAY - inbound.size() - outstanding;
+        if (free >= CREDIT_BATCH) {
+            previous.out.put(CREDIT).putInt(free);
+            outstanding += free;
+        }
+    }
+
+    // Sends what the credit allows, and everything once the players have stopped, when there is room for it all
+    private void sendCards() {
+        if (next.closed || endSent) {
+            return;
+        }
+        boolean flushing = finishing;
+        long count = Math.min(outbox.size(), (next.out.remaining() - 5) / Integer.BYTES);
+        if (!flushing) {
+            count = Math.min(count, credit);
+        }
+        if (count > 0) {
+            next.out.put(CARDS).putInt((int) count);
+            for (int i = 0; i < count; i++) {
+                next.out.putInt(outbox.drawValue());
+            }
+            credit = Math.max(0, credit - count);
+        }
+        if (flushing && outbox.isEmpty() && next.out.hasRemaining()) {
+            next.out.put(END);
+            endSent = true;
+        }
+    }
+
+    private void read(Link link) {
+        try {
+            if (link.channel.read(link.in) < 0) {
+                closed(link);
+                return;
+            }
+            link.in.flip();
+            while (!link.closed && receive(link)) {
+                // Handle every whole message
+            }
+            link.in.compact();
+        } catch (IOException e) {
+            lost(link, e.getMessage());
+        }
+    }
+
+    // Handles the message at the front of the buffer, returns false if it hasn't all arrived
+    private boolean receive(Link link) throws IOException {
+        ByteBuffer in = link.in;
+        if (!in.hasRemaining()) {
+            return false;
+        }
+        byte type = in.get(in.position());
+        int size = switch (type) {
+            case CARDS -> in.remaining() < 5 ? Integer.MAX_VALUE
+                    : 5 + Integer.BYTES * Math.clamp(in.getInt(in.position() + 1), 0, MAX_BATCH);
+            case END -> 1;
+            case CREDIT -> 5;
+            case CLAIM, VERDICT -> 9;
+            default -> throw new IOException("Unknown message " + type + ".");
+        };
+        if (in.remaining() < size) {
+            return false;
+        }
+        in.get();
+        switch (type) {
+            case CARDS -> {
+                expect(link == previous, type);
+                int count = in.getInt();
+                if (count < 0 || count > MAX_BATCH) {
+                    throw new IOException("Invalid batch of " + count + " cards.");
+                }
+                for (int i = 0; i < count; i++) {
+                    if (!inbound.tryAddValue(in.getInt())) {
+                        throw new IOException("Deck " + firstPlayer + " was sent more cards than it has room for.");
+                    }
+                }
+                outstanding = Math.max(0, outstanding - count);
+            }
+            case END -> {
+                expect(link == previous, type);
+                previous.close();  // Nothing follows, and the previous segment doesn't need any more credit
+            }
+            case CREDIT -> {
+                expect(link == next, type);
+                credit += in.getInt();
+            }
+            case CLAIM -> {
+                expect(members.contains(link), type);
+                settle(new Claim(in.getInt(), GameOutcome.values()[in.getInt()]));
+            }
+            case VERDICT -> {
+                expect(link == control, type);
+                settle(new Claim(in.getInt(), GameOutcome.values()[in.getInt()]));
+            }
+            default -> throw new IOException("Unknown message " + type + ".");
+        }
+        return true;
+    }
+
+    private static void expect(boolean expected, byte type) throws IOException {
+        if (!expected) {
+            throw new IOException("Message " + type + " arrived on the wrong connection.");
+        }
+    }
+
+    private void flush(Link link) {
+        if (link.closed) {
+            return;
+        }
+        try {
+            link.out.flip();
+            link.channel.write(link.out);
+            link.out.compact();
+            int ops = link.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (link.key.interestOps() != ops) {
+                link.key.interestOps(ops);
+            }
+        } catch (IOException e) {
+            lost(link, e.getMessage());
+        }
+    }
+
+    // The other side closed the connection, which is how each one ends, unless it closed too soon
+    private void closed(Link link) {
+        boolean expected = link == next ? endSent : verdict != null && link != previous;
+        if (expected) {
+            link.close();
+        } else {
+            lost(link, "connection closed");
+        }
+    }
+
+    // A connection failed, so the ring can't carry on, end the game here and, from the coordinator, everywhere
+    private void lost(Link link, String reason) {
+        link.close();
+        if (link == next) {
+            endSent = true;  // The cards left in the outbox can't be delivered
+        }
+        if (verdict == null) {
+            System.err.println("Error in ring segment " + index + ": " + reason);
+            settle(new Claim(CardGame.DRAWN, GameOutcome.DISCONNECTED));
+        }
+    }
+
+    private List<Link> links() {
+        List<Link> links = new ArrayList<>(members);
+        for (Link link : new Link[]{next, previous, control}) {
+            if (link != null) {
+                links.add(link);
+            }
+        }
+        return links;
+    }
+
+    private void closeLinks() {
+        for (Link link : links()) {
+            if (!link.closed) {
+                link.close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing ring connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the connections and waits for any processes started by launch to exit.
+     * Call once the game has finished, or if it never started.
+     */
+    @Override
+    public void close() {
+        if (ioThread == null || !ioThread.isAlive()) {
+            closeLinks();
+        }
+        try {
+            if (coordinatorChannel != null) {
+                coordinatorChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing ring connection: " + e.getMessage());
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < processes.size(); i++) {
+            Process process = processes.get(i);
+            try {
+                if (!process.waitFor(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                    System.err.println("Error: ring segment " + (i + 1) + " did not exit.");
+                } else if (process.exitValue() != 0) {
+                    System.err.println("Error: ring segment " + (i + 1) + " exited with " + process.exitValue() + ".");
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the coordinator's address, where the other segments connect.
+     * @return The address, with the port the coordinator is listening on.
+     */
+    public InetSocketAddress getCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Returns the ID of this segment's first player, who draws from the deck the previous segment fills.
+     * @return First player ID.
+     */
+    public int getFirstPlayer() {
+        return firstPlayer;
+    }
+
+    /**
+     * Returns the ID of this segment's last player, who discards to the next segment.
+     * @return Last player ID.
+     */
+    public int getLastPlayer() {
+        return lastPlayer;
+    }
+
+    /**
+     * Returns this segment's position in the ring.
+     * @return The segment, 0 for the coordinator.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    // The segment's first deck, for the game to deal into
+    Deck getInbound() {
+        return inbound;
+    }
+
+    // Where the segment's last player discards, for the game to hand it
+    Deck getOutbox() {
+        return outbox;
+    }
+
+    // The other segments' processes, if this segment launched them
+    List<Process> getProcesses() {
+        return processes;
+    }
+}
@@ -0,0 +1,48 @@
+package spoons;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a game played by GameSimulator.
+ *
+ * @param winnerId   ID of the winning player, or NO_WINNER if the game hit its turn limit.
+ * @param turns      Total turns taken by all players.
+ * @param finalHands Every player's hand at the end, 4 values per player in player order.
+ */
+public record SimulationResult(int winnerId, long turns, int[] finalHands) {
+    /** Winner ID of a game that ended without a winner. */
+    public static final int NO_WINNER = 0;
+
+    /**
+     * Checks if the game ended with a winner.
+     * @return true if a player won.
+     */
+    public boolean hasWinner() {
+        return winnerId != NO_WINNER;
+    }
+
+    /**
+     * Returns one player's final hand.
+     * @param playerId ID of the player, starting at 1.
+     * @return The player's 4 card values.
+     */
+    public int[] handOf(int playerId) {
+        return Arrays.copyOfRange(finalHands, (playerId - 1) * 4, playerId * 4);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SimulationResult other && winnerId == other.winnerId && turns == other.turns
+                && Arrays.equals(finalHands, other.finalHands);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * winnerId + Long.hashCode(turns)) + Arrays.hashCode(finalHands);
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult[winnerId=" + winnerId + ", turns=" + turns + ", finalHands=" + Arrays.toString(finalHands) + "]";
+    }
+}
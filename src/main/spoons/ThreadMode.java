@@ -0,0 +1,44 @@
+package spoons;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The kinds of thread a CardGame can run its players on.
+ * Platform threads suit small games, virtual threads let a ring grow to hundreds of thousands of players.
+ * Cooperative mode runs the players as tasks on one platform thread per core.
+ */
+public enum ThreadMode {
+    /** One operating system thread per player. */
+    PLATFORM,
+    /** One virtual thread per player, multiplexed onto a small pool of carrier threads. */
+    VIRTUAL,
+    /** Players are tasks on a fixed pool of platform threads, yielding whenever a deck holds them up. */
+    COOPERATIVE;
+
+    /**
+     * Creates a factory for player threads of this kind.
+     * @return A thread factory naming its threads player-1, player-2, ..., or turn-worker-1, ... for the cooperative pool
+     */
+    public ThreadFactory factory() {
+        return switch (this) {
+            case PLATFORM -> Thread.ofPlatform().name("player-", 1).factory();
+            case VIRTUAL -> Thread.ofVirtual().name("player-", 1).factory();
+            case COOPERATIVE -> Thread.ofPlatform().name("turn-worker-", 1).factory();
+        };
+    }
+
+    /**
+     * Looks up a thread mode by name, ignoring case.
+     * @param name "platform", "virtual" or "cooperative".
+     * @return The matching thread mode.
+     * @throws IllegalArgumentException If the name is not a thread mode.
+     */
+    public static ThreadMode fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown thread mode: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package spoons;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays every pack in a tournament many times and aggregates the outcomes per pack.
+ * Games are played headless by GameSimulator, so nothing is logged, on a pool of a fixed size shared by all packs.
+ * Each thread streams its games into its own TournamentStats and the stats are merged at the end.
+ * Usage: java spoons.Tournament &lt;games per pack&gt; &lt;results.csv|results.json&gt; &lt;pack or directory&gt;...
+ */
+public class Tournament {
+    /** Turns after which a game is given up when no limit is set. */
+    public static final long DEFAULT_MAX_TURNS = 1_000_000;
+
+    private final List<Path> packs;
+    private final int gamesPerPack;
+    private int parallelism;
+    private long seed;
+    private boolean shuffle;
+    private long maxTurns;
+
+    /**
+     * Constructor for a tournament over a list of packs.
+     *
+     * @param packs        Pack files, text or binary.
+     * @param gamesPerPack Number of games to play with each pack.
+     */
+    public Tournament(List<Path> packs, int gamesPerPack) {
+        if (gamesPerPack <= 0) {
+            throw new IllegalArgumentException("Games per pack must be positive.");
+        }
+        this.packs = List.copyOf(packs);
+        this.gamesPerPack = gamesPerPack;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.shuffle = true;
+        this.maxTurns = DEFAULT_MAX_TURNS;
+    }
+
+    /**
+     * Runs a tournament from the command line and writes its results.
+     * The number of threads, seed, shuffling and turn limit can be set with -Dspoons.parallelism,
+     * -Dspoons.seed, -Dspoons.shuffle and -Dspoons.maxTurns.
+     *
+     * @param args Games per pack, the output file, then pack files or directories of packs.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: java spoons.Tournament <games per pack> <results.csv|results.json> <pack or directory>...");
+            System.exit(2);
+        }
+        try {
+            List<Path> packs = new ArrayList<>();
+            for (String arg : Arrays.asList(args).subList(2, args.length)) {
+                packs.addAll(findPacks(Paths.get(arg)));
+            }
+            Tournament tournament = new Tournament(packs, Integer.parseInt(args[0]));
+            tournament.setParallelism(Integer.getInteger("spoons.parallelism", tournament.getParallelism()));
+            tournament.setSeed(Long.getLong("spoons.seed", 0));
+            tournament.setShuffle(Boolean.parseBoolean(System.getProperty("spoons.shuffle", "true")));
+            tournament.setMaxTurns(Long.getLong("spoons.maxTurns", DEFAULT_MAX_TURNS));
+
+            List<PackResult> results = tournament.run();
+            Path output = Paths.get(args[1]);
+            try (Writer writer = Files.newBufferedWriter(output)) {
+                if (output.toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                    writeJson(results, writer);
+                } else {
+                    writeCsv(results, writer);
+                }
+            }
+            printSummary(results, System.out);
+        } catch (Exception e) {
+            System.err.println("Error running tournament: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lists the packs at a path, the path itself if it is a file or every file in it if it is a directory.
+     *
+     * @param path A pack file or a directory of pack files.
+     * @return Pack files, sorted by name.
+     * @throws IOException If the directory can't be read.
+     */
+    public static List<Path> findPacks(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        List<Path> packs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, Files::isRegularFile)) {
+            for (Path file : files) {
+                packs.add(file);
+            }
+        }
+        packs.sort(null);
+        return packs;
+    }
+
+    /**
+     * Plays every game of the tournament.
+     *
+     * @return One result per pack, in the order the packs were given.
+     * @throws IOException If a pack can't be read.
+     * @throws IllegalArgumentException If a pack isn't a whole number of players' worth of cards.
+     */
+    public List<PackResult> run() throws IOException {
+        List<int[]> values = new ArrayList<>(packs.size());
+        for (Path pack : packs) {
+            int[] cards = CardGame.loadPackValues(pack.toString());
+            if (cards.length == 0 || cards.length % 8 != 0) {
+                throw new IllegalArgumentException("Invalid card pack: " + pack + " has " + cards.length
+                        + " cards, not 8 per player.");
+            }
+            values.add(cards);
+        }
+
+        List<GamesTask> tasks = new ArrayList<>(packs.size());
+        for (int[] cards : values) {
+            tasks.add(new GamesTask(cards, 0, gamesPerPack));
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);  // Every pack at once, so one-game packs still run in parallel
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        List<PackResult> results = new ArrayList<>(packs.size());
+        for (int i = 0; i < packs.size(); i++) {
+            results.add(new PackResult(packs.get(i), tasks.get(i).join()));
+        }
+        return results;
+    }
+
+    /**
+     * Writes one row per seat of each pack, with the pack's totals repeated on every row.
+     *
+     * @param results Tournament results.
+     * @param out     Where to write the CSV.
+     * @throws IOException If writing fails.
+     */
+    public static void writeCsv(List<PackResult> results, Appendable out) throws IOException {
+        out.append("pack,players,games,undecided,mean_turns,p50_turns,p99_turns,max_turns,mean_duration_us,seat,wins,win_rate\n");
+        for (PackResult result : results) {
+            TournamentStats stats = result.stats();
+            LatencyHistogram.Snapshot turns = stats.getTurns();
+            String totals = csvField(result.pack().getFileName().toString()) + "," + stats.getNumPlayers() + ","
+                    + stats.getGames() + "," + stats.getUndecided() + "," + format(turns.mean()) + ","
+                    + turns.percentile(50) + "," + turns.percentile(99) + "," + turns.max() + ","
+                    + format(stats.getDurations().mean() / 1e3);
+            for (int seat = 1; seat <= stats.getNumPlayers(); seat++) {
+                out.append(totals).append(',').append(Integer.toString(seat)).append(',')
+                        .append(Long.toString(stats.getWins(seat))).append(',')
+                        .append(format(stats.getWinRate(seat))).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the results as a JSON array with one object per pack, including the turn histogram.
+     *
+     * @param results Tournament results.
+     * @param out     Where to write the JSON.
+     * @throws IOException If writing fails.
+     */
+    public static void writeJson(List<PackResult> results, Appendable out) throws IOException {
+        out.append("[");
+        for (int i = 0; i < results.size(); i++) {
+            PackResult result = results.get(i);
+            TournamentStats stats = result.stats();
+            LatencyHistogram.Snapshot turns = stats.getTurns();
+            out.append(i == 0 ? "\n" : ",\n")
+                    .append("  {\"pack\": ").append(jsonString(result.pack().toString()))
+                    .append(", \"players\": ").append(Integer.toString(stats.getNumPlayers()))
+                    .append(", \"games\": ").append(Long.toString(stats.getGames()))
+                    .append(", \"undecided\": ").append(Long.toString(stats.getUndecided()))
+                    .append(",\n   \"winRates\": [");
+            for (int seat = 1; seat <= stats.getNumPlayers(); seat++) {
+                out.append(seat == 1 ? "" : ", ").append(format(stats.getWinRate(seat)));
+            }
+            out.append("],\n   \"turns\": {\"mean\": ").append(format(turns.mean()))
+                    .append(", \"p50\": ").append(Long.toString(turns.percentile(50)))
+                    .append(", \"p99\": ").append(Long.toString(turns.percentile(99)))
+                    .append(", \"max\": ").append(Long.toString(turns.max()))
+                    .append(", \"histogram\": [");
+            // Only the buckets games fell into, each as its highest turn count and number of games
+            boolean first = true;
+            long[] buckets = turns.buckets();
+            for (int b = 0; b < buckets.length; b++) {
+                if (buckets[b] != 0) {
+                    long upper = b == 0 ? 0 : b == buckets.length - 1 ? Long.MAX_VALUE : (1L << b) - 1;
+                    out.append(first ? "" : ", ").append("{\"upTo\": ").append(Long.toString(upper))
+                            .append(", \"games\": ").append(Long.toString(buckets[b])).append('}');
+                    first = false;
+                }
+            }
+            out.append("]},\n   \"meanDurationMicros\": ").append(format(stats.getDurations().mean() / 1e3)).append('}');
+        }
+        out.append(results.isEmpty() ? "]\n" : "\n]\n");
+    }
+
+    private static void printSummary(List<PackResult> results, PrintStream out) {
+        for (PackResult result : results) {
+            TournamentStats stats = result.stats();
+            int bestSeat = 1;
+            for (int seat = 2; seat <= stats.getNumPlayers(); seat++) {
+                if (stats.getWins(seat) > stats.getWins(bestSeat)) {
+                    bestSeat = seat;
+                }
+            }
+            out.printf("%s: %d games, %d undecided, mean %.1f turns, seat %d wins %.1f%%%n",
+                    result.pack().getFileName(), stats.getGames(), stats.getUndecided(), stats.getTurns().mean(),
+                    bestSeat, stats.getWinRate(bestSeat) * 100);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Getter for the number of threads games are played on.
+     *
+     * @return Pool size.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads games are played on, one per core by default.
+     *
+     * @param parallelism Pool size.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the seed for the shuffles. Game i of every pack shuffles with a SplittableRandom seeded
+     * from seed and i, as in GameSimulator.runBatch, so results don't depend on the number of threads.
+     *
+     * @param seed Seed for the shuffles.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Chooses whether each game shuffles its pack first, which it does by default.
+     * Without shuffling every game of a pack is dealt the same, so one game per pack is enough.
+     *
+     * @param shuffle false to deal each pack as it is.
+     */
+    public void setShuffle(boolean shuffle) {
+        this.shuffle = shuffle;
+    }
+
+    /**
+     * Sets the turns after which a game is given up without a winner.
+     *
+     * @param maxTurns Turn limit.
+     */
+    public void setMaxTurns(long maxTurns) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("Turn limit must be positive.");
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * The aggregated outcome of every game played with one pack.
+     *
+     * @param pack  The pack file.
+     * @param stats Totals for its games.
+     */
+    public record PackResult(Path pack, TournamentStats stats) {
+    }
+
+    /**
+     * Plays a range of one pack's games, splitting it in half until it is small enough for one thread.
+     */
+    @SuppressWarnings("serial")  // ForkJoinTask is Serializable, but the tasks are never serialized
+    private final class GamesTask extends RecursiveTask<TournamentStats> {
+        // Games played by a single task, enough to amortise the simulator's arrays
+        private static final int GAMES_PER_TASK = 16;
+
+        private final int[] pack;
+        private final int from;
+        private final int to;
+
+        GamesTask(int[] pack, int from, int to) {
+            this.pack = pack;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentStats compute() {
+            int numPlayers = pack.length / 8;
+            if (to - from > GAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                GamesTask second = new GamesTask(pack, mid, to);
+                second.fork();
+                TournamentStats stats = new GamesTask(pack, from, mid).compute();
+                stats.merge(second.join());
+                return stats;
+            }
+
+            TournamentStats stats = new TournamentStats(numPlayers);
+            GameSimulator simulator = new GameSimulator(numPlayers);
+            int[] dealt = pack.clone();
+            for (int game = from; game < to; game++) {
+                if (shuffle) {
+                    System.arraycopy(pack, 0, dealt, 0, pack.length);
+                    GameSimulator.shuffle(dealt, new SplittableRandom(seed + game));
+                }
+                long start = System.nanoTime();
+                SimulationResult result = simulator.simulate(dealt, maxTurns);
+                stats.record(result, System.nanoTime() - start);
+            }
+            return stats;
+        }
+    }
+}
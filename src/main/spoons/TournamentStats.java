@@ -0,0 +1,131 @@
+package spoons;
+
+/**
+ * Running totals for many games played with the same number of players.
+ * Results are streamed in one game at a time and never kept, so a tournament of any length takes the same memory.
+ * Like LatencyHistogram, a stats object belongs to one thread while recording. Threads each keep their own
+ * and merge them once they are done.
+ */
+public class TournamentStats {
+    private final int numPlayers;
+    private long games;
+    // Games won from each seat, seat 1 first
+    private final long[] wins;
+    // Games that hit the turn limit without a winner
+    private long undecided;
+    private final LatencyHistogram turns = new LatencyHistogram();
+    private final LatencyHistogram durations = new LatencyHistogram();
+    // Histograms of stats merged into this one
+    private LatencyHistogram.Snapshot mergedTurns = LatencyHistogram.Snapshot.EMPTY;
+    private LatencyHistogram.Snapshot mergedDurations = LatencyHistogram.Snapshot.EMPTY;
+
+    /**
+     * Constructor to create empty stats.
+     * @param numPlayers Number of seats in each game.
+     */
+    public TournamentStats(int numPlayers) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        this.numPlayers = numPlayers;
+        this.wins = new long[numPlayers];
+    }
+
+    /**
+     * Adds one game.
+     * @param result        The game's outcome.
+     * @param durationNanos Time taken to play it.
+     */
+    public void record(SimulationResult result, long durationNanos) {
+        games++;
+        if (result.hasWinner()) {
+            wins[result.winnerId() - 1]++;
+        } else {
+            undecided++;
+        }
+        turns.record(result.turns());
+        durations.record(durationNanos);
+    }
+
+    /**
+     * Adds every game recorded by another stats object, which must not be recording at the same time.
+     * @param other Stats for games with the same number of players.
+     */
+    public void merge(TournamentStats other) {
+        if (other.numPlayers != numPlayers) {
+            throw new IllegalArgumentException("Cannot merge stats for " + other.numPlayers + " players into stats for "
+                    + numPlayers + ".");
+        }
+        games += other.games;
+        for (int i = 0; i < numPlayers; i++) {
+            wins[i] += other.wins[i];
+        }
+        undecided += other.undecided;
+        mergedTurns = mergedTurns.merge(other.getTurns());
+        mergedDurations = mergedDurations.merge(other.getDurations());
+    }
+
+    /**
+     * Returns the number of seats in each game.
+     * @return Number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the number of games recorded.
+     * @return Games played.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games won from a seat.
+     * @param seat Player ID, starting at 1.
+     * @return Games won.
+     */
+    public long getWins(int seat) {
+        return wins[seat - 1];
+    }
+
+    /**
+     * Returns the share of all games won from a seat.
+     * @param seat Player ID, starting at 1.
+     * @return Win rate from 0 to 1, 0 if no games were played.
+     */
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat - 1] / games;
+    }
+
+    /**
+     * Returns the number of games nobody won before the turn limit.
+     * @return Undecided games.
+     */
+    public long getUndecided() {
+        return undecided;
+    }
+
+    /**
+     * Returns the histogram of turns per game.
+     * @return Turn counts in power of two buckets.
+     */
+    public LatencyHistogram.Snapshot getTurns() {
+        return turns.snapshot().merge(mergedTurns);
+    }
+
+    /**
+     * Returns the histogram of time taken per game.
+     * @return Durations in nanoseconds.
+     */
+    public LatencyHistogram.Snapshot getDurations() {
+        return durations.snapshot().merge(mergedDurations);
+    }
+
+    @Override
+    public String toString() {
+        return "TournamentStats[players=" + numPlayers + ", games=" + games + ", undecided=" + undecided
+                + ", meanTurns=" + (long) getTurns().mean() + ", meanDuration=" + (long) getDurations().mean() + "ns]";
+    }
+}
@@ -0,0 +1,147 @@
+package spoons;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every player of a game as a task on a fixed pool of threads, instead of one thread per player.
+ * A player takes turns until its left deck is empty or its right deck is full and then gives its thread back.
+ * The deck in its way calls it back when the neighbour discards or draws, which puts it back in the queue.
+ * A player that could keep playing still yields after a slice of turns, so none of them hogs a thread.
+ */
+final class TurnScheduler {
+    /** Turns a player takes before letting the next one in the queue have its thread. */
+    static final int SLICE_TURNS = 64;
+
+    // Task states, a wake while running sets NOTIFIED so the task runs again instead of going idle
+    private static final int IDLE = 0;
+    private static final int QUEUED = 1;
+    private static final int RUNNING = 2;
+    private static final int NOTIFIED = 3;
+    private static final int DONE = 4;
+
+    private final List<Player> players;
+    private final ExecutorService pool;
+    private final CountDownLatch finished;
+
+    /**
+     * Creates a scheduler for a dealt game's players.
+     *
+     * @param players       The players, each with its decks already dealt.
+     * @param workers       Number of threads the players share.
+     * @param threadFactory Creates the worker threads.
+     */
+    TurnScheduler(List<Player> players, int workers, ThreadFactory threadFactory) {
+        this.players = players;
+        this.pool = Executors.newFixedThreadPool(workers, threadFactory);
+        this.finished = new CountDownLatch(players.size());
+    }
+
+    /**
+     * Plays the game until every player has finished, then stops the workers.
+     * If the calling thread is interrupted every player is ended, and the call still waits for them to finish.
+     */
+    void run() {
+        for (Player player : players) {
+            PlayerTask task = new PlayerTask(player);
+            player.setWakeListener(task::wake);
+            player.getLeftDeck().setCardListener(task::wake);
+            if (player.getRightDeck() != player.getLeftDeck()) {
+                player.getRightDeck().setSpaceListener(task::wake);
+            }
+        }
+        // Every player starts queued, like every thread starting at once
+        players.forEach(Player::wake);
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    if (!interrupted) {
+                        System.err.println("Game interrupted: " + e.getMessage());
+                        interrupted = true;
+                        players.forEach(Player::endGame);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+            for (Player player : players) {
+                player.setWakeListener(null);
+                player.getLeftDeck().setCardListener(null);
+                player.getRightDeck().setSpaceListener(null);
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * One player's turns, queued on the pool whenever the player may be able to play.
+     */
+    private final class PlayerTask implements Runnable {
+        private final Player player;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        PlayerTask(Player player) {
+            this.player = player;
+        }
+
+        // Called by the neighbouring players through the decks, and by the winner when the game ends
+        void wake() {
+            while (true) {
+                int current = state.get();
+                if (current == IDLE) {
+                    if (state.compareAndSet(IDLE, QUEUED)) {
+                        pool.execute(this);
+                        return;
+                    }
+                } else if (current == RUNNING) {
+                    if (state.compareAndSet(RUNNING, NOTIFIED)) {
+                        return;
+                    }
+                } else {
+                    return;  // Already queued, already notified or finished
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            state.set(RUNNING);
+            Player.Slice slice;
+            try {
+                slice = player.playTurns(SLICE_TURNS);
+            } catch (RuntimeException e) {
+                System.err.println("Error during player " + player.getPlayerId() + "'s turn: " + e.getMessage());
+                slice = Player.Slice.FINISHED;
+            }
+
+            switch (slice) {
+                case FINISHED -> {
+                    state.set(DONE);
+                    finished.countDown();
+                }
+                case YIELDED -> {
+                    state.set(QUEUED);
+                    pool.execute(this);
+                }
+                case WAITING -> {
+                    // A neighbour may have played since the player looked at its decks, if so go round again
+                    if (!state.compareAndSet(RUNNING, IDLE)) {
+                        state.set(QUEUED);
+                        pool.execute(this);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package spoons;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The Vector API half of WinDetector, only loaded when the jdk.incubator.vector module is present.
+ * A vector holds whole hands, 4 lanes each. Each lane is compared with the first card of its hand,
+ * and a hand wins when all 4 of its lanes match, which is 4 set bits in a row of the comparison mask.
+ */
+final class VectorWinDetector {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    // Moves the first card of each hand into all 4 of the hand's lanes
+    private static final VectorShuffle<Integer> FIRST_CARDS = VectorShuffle.fromOp(SPECIES, lane -> lane & ~3);
+    // The first lane bit of every hand in a vector
+    private static final long HAND_BITS = 0x1111_1111_1111_1111L & ((1L << LANES) - 1);
+    private static final int HANDS_PER_VECTOR = LANES / 4;
+
+    private VectorWinDetector() {
+    }
+
+    /**
+     * Checks that a vector holds a whole number of hands, so hands never straddle two vectors.
+     */
+    static boolean isUsable() {
+        return LANES >= 4 && LANES % 4 == 0;
+    }
+
+    // One bit per winning hand, at the hand's first lane
+    private static long wins(IntVector cards) {
+        long equal = cards.compare(VectorOperators.EQ, cards.rearrange(FIRST_CARDS)).toLong();
+        return equal & (equal >>> 1) & (equal >>> 2) & (equal >>> 3) & HAND_BITS;
+    }
+
+    static int firstWinningHand(int[] hands, int fromHand, int toHand) {
+        int i = fromHand * 4;
+        int upper = i + SPECIES.loopBound((toHand - fromHand) * 4);
+        for (; i < upper; i += LANES) {
+            long wins = wins(IntVector.fromArray(SPECIES, hands, i));
+            if (wins != 0) {
+                return (i + Long.numberOfTrailingZeros(wins)) / 4;
+            }
+        }
+        return WinDetector.scalarFirstWinningHand(hands, i / 4, toHand);
+    }
+
+    static int winningHands(int[] hands, int numHands, long[] winners) {
+        Arrays.fill(winners, 0, (numHands + 63) / 64, 0);
+        int count = 0;
+        int h = 0;
+        int upper = SPECIES.loopBound(numHands * 4) / 4;
+        for (; h < upper; h += HANDS_PER_VECTOR) {
+            long wins = wins(IntVector.fromArray(SPECIES, hands, h * 4));
+            if (wins != 0) {
+                // A vector's hands start at a multiple of HANDS_PER_VECTOR, so they never straddle two words
+                winners[h >>> 6] |= Long.compress(wins, HAND_BITS) << h;
+                count += Long.bitCount(wins);
+            }
+        }
+        for (; h < numHands; h++) {
+            int base = h * 4;
+            int first = hands[base];
+            if (hands[base + 1] == first && hands[base + 2] == first && hands[base + 3] == first) {
+                winners[h >>> 6] |= 1L << h;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static long firstWinningHand(MemorySegment hands, long fromHand, long toHand) {
+        long i = fromHand * 4;
+        long upper = i + SPECIES.loopBound((toHand - fromHand) * 4);
+        for (; i < upper; i += LANES) {
+            long wins = wins(IntVector.fromMemorySegment(SPECIES, hands, i * Integer.BYTES, ByteOrder.nativeOrder()));
+            if (wins != 0) {
+                return (i + Long.numberOfTrailingZeros(wins)) / 4;
+            }
+        }
+        return WinDetector.scalarFirstWinningHand(hands, i / 4, toHand);
+    }
+}
@@ -0,0 +1,57 @@
+package spoons;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a player waits for a card while its left deck is empty.
+ * Spinning hands a card over fastest but burns a core per waiting player, parking frees the core
+ * but costs a wake up on every hand over. Adaptive spins for about as long as a neighbour's turn takes,
+ * then yields, and only parks a player whose neighbour is slow.
+ */
+public enum WaitPolicy {
+    /** Park straight away, for rings with many more players than cores. */
+    PARK(0, 0),
+    /** Spin until a card arrives, for platform threads with a core for every player. */
+    SPIN(Long.MAX_VALUE, 0),
+    /** Spin for a few microseconds, yield for a few more, then park. */
+    ADAPTIVE(TimeUnit.MICROSECONDS.toNanos(10), TimeUnit.MICROSECONDS.toNanos(50));
+
+    private final long spinNanos;
+    private final long parkAfterNanos;
+
+    WaitPolicy(long spinNanos, long yieldNanos) {
+        this.spinNanos = spinNanos;
+        this.parkAfterNanos = spinNanos == Long.MAX_VALUE ? Long.MAX_VALUE : spinNanos + yieldNanos;
+    }
+
+    /**
+     * Returns how long a waiting player spins with Thread.onSpinWait before it starts to yield.
+     * @return Spin time in nanoseconds, Long.MAX_VALUE to never stop spinning.
+     */
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+
+    /**
+     * Returns how long a waiting player spins and yields in all before it parks.
+     * @return Time in nanoseconds, 0 to park straight away.
+     */
+    public long getParkAfterNanos() {
+        return parkAfterNanos;
+    }
+
+    /**
+     * Looks up a wait policy by name, ignoring case.
+     * @param name "park", "spin" or "adaptive".
+     * @return The matching wait policy.
+     * @throws IllegalArgumentException If the name is not a wait policy.
+     */
+    public static WaitPolicy fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wait policy: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package spoons;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * Finds four of a kind across many hands at once, the winning condition Player.isWinningCondition checks
+ * one hand at a time. Hands are flat runs of 4 ints, hand h in slots 4h to 4h + 3, as in
+ * SimulationResult.finalHands and GameBatch.
+ * <p>
+ * When the jdk.incubator.vector module is present (run with --add-modules jdk.incubator.vector) several hands
+ * are compared per instruction, each lane against the first card of its hand. Otherwise, or with
+ * -Dspoons.vector=false, a scalar loop gives the same answers.
+ */
+public final class WinDetector {
+    private static final boolean VECTORISED = !"false".equals(System.getProperty("spoons.vector"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorWinDetector.isUsable();
+
+    private WinDetector() {
+    }
+
+    /**
+     * Checks whether hands are compared with vector instructions.
+     * @return true if the Vector API is in use, false for the scalar fallback.
+     */
+    public static boolean isVectorised() {
+        return VECTORISED;
+    }
+
+    /**
+     * Finds the first hand in a range that is four of a kind.
+     *
+     * @param hands    Hands, 4 ints each.
+     * @param fromHand First hand to check.
+     * @param toHand   One past the last hand to check.
+     * @return Index of the first winning hand, or -1 if none of them wins.
+     */
+    public static int firstWinningHand(int[] hands, int fromHand, int toHand) {
+        checkRange(hands.length / 4, fromHand, toHand);
+        return VECTORISED
+                ? VectorWinDetector.firstWinningHand(hands, fromHand, toHand)
+                : scalarFirstWinningHand(hands, fromHand, toHand);
+    }
+
+    /**
+     * Marks every hand that is four of a kind.
+     *
+     * @param hands    Hands, 4 ints each.
+     * @param numHands Number of hands to check, from the first.
+     * @param winners  Set to one bit per hand, bit h % 64 of word h / 64 set if hand h wins.
+     * @return Number of winning hands.
+     */
+    public static int winningHands(int[] hands, int numHands, long[] winners) {
+        checkRange(hands.length / 4, 0, numHands);
+        if (winners.length < (numHands + 63) / 64) {
+            throw new IllegalArgumentException("Winners needs " + (numHands + 63) / 64 + " words.");
+        }
+        return VECTORISED
+                ? VectorWinDetector.winningHands(hands, numHands, winners)
+                : scalarWinningHands(hands, numHands, winners);
+    }
+
+    /**
+     * Finds the winner of every game in a batch, the lowest seat holding four of a kind as when a game is dealt.
+     * All hands of the batch are checked in one pass, then each game's seats are looked up in the result.
+     *
+     * @param hands      Hands of every game, the numPlayers hands of game g starting at hand g * numPlayers.
+     * @param numPlayers Number of players in each game.
+     * @param winnerIds  Set to the winning player ID of each game, or CardGame.NO_WINNER.
+     * @return Number of games with a winner.
+     */
+    public static int winningPlayers(int[] hands, int numPlayers, int[] winnerIds) {
+        if (numPlayers <= 0 || hands.length / 4 < (long) winnerIds.length * numPlayers) {
+            throw new IllegalArgumentException("Hands hold fewer than " + winnerIds.length + " games of "
+                    + numPlayers + " players.");
+        }
+        int numHands = winnerIds.length * numPlayers;
+        long[] winners = new long[(numHands + 63) / 64];
+        winningHands(hands, numHands, winners);
+        int games = 0;
+        for (int g = 0; g < winnerIds.length; g++) {
+            int seat = nextSetBit(winners, g * numPlayers, (g + 1) * numPlayers);
+            winnerIds[g] = seat < 0 ? CardGame.NO_WINNER : seat - g * numPlayers + 1;
+            if (seat >= 0) {
+                games++;
+            }
+        }
+        return games;
+    }
+
+    // The first set bit from one index up to another, -1 if there is none
+    private static int nextSetBit(long[] bits, int from, int to) {
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                int bit = (word << 6) + Long.numberOfTrailingZeros(current);
+                return bit < to ? bit : -1;
+            }
+            if (++word << 6 >= to) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    /**
+     * Finds the first winning hand in a range of a segment of hands, as firstWinningHand does for an array.
+     */
+    static long firstWinningHand(MemorySegment hands, long fromHand, long toHand) {
+        return VECTORISED
+                ? VectorWinDetector.firstWinningHand(hands, fromHand, toHand)
+                : scalarFirstWinningHand(hands, fromHand, toHand);
+    }
+
+    static int scalarFirstWinningHand(int[] hands, int fromHand, int toHand) {
+        for (int h = fromHand; h < toHand; h++) {
+            int base = h * 4;
+            int first = hands[base];
+            if (hands[base + 1] == first && hands[base + 2] == first && hands[base + 3] == first) {
+                return h;
+            }
+        }
+        return -1;
+    }
+
+    static int scalarWinningHands(int[] hands, int numHands, long[] winners) {
+        Arrays.fill(winners, 0, (numHands + 63) / 64, 0);
+        int count = 0;
+        for (int h = 0; h < numHands; h++) {
+            int base = h * 4;
+            int first = hands[base];
+            if (hands[base + 1] == first && hands[base + 2] == first && hands[base + 3] == first) {
+                winners[h >>> 6] |= 1L << h;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static long scalarFirstWinningHand(MemorySegment hands, long fromHand, long toHand) {
+        for (long h = fromHand; h < toHand; h++) {
+            long base = h * 4;
+            int first = hands.getAtIndex(ValueLayout.JAVA_INT, base);
+            if (hands.getAtIndex(ValueLayout.JAVA_INT, base + 1) == first
+                    && hands.getAtIndex(ValueLayout.JAVA_INT, base + 2) == first
+                    && hands.getAtIndex(ValueLayout.JAVA_INT, base + 3) == first) {
+                return h;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkRange(int numHands, int fromHand, int toHand) {
+        if (fromHand < 0 || fromHand > toHand || toHand > numHands) {
+            throw new IndexOutOfBoundsException("Hands " + fromHand + " to " + toHand + " out of bounds for "
+                    + numHands + " hands");
+        }
+    }
+}
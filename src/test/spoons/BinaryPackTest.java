@@ -0,0 +1,98 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPackTest {
+
+    private static int[] sampleValues() {
+        int[] values = new int[80];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 37 % 200;
+        }
+        values[3] = Integer.MAX_VALUE;
+        values[4] = Integer.MIN_VALUE;
+        values[5] = -1;
+        return values;
+    }
+
+    @Test
+    void roundTripsBothEncodings() throws IOException {
+        int[] values = sampleValues();
+        for (BinaryPack.Encoding encoding : BinaryPack.Encoding.values()) {
+            Path path = Paths.get("test_binary_pack_" + encoding + ".bin");
+            BinaryPack.write(path, values, 10, encoding);
+
+            assertTrue(BinaryPack.isBinaryPack(path));
+            assertArrayEquals(values, BinaryPack.read(path), encoding + " should read back what was written");
+        }
+        // Small values take one byte as varints
+        assertTrue(Files.size(Paths.get("test_binary_pack_VARINT.bin")) < Files.size(Paths.get("test_binary_pack_FIXED.bin")));
+    }
+
+    @Test
+    void rejectsCorruptedPayload() throws IOException {
+        Path path = Paths.get("test_binary_pack_corrupt.bin");
+        BinaryPack.write(path, sampleValues(), 10, BinaryPack.Encoding.FIXED);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[BinaryPack.HEADER_SIZE + 1] ^= 1;
+        Files.write(path, bytes);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BinaryPack.read(path));
+        assertEquals("Invalid card pack: checksum mismatch.", e.getMessage());
+    }
+
+    @Test
+    void rejectsBadHeaders() throws IOException {
+        Path path = Paths.get("test_binary_pack_header.bin");
+        BinaryPack.write(path, sampleValues(), 10, BinaryPack.Encoding.VARINT);
+        byte[] valid = Files.readAllBytes(path);
+
+        // Player count that doesn't match 8 cards per player
+        byte[] bytes = valid.clone();
+        ByteBuffer.wrap(bytes).putInt(12, 11);
+        Files.write(path, bytes);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BinaryPack.read(path));
+        assertEquals("Invalid card pack: incorrect number of cards.", e.getMessage());
+
+        // A version from the future
+        bytes = valid.clone();
+        ByteBuffer.wrap(bytes).putShort(4, (short) 2);
+        Files.write(path, bytes);
+        assertThrows(IllegalArgumentException.class, () -> BinaryPack.read(path), "Unknown version should be rejected");
+
+        // Cut off part way through the values
+        Files.write(path, Arrays.copyOf(valid, valid.length - 3));
+        assertThrows(IllegalArgumentException.class, () -> BinaryPack.read(path), "Truncated file should be rejected");
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryPack.write(path, new int[9], 1, BinaryPack.Encoding.FIXED));
+    }
+
+    @Test
+    void converterTurnsTextPackIntoBinary() throws IOException {
+        Path text = Paths.get("test_binary_pack_source.txt");
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 32; i++) {
+            lines.append(i % 5).append('\n');
+        }
+        Files.writeString(text, lines);
+        Path binary = Paths.get("test_binary_pack_converted.bin");
+
+        assertEquals(4, PackConverter.convert(text, binary, BinaryPack.Encoding.VARINT));
+        assertFalse(BinaryPack.isBinaryPack(text));
+        assertArrayEquals(PackLoader.load(text), CardGame.loadPackValues(binary.toString()),
+                "Game should load either format to the same values");
+
+        Files.writeString(text, "1\n2\n3\n");
+        assertThrows(IllegalArgumentException.class, () -> PackConverter.convert(text, binary, BinaryPack.Encoding.FIXED),
+                "Packs that aren't 8 cards per player can't be converted");
+    }
+}
@@ -1,11 +1,27 @@
+package spoons;
+
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.cardsOf;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.twoPlayerPack;
+import static spoons.TestFixtures.unwinnablePack;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -146,6 +162,284 @@ public class CardGameTest {
         assertTrue(game.getPlayers().getFirst().isWinningCondition());
     }
 
+    // Ending a game stops its log writer, so games don't leave a thread behind
+    @Test
+    public void testEndGameStopsTheLogWriter() {
+        CardGame game = new CardGame(4, generateCardPack(40));
+        game.initialiseGame();
+        game.getPlayers().getFirst().writeToFile("test\n");
+        assertTrue(game.getLogWriter().isRunning());
+
+        game.endGame();
+        assertFalse(game.getLogWriter().isRunning(), "Log writer thread should stop when the game ends");
+    }
+
+    /**
+     * Tests for startGame Method
+     */
+
+    // Turns run back to back, so a short game finishes well within the timeout
+    @Test
+    public void testStartGameRunsToWinner() throws IOException {
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame, "Game should end once player 1 wins");
+
+        List<String> log = Files.readAllLines(Paths.get("player1_output.txt"));
+        assertEquals("Player 1 wins with hand: 1 1 1 1", log.getLast());
+        assertTrue(Files.readAllLines(Paths.get("player2_output.txt")).contains("Player 2 exits."));
+    }
+
+    // A turn delay slows the game down but endGame still wakes players straight away
+    @Test
+    public void testStartGameWithTurnDelay() {
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        game.setTurnDelay(20);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame, "Game should end with a turn delay");
+        assertThrows(IllegalArgumentException.class, () -> game.setTurnDelay(-1));
+    }
+
+    // Players can run on virtual threads
+    @Test
+    public void testStartGameOnVirtualThreads() throws IOException {
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        game.setThreadMode(ThreadMode.VIRTUAL);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame, "Game should end on virtual threads");
+        assertEquals("Player 1 wins with hand: 1 1 1 1", Files.readAllLines(Paths.get("player1_output.txt")).getLast());
+    }
+
+    // Players can share a pool of workers as cooperative tasks
+    @Test
+    public void testStartGameCooperatively() throws IOException {
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        game.setThreadMode(ThreadMode.COOPERATIVE);
+        game.setWorkerCount(1);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame, "Game should end on one worker");
+        assertEquals(1, game.getWinnerId());
+        assertEquals("Player 1 wins with hand: 1 1 1 1", Files.readAllLines(Paths.get("player1_output.txt")).getLast());
+        List<String> loserLog = Files.readAllLines(Paths.get("player2_output.txt"));
+        assertEquals("Player 2 exits.", loserLog.get(loserLog.size() - 2));
+        assertThrows(IllegalArgumentException.class, () -> game.setWorkerCount(0));
+    }
+
+    // Players can spin or spin then park on an empty deck instead of parking straight away
+    @Test
+    public void testStartGameWithEachWaitPolicy() throws IOException {
+        for (WaitPolicy policy : WaitPolicy.values()) {
+            List<Card> cardPack = cardsOf(twoPlayerPack());
+            CardGame game = new CardGame(2, cardPack);
+            game.setWaitPolicy(policy);
+            game.initialiseGame();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame, "Game should end with " + policy);
+            assertEquals(1, game.getWinnerId());
+            assertEquals("Player 1 wins with hand: 1 1 1 1", Files.readAllLines(Paths.get("player1_output.txt")).getLast());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CardGame(1, new int[8]).setWaitPolicy(null));
+    }
+
+    // A custom thread factory is used for every player
+    @Test
+    public void testStartGameWithThreadFactory() {
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        AtomicInteger threadsCreated = new AtomicInteger();
+        game.setThreadFactory(task -> {
+            threadsCreated.incrementAndGet();
+            return new Thread(task);
+        });
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+        assertEquals(2, threadsCreated.get(), "One thread should be created per player");
+        assertThrows(IllegalArgumentException.class, () -> game.setThreadFactory(null));
+    }
+
+    // Several players holding a winning hand at once must not deadlock
+    @Test
+    public void testStartGameWithSimultaneousWinners() {
+        int numPlayers = 200;
+        List<Card> cardPack = IntStream.range(0, numPlayers * 8).mapToObj(i -> new Card(i / 4 % 3)).collect(Collectors.toList());
+        CardGame game = new CardGame(numPlayers, cardPack);
+        game.setThreadMode(ThreadMode.VIRTUAL);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), game::startGame, "Game should end with one winner");
+    }
+
+    // A ring far bigger than any platform thread pool plays on virtual threads until the turn limit
+    @Test
+    public void testStartGameWithTenThousandVirtualPlayers() {
+        CardGame game = quietGame(unwinnablePack(10_000));
+        game.setThreadMode(ThreadMode.VIRTUAL);
+        game.setMaxTurns(100_000);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), game::startGame, "Game should reach the turn limit");
+        assertEquals(GameOutcome.TURN_LIMIT, game.getOutcome());
+        assertTrue(game.getMetrics().getTotalTurns() >= 100_000);
+    }
+
+    // Losers held up by a full right deck when someone wins must stop, not wait for a neighbour who has left
+    @Test
+    public void testWonGamesEndWithPlayersWaitingForSpace() {
+        int numPlayers = 64;
+        for (int round = 0; round < 50; round++) {
+            SplittableRandom random = new SplittableRandom(round);
+            int[] cardPack = IntStream.range(0, numPlayers * 8).map(i -> 1 + random.nextInt(8)).toArray();
+            CardGame game = new CardGame(numPlayers, cardPack);
+            game.setLoggingEnabled(false);
+            game.setAnnouncing(false);
+            game.setDeckCapacity(5);
+            game.initialiseGame();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame, "Round " + round + " should end");
+            assertEquals(GameOutcome.WON, game.getOutcome());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CardGame(1, new int[8]).setDeckCapacity(4));
+    }
+
+    // A game dealt from an array of values plays exactly like one dealt from cards
+    @Test
+    public void testStartGameFromCardValues() throws IOException {
+        int[] cardPack = twoPlayerPack();
+        CardGame game = new CardGame(2, cardPack);
+        game.initialiseGame();
+        assertEquals(cardsOf(2, 3, 4, 5), game.getPlayers().getFirst().getHand());
+        assertEquals(cardsOf(1, 1, 1, 1), game.getDecks().getFirst().getCards());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+        assertEquals("Player 1 wins with hand: 1 1 1 1", Files.readAllLines(Paths.get("player1_output.txt")).getLast());
+        assertThrows(IllegalArgumentException.class, () -> new CardGame(3, cardPack), "Not 8 cards per player");
+    }
+
+    // Only the elected winner logs a win, every other player logs its own exit naming that winner
+    @Test
+    public void testSimultaneousWinnersElectOneWinner() throws IOException {
+        int numPlayers = 50;
+        List<Card> cardPack = IntStream.range(0, numPlayers * 8).mapToObj(i -> new Card(i / 4 % 3)).collect(Collectors.toList());
+        CardGame game = new CardGame(numPlayers, cardPack);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), game::startGame);
+        int winnerId = game.getWinnerId();
+        assertTrue(game.isGameOver());
+        for (int id = 1; id <= numPlayers; id++) {
+            List<String> log = Files.readAllLines(Paths.get("player" + id + "_output.txt"));
+            if (id == winnerId) {
+                assertTrue(log.getLast().startsWith("Player " + id + " wins with hand: "));
+            } else {
+                assertTrue(log.contains("Player " + winnerId + " has informed player " + id + " that player " + winnerId + " has won."),
+                        "Player " + id + " should log the winner");
+                assertEquals("Player " + id + " exits.", log.get(log.size() - 2));
+                assertTrue(log.stream().noneMatch(line -> line.contains("wins with hand")), "Player " + id + " should not win");
+            }
+        }
+    }
+
+    // With logging off the game writes no output files
+    @Test
+    public void testStartGameWithoutLogging() throws IOException {
+        Files.deleteIfExists(Paths.get("player1_output.txt"));
+        Files.deleteIfExists(Paths.get("deck1_output.txt"));
+        List<Card> cardPack = cardsOf(twoPlayerPack());
+        CardGame game = new CardGame(2, cardPack);
+        game.setLoggingEnabled(false);
+        game.initialiseGame();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+        assertFalse(Files.exists(Paths.get("player1_output.txt")), "Player file should not be written");
+        assertFalse(Files.exists(Paths.get("deck1_output.txt")), "Deck file should not be written");
+    }
+
+    /**
+     * Tests for startAsync
+     */
+
+    // The result carries the winner, hands and decks without any files being written
+    @Test
+    public void testStartAsyncCompletesWithResult() throws Exception {
+        Files.deleteIfExists(Paths.get("player1_output.txt"));
+        GameConfig config = new GameConfig(2, twoPlayerPack());
+        GameResult result = CardGame.startAsync(config).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.winnerId());
+        assertEquals(GameOutcome.WON, result.outcome());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, result.handOf(1));
+        assertEquals(result.turns(), Arrays.stream(result.playerTurns()).sum());
+        int cards = 0;
+        for (int id = 1; id <= 2; id++) {
+            cards += result.handOf(id).length + result.deckOf(id).length;
+        }
+        assertEquals(16, cards, "Every card should be in a hand or a deck");
+        assertFalse(Files.exists(Paths.get("player1_output.txt")), "No files without a log directory");
+    }
+
+    // Cancelling an unwinnable game ends it, and its players stop
+    @Test
+    public void testStartAsyncCancellation() throws Exception {
+        int[] pack = IntStream.range(0, 48).map(i -> i / 3).toArray();
+        AtomicReference<Thread> driver = new AtomicReference<>();
+        GameConfig config = new GameConfig(6, pack);
+        config.setExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            driver.set(thread);
+            thread.start();
+        });
+        CompletableFuture<GameResult> future = CardGame.startAsync(config);
+        Thread.sleep(100);
+        assertTrue(future.cancel(true));
+        assertThrows(CancellationException.class, future::join);
+        driver.get().join(5000);
+        assertFalse(driver.get().isAlive(), "The game should stop once cancelled");
+    }
+
+    // Many games at once, none of them holding a thread of the caller's
+    @Test
+    public void testManyAsyncGames() {
+        List<CompletableFuture<GameResult>> futures = new ArrayList<>();
+        for (int game = 0; game < 200; game++) {
+            int[] pack = IntStream.range(0, 40).map(i -> i % 5 + 1).toArray();
+            GameConfig config = new GameConfig(5, pack);
+            config.setDiscardStrategy(id -> new RandomDiscard(id));
+            config.setMaxTurns(100_000);
+            futures.add(CardGame.startAsync(config));
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> all.get());
+        for (CompletableFuture<GameResult> future : futures) {
+            GameResult result = future.join();
+            assertTrue(result.hasWinner() || result.outcome() == GameOutcome.TURN_LIMIT, result.toString());
+        }
+    }
+
+    @Test
+    public void testStartAsyncWithLogDirectoryAndBadPack() throws Exception {
+        Path directory = Files.createTempDirectory("async_game");
+        GameConfig config = new GameConfig(2, twoPlayerPack());
+        config.setLogDirectory(directory);
+        CardGame.startAsync(config).get(5, TimeUnit.SECONDS);
+        assertTrue(Files.readString(directory.resolve("player1_output.txt")).contains("Player 1 wins with hand: 1 1 1 1"));
+        assertTrue(Files.exists(directory.resolve("deck2_output.txt")));
+
+        Path badPack = Paths.get("test_async_bad_pack.txt");
+        Files.write(badPack, Arrays.asList("1", "2", "3"));
+        CompletableFuture<GameResult> future = CardGame.startAsync(new GameConfig(2, badPack));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException, e.getCause().toString());
+    }
+
     /**
      * Helper method to generate a pack of cards.
      *
@@ -1,3 +1,5 @@
+package spoons;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -1,3 +1,5 @@
+package spoons;
+
 import org.junit.jupiter.api.Test;
 
 
@@ -53,6 +55,35 @@ class DeckTest {
         assertTrue(cards.contains(card3), "Card should contain card 3");
     }
 
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new Deck(1, 5).getCapacity(), "Capacity 5 should round up to 8");
+        assertEquals(Deck.DEFAULT_CAPACITY, new Deck(1).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new Deck(1, 0));
+    }
+
+    @Test
+    void fullDeckRejectsCards() {
+        Deck deck = new Deck(1, 2);
+        deck.addCard(new Card(1));
+        assertTrue(deck.tryAdd(new Card(2)), "Second card should fit");
+        assertTrue(deck.isFull(), "Deck should be full");
+        assertFalse(deck.tryAdd(new Card(3)), "Third card should not fit");
+        assertThrows(IllegalStateException.class, () -> deck.addCard(new Card(3)));
+
+        assertEquals(1, deck.tryDraw().value(), "Drawing should free a slot");
+        assertTrue(deck.tryAdd(new Card(3)), "Card should fit after a draw");
+        assertEquals(List.of(new Card(2), new Card(3)), deck.getCards(), "Snapshot should be in draw order after wrapping");
+    }
+
+    @Test
+    void tryDrawOnEmptyDeck() {
+        Deck deck = new Deck(1);
+        assertNull(deck.tryDraw(), "Empty deck should return null");
+        assertTrue(deck.isEmpty());
+        assertEquals(0, deck.size());
+    }
+
     // Multithreaded tests, tests a maximum of 2 threads/players as this is the maximum a deck should be interacting with.
     @Test
     void twoThreadedDrawAndAdd() throws InterruptedException {
@@ -92,4 +123,94 @@ class DeckTest {
         assertNotEquals(initialDeck, finalDeck,"The final deck should be different was what it was initially");
     }
 
+    @Test
+    void takeCardParksUntilCardAdded() throws InterruptedException {
+        Deck deck = new Deck(1);
+        Card[] taken = new Card[1];
+        Thread consumer = new Thread(() -> taken[0] = deck.takeCard());
+        consumer.start();
+
+        // Give the consumer time to park on the empty deck
+        Thread.sleep(50);
+        assertTrue(consumer.isAlive(), "Consumer should be parked on the empty deck");
+
+        deck.addCard(new Card(7));
+        consumer.join(5000);
+        assertFalse(consumer.isAlive(), "Adding a card should wake the consumer");
+        assertEquals(new Card(7), taken[0]);
+        assertTrue(deck.getEmptyStalls() >= 1, "The wait should be counted as a stall");
+        assertTrue(deck.getEmptyStallNanos() >= 40_000_000L, "Stall time should cover the sleep");
+        assertEquals(0, deck.getFullStalls());
+    }
+
+    // Spinning and adaptive waits hand the card over without ever parking when it comes quickly
+    @Test
+    void awaitCardSpinsBeforeParking() throws InterruptedException {
+        for (WaitPolicy policy : new WaitPolicy[]{WaitPolicy.SPIN, WaitPolicy.ADAPTIVE}) {
+            Deck deck = new Deck(1);
+            boolean[] arrived = new boolean[1];
+            Thread consumer = new Thread(() -> arrived[0] = deck.awaitCard(policy, () -> false));
+            consumer.start();
+            deck.addCard(new Card(7));
+            consumer.join(5000);
+            assertFalse(consumer.isAlive(), policy + " should see the card");
+            assertTrue(arrived[0]);
+        }
+
+        Deck spinning = new Deck(1);
+        assertFalse(spinning.awaitCard(WaitPolicy.SPIN, () -> true), "A spinner should stop when told to");
+        assertFalse(spinning.awaitCard(WaitPolicy.PARK, () -> true), "Nothing should park once told to stop");
+        assertEquals(0, spinning.getEmptyStalls());
+    }
+
+    // An adaptive wait parks once its spinning and yielding are used up, and the next card unparks it
+    @Test
+    void adaptiveWaitParksWhenNoCardComes() throws InterruptedException {
+        Deck deck = new Deck(1);
+        boolean[] arrived = new boolean[1];
+        Thread consumer = new Thread(() -> arrived[0] = deck.awaitCard(WaitPolicy.ADAPTIVE, () -> false));
+        consumer.start();
+
+        Thread.sleep(50);
+        assertEquals(Thread.State.WAITING, consumer.getState(), "Consumer should have parked");
+        deck.addCard(new Card(7));
+        consumer.join(5000);
+        assertFalse(consumer.isAlive(), "Adding a card should wake the consumer");
+        assertTrue(arrived[0]);
+        assertEquals(1, deck.getEmptyStalls(), "Only the park should be counted as a stall");
+        assertThrows(IllegalArgumentException.class, () -> WaitPolicy.fromName("sleep"));
+        assertEquals(WaitPolicy.ADAPTIVE, WaitPolicy.fromName(" Adaptive "));
+    }
+
+    // One producer and one consumer pushing many cards through a small deck, in order and without losses.
+    @Test
+    void producerConsumerKeepOrderThroughSmallDeck() throws InterruptedException {
+        int numCards = 100_000;
+        Deck deck = new Deck(1, 4);
+        int[] received = new int[numCards];
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < numCards; i++) {
+                while (!deck.awaitSpace()) {
+                    Thread.onSpinWait();
+                }
+                deck.addCard(new Card(i));
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            for (int i = 0; i < numCards; i++) {
+                received[i] = deck.takeCard().value();
+            }
+        });
+        producer.start();
+        consumer.start();
+        producer.join();
+        consumer.join();
+
+        for (int i = 0; i < numCards; i++) {
+            assertEquals(i, received[i], "Cards should arrive in the order they were added");
+        }
+        assertTrue(deck.isEmpty(), "Every card should have been drawn");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class DiscardStrategyTest {
+
+    private static Hand handOf(int... values) {
+        Hand hand = new Hand();
+        for (int value : values) {
+            hand.add(value);
+        }
+        return hand;
+    }
+
+    private static int discard(DiscardStrategy strategy, Hand hand, int preferred) {
+        return hand.removeSlot(strategy.chooseDiscard(hand, preferred));
+    }
+
+    @Test
+    void preferredDiscardsOldestNonPreferredCard() {
+        DiscardStrategy strategy = new PreferredDiscard();
+        Hand hand = handOf(1, 1, 4, 2, 1);
+        assertEquals(4, discard(strategy, hand, 1));
+        assertEquals("1 1 2 1", hand.toString());
+
+        Hand noPreferred = handOf(6, 7, 8);
+        assertEquals(6, discard(strategy, noPreferred, 1));
+
+        Hand allPreferred = handOf(1, 1);
+        assertEquals(1, discard(strategy, allPreferred, 1), "All preferred should discard the first card");
+    }
+
+    @Test
+    void leastFrequentDiscardsRarestValue() {
+        DiscardStrategy strategy = new LeastFrequentDiscard();
+        Hand hand = handOf(5, 5, 6, 9, 9);
+        assertEquals(6, discard(strategy, hand, 1));
+
+        // Tie between 6 and 8, 6 was received first
+        Hand tie = handOf(8, 6, 6, 8, 3, 3);
+        assertEquals(8, discard(strategy, tie, 3));
+        assertEquals("6 6 8 3 3", tie.toString());
+
+        Hand onlyPreferred = handOf(2, 2, 2);
+        assertEquals(2, discard(strategy, onlyPreferred, 2));
+    }
+
+    @Test
+    void adaptiveSwitchesToValueHeldMost() {
+        AdaptiveDiscard strategy = new AdaptiveDiscard();
+        Hand hand = handOf(1, 7, 7, 7, 2);
+        assertEquals(1, discard(strategy, hand, 1), "Three 7s should beat the single preferred 1");
+        assertEquals(7, strategy.getTarget());
+
+        // A tie doesn't move the target
+        hand.removeSlot(hand.oldestSlotOf(7));
+        hand.add(2);
+        assertEquals(2, discard(strategy, hand, 1), "Two 2s shouldn't replace two 7s");
+        assertEquals(7, strategy.getTarget());
+    }
+
+    @Test
+    void randomIsSeededAndKeepsPreferred() {
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+        for (List<Integer> discards : List.of(first, second)) {
+            DiscardStrategy strategy = new RandomDiscard(42);
+            for (int i = 0; i < 100; i++) {
+                Hand hand = handOf(1, 2, 1, 3, 4);
+                int value = discard(strategy, hand, 1);
+                assertNotEquals(1, value, "Preferred cards should be kept");
+                discards.add(value);
+            }
+        }
+        assertEquals(first, second, "Same seed should make the same choices");
+        assertTrue(first.containsAll(List.of(2, 3, 4)), "Every other card should be picked sometimes");
+    }
+
+    // A strategy set through the game should be used by every player for the whole game
+    @Test
+    void gameRunsWithEveryStrategy() {
+        List<DiscardStrategy> strategies = List.of(new PreferredDiscard(), new LeastFrequentDiscard(),
+                new AdaptiveDiscard(), new RandomDiscard(7));
+        for (DiscardStrategy template : strategies) {
+            // Player 1 holds no 1s and deck 1 holds four, every strategy keeps them
+            CardGame game = new CardGame(2, twoPlayerPack());
+            game.setLoggingEnabled(false);
+            game.setDiscardStrategy(id -> switch (template) {
+                case LeastFrequentDiscard ignored -> new LeastFrequentDiscard();
+                case AdaptiveDiscard ignored -> new AdaptiveDiscard();
+                case RandomDiscard ignored -> new RandomDiscard(7 + id);
+                default -> new PreferredDiscard();
+            });
+            game.initialiseGame();
+            for (Player player : game.getPlayers()) {
+                assertEquals(template.getClass(), player.getDiscardStrategy().getClass());
+            }
+            assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame,
+                    template.getClass().getSimpleName() + " game should finish");
+            assertEquals(List.of(new Card(1), new Card(1), new Card(1), new Card(1)), game.getPlayers().get(0).getHand(),
+                    template.getClass().getSimpleName() + " should collect the 1s");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class GameBatchTest {
+
+    @Test
+    void playsTheSameGamesAsTheSimulator() {
+        for (int numPlayers : new int[]{1, 2, 3, 6, 20}) {
+            int[] pack = new int[numPlayers * 8];
+            for (int i = 0; i < pack.length; i++) {
+                pack[i] = i % (numPlayers + 1) + 1;
+            }
+            List<SimulationResult> expected = GameSimulator.runBatch(numPlayers, pack, 3000, 42L, 100_000);
+            try (GameBatch batch = new GameBatch(3000, numPlayers)) {
+                batch.dealShuffled(pack, 42L, ForkJoinPool.commonPool());
+                batch.play(100_000, ForkJoinPool.commonPool());
+                for (int game = 0; game < 3000; game++) {
+                    assertEquals(expected.get(game), batch.result(game), numPlayers + " players, game " + game);
+                }
+            }
+        }
+    }
+
+    @Test
+    void dealtWinningHandWinsImmediately() {
+        try (GameBatch batch = new GameBatch(2, 2)) {
+            batch.deal(0, new int[]{1, 2, 3, 4, 7, 7, 7, 7, 1, 1, 1, 1, 2, 2, 2, 2});
+            batch.deal(1, twoPlayerPack());
+            assertTrue(batch.isFinished(0));
+            assertEquals(2, batch.getWinnerId(0));
+            assertFalse(batch.isFinished(1));
+
+            batch.play(1, 1000);
+            assertEquals(1, batch.getWinnerId(1));
+            assertEquals(7, batch.getTurns(1), "Player 1 should win on the seventh turn overall");
+            assertArrayEquals(new int[]{1, 1, 1, 1}, batch.result(1).handOf(1));
+        }
+    }
+
+    // Stopping at a turn limit and carrying on gives the same game as playing it in one go
+    @Test
+    void resumesFromTheSameSeat() {
+        int[] pack = new int[8 * 5];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i % 5 + 1;
+        }
+        try (GameBatch batch = new GameBatch(100, 5); ForkJoinPool pool = new ForkJoinPool(2)) {
+            batch.dealShuffled(pack, 7L, pool);
+            for (long limit = 1; limit < 10_000; limit += 3) {
+                batch.play(limit, pool);
+            }
+            List<SimulationResult> expected = GameSimulator.runBatch(5, pack, 100, 7L, 10_000);
+            for (int game = 0; game < 100; game++) {
+                if (expected.get(game).hasWinner()) {
+                    assertEquals(expected.get(game), batch.result(game));
+                }
+            }
+        }
+    }
+
+    @Test
+    void unwinnablePackStopsAtTurnLimit() {
+        int[] pack = new int[32];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i / 3;
+        }
+        try (GameBatch batch = new GameBatch(1, 4)) {
+            batch.deal(0, pack);
+            batch.play(0, 10_000);
+            assertFalse(batch.isFinished(0));
+            assertEquals(SimulationResult.NO_WINNER, batch.getWinnerId(0));
+            assertEquals(10_000, batch.getTurns(0));
+            assertEquals(new GameSimulator(4).simulate(pack, 10_000), batch.result(0));
+        }
+    }
+
+    @Test
+    void memoryIsFlatPerGame() {
+        try (GameBatch small = new GameBatch(1000, 4); GameBatch large = new GameBatch(100_000, 4)) {
+            assertEquals(small.byteSize() * 100, large.byteSize());
+            // 4 hands of 4, 4 decks of 16, 2 bytes of ring index per deck, outcome, seat and turns
+            assertEquals(1000L * (4 * 4 * 4 + 4 * 16 * 4 + 4 * 2 + 16), small.byteSize());
+        }
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GameBatch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new GameBatch(1, 0));
+        try (GameBatch batch = new GameBatch(1, 4)) {
+            assertThrows(IllegalArgumentException.class, () -> batch.deal(0, new int[10]));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.quiet;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.unwinnablePack;
+
+class GameCheckpointTest {
+
+    private static int[] sortedCards(GameCheckpoint checkpoint) {
+        return Stream.concat(Arrays.stream(checkpoint.hands()), Arrays.stream(checkpoint.decks()))
+                .flatMapToInt(Arrays::stream).sorted().toArray();
+    }
+
+    private static GameCheckpoint sample() {
+        int[][] hands = {{1, 2, 3, 4}, {-5, 6, 70000, 8}, {9, 9, 9, 10}};
+        int[][] decks = {{11, 12}, {}, {13, 14, 15, 16, 17, 18, 19, 20, 21, 22}};
+        return new GameCheckpoint(hands, decks, 123_456_789_012L, new long[]{40_000_000_000L, 1, 0});
+    }
+
+    @Test
+    void writeAndReadBack() throws IOException {
+        Path file = Files.createTempDirectory("checkpoint").resolve("game.ckpt");
+        GameCheckpoint checkpoint = sample();
+        checkpoint.write(file);
+        assertEquals(checkpoint, GameCheckpoint.read(file));
+        // 20 bytes of header and checksum, a byte for each small value and a few more for 70000 and the turn counts
+        assertEquals(66, Files.size(file), "Small values should take a byte each");
+        assertFalse(Files.exists(file.resolveSibling("game.ckpt.tmp")), "The temporary file should be moved into place");
+    }
+
+    @Test
+    void rejectsDamagedFiles() throws IOException {
+        Path file = Files.createTempDirectory("checkpoint").resolve("game.ckpt");
+        sample().write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[20] ^= 1;
+        Files.write(file, flipped);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> GameCheckpoint.read(file));
+        assertTrue(e.getMessage().startsWith("Invalid checkpoint:"), e.getMessage());
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 6));
+        assertThrows(IllegalArgumentException.class, () -> GameCheckpoint.read(file));
+
+        Files.write(file, Arrays.asList("1", "2", "3"));
+        e = assertThrows(IllegalArgumentException.class, () -> GameCheckpoint.read(file));
+        assertEquals("Invalid checkpoint: not a checkpoint file.", e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> new GameCheckpoint(new int[][]{{1, 1, 1}},
+                new int[][]{{1, 2, 3, 4, 5}}, 0, new long[1]), "Hands hold 4 cards between turns");
+    }
+
+    // A torn copy would lose or duplicate a card in flight, or catch a hand with 5 cards
+    @Test
+    void checkpointsOfARunningGameAreConsistent() throws InterruptedException {
+        for (ThreadMode mode : ThreadMode.values()) {
+            int[] pack = unwinnablePack(16);
+            int[] expected = pack.clone();
+            Arrays.sort(expected);
+            CardGame game = quietGame(pack);
+            game.setThreadMode(mode);
+            game.setMaxWallTime(300);
+            game.initialiseGame();
+            Thread players = new Thread(game::startGame);
+            players.start();
+
+            // Checkpoint for as long as the game runs, the first game can take a while to get going
+            long lastTurns = -1;
+            while (players.isAlive()) {
+                GameCheckpoint checkpoint = game.checkpoint();
+                assertArrayEquals(expected, sortedCards(checkpoint), mode.toString());
+                assertEquals(checkpoint.totalTurns(), Arrays.stream(checkpoint.playerTurns()).sum(), mode.toString());
+                assertTrue(checkpoint.totalTurns() >= lastTurns);
+                lastTurns = checkpoint.totalTurns();
+                Thread.sleep(2);
+            }
+            players.join(10_000);
+            assertFalse(players.isAlive());
+            assertTrue(lastTurns > 0, mode + " should have played while being checkpointed");
+        }
+    }
+
+    @Test
+    void resumedGameStartsWhereTheCheckpointWas() {
+        CardGame game = quietGame(unwinnablePack(6));
+        game.setMaxTurns(1000);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+        GameCheckpoint checkpoint = game.checkpoint();
+        assertTrue(checkpoint.totalTurns() >= 1000);
+
+        CardGame resumed = quiet(CardGame.resume(checkpoint));
+        assertThrows(IllegalStateException.class, resumed::checkpoint);
+        resumed.initialiseGame();
+        assertEquals(checkpoint, resumed.checkpoint(), "Every hand, deck and count should be restored in order");
+
+        resumed.setMaxTurns(checkpoint.totalTurns() + 2000);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), resumed::startGame);
+        GameResult result = resumed.getResult();
+        assertEquals(GameOutcome.TURN_LIMIT, result.outcome());
+        assertTrue(result.turns() >= checkpoint.totalTurns() + 2000, "Turn counts carry on from the checkpoint");
+        assertArrayEquals(sortedCards(checkpoint), sortedCards(resumed.checkpoint()));
+    }
+
+    @Test
+    void resumedFromAFileTheWinnerStillWins() throws IOException {
+        int[][] hands = {{3, 4, 5, 6}, {2, 2, 2, 7}, {8, 9, 10, 11}};
+        int[][] decks = {{12, 13, 14}, {2, 15, 16, 17, 18}, {19, 20, 21, 22}};
+        Path file = Files.createTempDirectory("checkpoint").resolve("game.ckpt");
+        new GameCheckpoint(hands, decks, 500, new long[]{200, 200, 100}).write(file);
+
+        CardGame game = quiet(CardGame.resume(GameCheckpoint.read(file)));
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+        assertEquals(2, game.getWinnerId(), "Player 2 draws the last 2 from the top of its deck");
+        assertTrue(game.getMetrics().getTotalTurns() > 500);
+    }
+}
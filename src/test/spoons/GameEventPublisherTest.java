@@ -0,0 +1,290 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.twoPlayerPack;
+import static spoons.TestFixtures.unwinnablePack;
+
+class GameEventPublisherTest {
+
+    // Records what it is sent, requesting a fixed batch at a time, or nothing until told to if the batch is 0
+    private static class Recorder implements Flow.Subscriber<GameEvent> {
+        final List<GameEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicInteger batchStarts = new AtomicInteger();
+        private final long batch;
+        volatile Flow.Subscription subscription;
+        private long outstanding;
+
+        Recorder(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                outstanding = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(GameEvent event) {
+            events.add(event);
+            if (batch > 0 && --outstanding == 0) {
+                batchStarts.incrementAndGet();
+                outstanding = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(completed.await(10, TimeUnit.SECONDS), "Subscriber should be completed");
+        }
+
+        int[] cards() {
+            return events.stream().mapToInt(GameEvent::card).toArray();
+        }
+    }
+
+    private static void publishDraws(GameEventPublisher publisher, int count) {
+        for (int card = 1; card <= count; card++) {
+            assertTrue(publisher.publish(GameEvent.draw(1, 2, card)));
+        }
+    }
+
+    private static int[] range(int from, int to) {
+        int[] values = new int[to - from + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i;
+        }
+        return values;
+    }
+
+    @Test
+    void deliversEveryEventInOrderInRequestedBatches() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher();
+        Recorder recorder = new Recorder(10);
+        publisher.subscribe(recorder, 16, GameEventPublisher.Backpressure.BLOCK);
+        assertTrue(publisher.hasSubscribers());
+
+        publishDraws(publisher, 1000);
+        publisher.close();
+        recorder.await();
+
+        assertArrayEquals(range(1, 1000), recorder.cards());
+        assertEquals(100, recorder.batchStarts.get(), "Demand should be renewed once per batch");
+        assertNull(recorder.error.get());
+        assertEquals(0, publisher.getDropped());
+        assertFalse(publisher.publish(GameEvent.draw(1, 2, 1001)), "A closed publisher takes no more events");
+    }
+
+    @Test
+    void dropKeepsTheOldestEvents() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher();
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder, 4, GameEventPublisher.Backpressure.DROP);
+        publishDraws(publisher, 20);
+        publisher.close();  // Every event has been offered to the subscription once this returns
+
+        assertEquals(16, publisher.getDropped());
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.await();
+        assertArrayEquals(range(1, 4), recorder.cards());
+    }
+
+    @Test
+    void sampleKeepsTheLatestEvents() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher();
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder, 4, GameEventPublisher.Backpressure.SAMPLE);
+        publishDraws(publisher, 20);
+        publisher.close();
+
+        assertEquals(16, publisher.getDropped());
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.await();
+        assertArrayEquals(range(17, 20), recorder.cards());
+    }
+
+    // The publisher's caller goes on while the dispatcher waits for the subscriber
+    @Test
+    void blockLosesNothingAndNeverBlocksThePublisher() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher();
+        Recorder recorder = new Recorder(0);
+        Recorder fast = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder, 4, GameEventPublisher.Backpressure.BLOCK);
+        publisher.subscribe(fast, 1024, GameEventPublisher.Backpressure.DROP);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> publishDraws(publisher, 500));
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        publisher.close();
+        recorder.await();
+        fast.await();
+        assertArrayEquals(range(1, 500), recorder.cards());
+        assertArrayEquals(range(1, 500), fast.cards());
+    }
+
+    @Test
+    void fullQueueDropsInsteadOfWaiting() {
+        GameEventPublisher publisher = new GameEventPublisher(8, Runnable::run);
+        // Not subscribed, so there is no dispatcher and the queue only fills
+        for (int card = 1; card <= 8; card++) {
+            assertTrue(publisher.publish(GameEvent.draw(1, 1, card)));
+        }
+        assertFalse(publisher.publish(GameEvent.draw(1, 1, 9)));
+        assertEquals(1, publisher.getDropped());
+    }
+
+    // A lossless subscriber gets every event while a stalled BLOCK subscriber makes the queue overflow
+    @Test
+    void losslessSubscriberMissesNothingWhenTheQueueIsFull() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher(8, runnable -> Thread.ofVirtual().start(runnable));
+        Recorder stalled = new Recorder(0);
+        Recorder lossless = new Recorder(10);
+        publisher.subscribe(stalled, 4, GameEventPublisher.Backpressure.BLOCK);
+        publisher.subscribeLossless(lossless);
+        assertEquals(2, publisher.getNumberOfSubscribers());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int card = 1; card <= 1000; card++) {
+                publisher.publish(GameEvent.draw(1, 2, card));
+            }
+        });
+        assertTrue(publisher.getDropped() > 0, "The stalled subscriber should have filled the queue");
+
+        publisher.shutdown();
+        lossless.await();
+        assertArrayEquals(range(1, 1000), lossless.cards());
+        assertNull(lossless.error.get());
+        stalled.subscription.cancel();
+    }
+
+    @Test
+    void badRequestAndLateSubscriber() throws InterruptedException {
+        GameEventPublisher publisher = new GameEventPublisher();
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        recorder.subscription.request(0);
+        recorder.await();
+        assertTrue(recorder.error.get() instanceof IllegalArgumentException);
+        assertEquals(0, publisher.getNumberOfSubscribers(), "A bad request cancels the subscription");
+
+        publisher.close();
+        Recorder late = new Recorder(1);
+        publisher.subscribe(late);
+        late.await();
+        assertTrue(late.events.isEmpty());
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    // A subscriber that takes a long time over every event must not hold up the game
+    @Test
+    void gameEventsReachASlowSubscriberWithoutSlowingTheGame() throws InterruptedException {
+        CardGame game = quietGame(twoPlayerPack());
+        Recorder everything = new Recorder(Long.MAX_VALUE);
+        Recorder slow = new Recorder(1) {
+            @Override
+            public void onNext(GameEvent event) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onNext(event);
+            }
+        };
+        game.getEvents().subscribe(everything, 1024, GameEventPublisher.Backpressure.BLOCK);
+        game.getEvents().subscribe(slow, 1, GameEventPublisher.Backpressure.SAMPLE);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+        everything.await();
+
+        List<GameEvent> events = everything.events;
+        GameEvent win = events.stream().filter(e -> e.type() == GameEvent.Type.WIN).findFirst().orElseThrow();
+        assertEquals(1, win.playerId());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, win.hand());
+        assertEquals(2, events.stream().filter(e -> e.type() == GameEvent.Type.EXIT).count());
+        long draws = events.stream().filter(e -> e.type() == GameEvent.Type.DRAW).count();
+        assertEquals(game.getMetrics().getTotalTurns(), draws);
+        assertEquals(draws, events.stream().filter(e -> e.type() == GameEvent.Type.DISCARD).count());
+
+        slow.await();  // Ends with the latest events once the game is over
+        assertEquals(GameEvent.Type.EXIT, slow.events.getLast().type());
+    }
+
+    // Nobody asks the BLOCK subscriber for anything, and the game still ends with every line in the log files
+    @Test
+    void aStalledBlockSubscriberDoesNotHoldUpTheGame() throws Exception {
+        int numPlayers = 16;
+        CardGame game = new CardGame(numPlayers, unwinnablePack(numPlayers));
+        game.setAnnouncing(false);
+        game.setMaxTurns(100_000);
+        Recorder stalled = new Recorder(0);
+        game.getEvents().subscribe(stalled, 4, GameEventPublisher.Backpressure.BLOCK);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(60), game::startGame);
+        assertTrue(game.getEvents().getDropped() > 0, "The queue should have overflowed");
+
+        long draws = 0;
+        for (int i = 1; i <= numPlayers; i++) {
+            String logged = Files.readString(Paths.get("player" + i + "_output.txt"));
+            draws += logged.lines().filter(line -> line.contains(" draws a ")).count();
+            assertTrue(logged.contains("The game ended without a winner"), "player" + i + " should log the ending");
+        }
+        assertEquals(game.getMetrics().getTotalTurns(), draws);
+        stalled.subscription.cancel();  // Lets the dispatcher finish
+    }
+
+    // A long game overflows the event queue many times over, and the log files still have every line.
+    // The journal is written on the players' own threads, so the logs it regenerates are the lossless reference
+    @Test
+    void logFilesMatchTheJournalOnALongGame() throws Exception {
+        int numPlayers = 16;
+        Path journal = Files.createTempFile("long_game", ".journal");
+        CardGame game = new CardGame(numPlayers, unwinnablePack(numPlayers));
+        game.setAnnouncing(false);
+        game.setJournalPath(journal);
+        game.setMaxTurns(200_000);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(60), game::startGame);
+        assertEquals(0, game.getEvents().getDropped());
+
+        Path directory = Files.createTempDirectory("replay");
+        JournalReplay.open(journal).writeLogs(directory, Long.MAX_VALUE);
+        for (int i = 1; i <= numPlayers; i++) {
+            String name = "player" + i + "_output.txt";
+            String logged = Files.readString(Paths.get(name));
+            String replayed = Files.readString(directory.resolve(name));
+            assertTrue(logged.startsWith(replayed), name + " should have every draw and discard the journal has");
+            assertTrue(logged.substring(replayed.length()).startsWith("The game ended without a winner"),
+                    name + " should have nothing else but the ending");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.cardsOf;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class GameJournalTest {
+
+    // Journals and log files go here, removed after each test
+    @TempDir
+    Path directory;
+
+    private CardGame newGame(int numPlayers, int[] values, Path journalPath) {
+        CardGame game = new CardGame(numPlayers, cardsOf(values));
+        game.setJournalPath(journalPath);
+        game.setLogDirectory(directory);
+        return game;
+    }
+
+    @Test
+    void journalsDealTurnsAndWinner() throws Exception {
+        Path path = directory.resolve("game.journal");
+        CardGame game = newGame(2, twoPlayerPack(), path);
+        game.setLoggingEnabled(false);
+        game.initialiseGame();
+        assertEquals(16, game.getJournal().size(), "Every dealt card should be journalled");
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+
+        JournalReplay replay = JournalReplay.open(path);
+        assertEquals(2, replay.getNumPlayers());
+        assertEquals(game.getJournal().size(), replay.getRecordCount());
+        assertEquals(GameJournal.HEADER_SIZE + replay.getRecordCount() * GameJournal.RECORD_SIZE, Files.size(path),
+                "Unused space should be trimmed");
+
+        JournalReplay.State dealt = replay.replay(16);
+        assertArrayEquals(new int[]{2, 3, 4, 5}, dealt.hands()[0]);
+        assertArrayEquals(new int[]{6, 7, 8, 9}, dealt.hands()[1]);
+        assertArrayEquals(new int[]{1, 1, 1, 1}, dealt.decks()[0]);
+        assertArrayEquals(new int[]{10, 11, 12, 13}, dealt.decks()[1]);
+        assertEquals(CardGame.NO_WINNER, dealt.winnerId());
+
+        JournalReplay.State end = replay.replay(replay.getRecordCount());
+        assertEquals(1, end.winnerId());
+        assertArrayEquals(new int[]{1, 1, 1, 1}, end.hands()[0]);
+        assertArrayEquals(game.getPlayers().get(1).getHand().stream().mapToInt(Card::value).toArray(), end.hands()[1]);
+        for (int i = 0; i < 2; i++) {
+            assertArrayEquals(game.getDecks().get(i).getCards().stream().mapToInt(Card::value).toArray(), end.decks()[i]);
+        }
+    }
+
+    @Test
+    void replayStopsAtAnySequence() throws Exception {
+        Path path = directory.resolve("game.journal");
+        CardGame game = newGame(2, twoPlayerPack(), path);
+        game.setLoggingEnabled(false);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+
+        JournalReplay replay = JournalReplay.open(path);
+        for (long sequence = 0; sequence <= replay.getRecordCount(); sequence++) {
+            JournalReplay.State state = replay.replay(sequence);
+            assertEquals(sequence, state.sequence());
+            int cards = 0;
+            for (int i = 0; i < 2; i++) {
+                cards += state.hands()[i].length + state.decks()[i].length;
+                if (sequence >= 16) {
+                    assertTrue(state.hands()[i].length == 4 || state.hands()[i].length == 5,
+                            "A hand only holds a fifth card between a draw and a discard");
+                }
+            }
+            assertEquals(Math.min(sequence, 16), cards, "Cards should only move between hands and decks");
+        }
+    }
+
+    @Test
+    void regeneratesTheGamesLogFiles() throws Exception {
+        Path path = directory.resolve("game.journal");
+        // Random discards with three values keep every player busy for a while before someone wins
+        int[] values = new int[24];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 + 1;
+        }
+        CardGame game = newGame(3, values, path);
+        game.setDiscardStrategy(id -> new RandomDiscard(42 + id));
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+        Path replayed = Files.createDirectory(directory.resolve("replay"));
+        JournalReplay.State state = JournalReplay.open(path).writeLogs(replayed, Long.MAX_VALUE);
+        assertEquals(game.getWinnerId(), state.winnerId());
+        for (int i = 1; i <= 3; i++) {
+            for (String name : new String[]{"player" + i + "_output.txt", "deck" + i + "_output.txt"}) {
+                assertEquals(Files.readString(directory.resolve(name)), Files.readString(replayed.resolve(name)),
+                        name + " should be regenerated exactly");
+            }
+        }
+    }
+
+    // A journal whose writer was never closed still replays, up to the zero filled rest of its last segment
+    @Test
+    void replaysAJournalThatWasNeverClosed() throws Exception {
+        Path path = directory.resolve("unclosed.journal");
+        GameJournal journal = new GameJournal(path, 2);
+        int[] pack = twoPlayerPack();
+        for (int i = 0; i < pack.length; i++) {
+            if (i < 8) {
+                journal.recordDealToPlayer(i / 4 + 1, pack[i]);
+            } else {
+                journal.recordDealToDeck((i - 8) / 4 + 1, pack[i]);
+            }
+        }
+        journal.recordDraw(1, 1, 1);
+        journal.recordDiscard(1, 2, 2, 0);
+        assertTrue(Files.size(path) > GameJournal.HEADER_SIZE + 18L * GameJournal.RECORD_SIZE,
+                "The file should have room for records that were never written");
+
+        JournalReplay replay = JournalReplay.open(path);
+        assertEquals(18, replay.getRecordCount());
+        JournalReplay.State end = replay.replay(replay.getRecordCount());
+        assertArrayEquals(new int[]{3, 4, 5, 1}, end.hands()[0]);
+        assertArrayEquals(new int[]{1, 1, 1}, end.decks()[0]);
+        assertArrayEquals(new int[]{10, 11, 12, 13, 2}, end.decks()[1]);
+        journal.close();
+    }
+
+    @Test
+    void rejectsFilesThatAreNotJournals() throws Exception {
+        Path path = directory.resolve("not_a.journal");
+        Files.writeString(path, "1\n2\n3\n");
+        assertThrows(IllegalArgumentException.class, () -> JournalReplay.open(path));
+    }
+}
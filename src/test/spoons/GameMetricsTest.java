@@ -0,0 +1,97 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class GameMetricsTest {
+
+    private static CardGame finishedGame(boolean logging) {
+        CardGame game = new CardGame(2, twoPlayerPack());
+        game.setLoggingEnabled(logging);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+        return game;
+    }
+
+    @Test
+    void snapshotCountsEveryTurn() {
+        CardGame game = finishedGame(true);
+        MetricsSnapshot snapshot = game.getMetrics().snapshot();
+
+        assertTrue(snapshot.totalTurns() >= 4, "Player 1 needs at least 4 turns to win");
+        assertEquals(snapshot.totalTurns(), snapshot.playerTurns()[0] + snapshot.playerTurns()[1],
+                "Per player turns should add up to the total");
+        assertEquals(snapshot.totalTurns(), snapshot.turnLatency().count());
+        assertEquals(snapshot.totalTurns(), snapshot.drawLatency().count());
+        assertEquals(16 - 8, snapshot.deckDepths()[0] + snapshot.deckDepths()[1], "Decks hold the cards not in hands");
+        assertTrue(snapshot.bytesLogged() > 0, "Logged bytes should be counted once written");
+        assertTrue(snapshot.turnsPerSecond() > 0);
+    }
+
+    @Test
+    void metricsCanBeTurnedOff() {
+        CardGame game = new CardGame(2, twoPlayerPack());
+        game.setLoggingEnabled(false);
+        game.setMetricsEnabled(false);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+
+        MetricsSnapshot snapshot = game.getMetrics().snapshot();
+        assertTrue(snapshot.totalTurns() > 0, "Totals are always counted");
+        assertEquals(snapshot.totalTurns(), snapshot.playerTurns()[0] + snapshot.playerTurns()[1],
+                "Per player turns are always counted too");
+        assertArrayEquals(snapshot.playerTurns(), game.getResult().playerTurns());
+        assertEquals(0, snapshot.turnLatency().count(), "Latencies should not be timed");
+        assertEquals(0, snapshot.bytesLogged());
+    }
+
+    @Test
+    void registersWithJmx() throws Exception {
+        CardGame game = finishedGame(false);
+        ObjectName name = game.getMetrics().register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(game.getMetrics().getTotalTurns(), server.getAttribute(name, "TotalTurns"));
+            assertArrayEquals(new long[]{game.getMetrics().getPlayerTurns()[0], game.getMetrics().getPlayerTurns()[1]},
+                    (long[]) server.getAttribute(name, "PlayerTurns"));
+            assertEquals(name, game.getMetrics().register(), "Registering twice should keep the same name");
+        } finally {
+            game.getMetrics().unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    // Waits for the reports themselves rather than for time to pass, and close waits for the last one
+    @Test
+    void reporterSnapshotsPeriodically() throws InterruptedException {
+        CardGame game = finishedGame(false);
+        List<MetricsSnapshot> reports = new CopyOnWriteArrayList<>();
+        CountDownLatch threeReports = new CountDownLatch(3);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean reportedAfterClose = new AtomicBoolean();
+        GameMetrics.Reporter reporter = game.getMetrics().startReporting(Duration.ofMillis(1), snapshot -> {
+            reportedAfterClose.compareAndSet(false, closed.get());
+            reports.add(snapshot);
+            threeReports.countDown();
+        });
+        try (reporter) {
+            assertTrue(threeReports.await(10, TimeUnit.SECONDS), "Expected several reports");
+        }
+        closed.set(true);
+        assertEquals(0.0, reports.getLast().turnsPerSecondSince(reports.getFirst()), "Finished game takes no more turns");
+        assertTrue(reporter.isClosed());
+        assertFalse(reportedAfterClose.get(), "No report should be delivered once close returns");
+    }
+}
@@ -0,0 +1,74 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class GameSimulatorTest {
+
+    // Player 1 draws the four 1s from deck 1 and discards everything else
+    @Test
+    void playerCollectsPreferredCards() {
+        GameSimulator simulator = new GameSimulator(2);
+        SimulationResult result = simulator.simulate(twoPlayerPack(), 1000);
+
+        assertEquals(1, result.winnerId(), "Player 1 should win");
+        assertArrayEquals(new int[]{1, 1, 1, 1}, result.handOf(1));
+        // Both players move each round, player 1 wins on its fourth turn
+        assertEquals(7, result.turns(), "Player 1 should win on the seventh turn overall");
+    }
+
+    @Test
+    void dealtWinningHandWinsImmediately() {
+        GameSimulator simulator = new GameSimulator(2);
+        SimulationResult result = simulator.simulate(new int[]{1, 2, 3, 4, 7, 7, 7, 7, 1, 1, 1, 1, 2, 2, 2, 2}, 1000);
+
+        assertEquals(2, result.winnerId(), "Player 2 should win with the dealt hand");
+        assertEquals(0, result.turns());
+    }
+
+    // Every value appears at most three times, so nobody can ever hold four of a kind
+    @Test
+    void unwinnablePackStopsAtTurnLimit() {
+        int[] pack = new int[32];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i / 3;
+        }
+        GameSimulator simulator = new GameSimulator(4);
+        SimulationResult result = simulator.simulate(pack, 10_000);
+
+        assertFalse(result.hasWinner(), "Game should not have a winner");
+        assertEquals(10_000, result.turns());
+        assertEquals(16, result.finalHands().length);
+    }
+
+    @Test
+    void rejectsWrongPackSize() {
+        GameSimulator simulator = new GameSimulator(4);
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(new int[10], 100));
+        assertThrows(IllegalArgumentException.class, () -> new GameSimulator(0));
+    }
+
+    // The same seed gives the same games, however the pool splits them up
+    @Test
+    void batchIsReproducible() {
+        int[] pack = new int[8 * 6];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i % 7;
+        }
+
+        List<SimulationResult> parallel = GameSimulator.runBatch(6, pack, 200, 42L, 100_000);
+        List<SimulationResult> serial;
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            serial = GameSimulator.runBatch(6, pack, 200, 42L, 100_000, pool);
+        }
+
+        assertEquals(200, parallel.size());
+        assertEquals(serial, parallel, "Results should not depend on the number of threads");
+        assertNotEquals(parallel.get(0), parallel.get(1), "Each game should get its own shuffle");
+    }
+}
@@ -0,0 +1,95 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.twoPlayerPack;
+import static spoons.TestFixtures.unwinnablePack;
+
+class GameWatchdogTest {
+
+    @Test
+    void turnLimitEndsAnUnwinnableGame() {
+        CardGame game = quietGame(unwinnablePack(4));
+        game.setMaxTurns(2000);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+        assertEquals(GameOutcome.TURN_LIMIT, game.getOutcome());
+        assertEquals(CardGame.NO_WINNER, game.getWinnerId());
+        assertTrue(game.isGameOver());
+        assertTrue(game.getMetrics().getTotalTurns() >= 2000);
+        assertFalse(game.signalWinner(1), "Nobody can be elected after a draw");
+    }
+
+    @Test
+    void timeLimitEndsAnUnwinnableGame() {
+        for (ThreadMode mode : ThreadMode.values()) {
+            CardGame game = quietGame(unwinnablePack(6));
+            game.setThreadMode(mode);
+            game.setMaxWallTime(200);
+            game.initialiseGame();
+            long start = System.nanoTime();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+            assertEquals(GameOutcome.TIME_LIMIT, game.getOutcome(), mode.toString());
+            assertTrue(System.nanoTime() - start >= 200_000_000L);
+        }
+    }
+
+    // A long turn delay means no hand changes for a while, as if every player were stuck
+    @Test
+    void noProgressEndsAStalledGame() {
+        CardGame game = quietGame(unwinnablePack(3));
+        game.setTurnDelay(60_000);
+        game.setNoProgressTimeout(200);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+        assertEquals(GameOutcome.NO_PROGRESS, game.getOutcome());
+        assertEquals(CardGame.NO_WINNER, game.getWinnerId());
+    }
+
+    @Test
+    void drawIsLoggedByEveryPlayer() throws Exception {
+        int[] pack = unwinnablePack(2);
+        CardGame game = new CardGame(2, pack);
+        game.setMaxTurns(100);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+        for (int id = 1; id <= 2; id++) {
+            String log = Files.readString(Paths.get("player" + id + "_output.txt"));
+            assertTrue(log.contains("The game ended without a winner: turn limit reached.\nPlayer " + id + " exits.\n"),
+                    log);
+        }
+    }
+
+    @Test
+    void limitsDoNotStopAGameThatIsWon() {
+        CardGame game = quietGame(twoPlayerPack());
+        game.setMaxTurns(1_000_000);
+        game.setMaxWallTime(60_000);
+        game.setNoProgressTimeout(60_000);
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), game::startGame);
+
+        assertEquals(GameOutcome.WON, game.getOutcome());
+        assertEquals(1, game.getWinnerId());
+        assertFalse(game.declareDraw(GameOutcome.TIME_LIMIT), "A won game can't become a draw");
+    }
+
+    @Test
+    void rejectsNegativeLimits() {
+        CardGame game = quietGame(unwinnablePack(1));
+        assertThrows(IllegalArgumentException.class, () -> game.setMaxTurns(-1));
+        assertThrows(IllegalArgumentException.class, () -> game.setMaxWallTime(-1));
+        assertThrows(IllegalArgumentException.class, () -> game.setNoProgressTimeout(-1));
+        assertThrows(IllegalArgumentException.class, () -> game.declareDraw(GameOutcome.WON));
+    }
+}
@@ -0,0 +1,125 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandTest {
+
+    @Test
+    void keepsCardsInOrder() {
+        Hand hand = new Hand();
+        hand.add(3);
+        hand.add(1);
+        hand.add(2);
+
+        assertEquals(3, hand.size());
+        assertEquals("3 1 2", hand.toString(), "Hand should print like the player logs");
+        assertEquals(List.of(new Card(3), new Card(1), new Card(2)), hand.toCards());
+
+        assertEquals(1, hand.removeAt(1));
+        assertArrayEquals(new int[]{3, 2}, hand.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> hand.removeAt(2));
+    }
+
+    @Test
+    void countsFollowAddsAndRemoves() {
+        Hand hand = new Hand();
+        for (int i = 0; i < 4; i++) {
+            hand.add(Integer.MAX_VALUE);
+        }
+        hand.add(0);
+        assertTrue(hand.hasFourOfAKind(), "Four of any value should win");
+        assertEquals(4, hand.count(Integer.MAX_VALUE));
+
+        hand.removeAt(0);
+        assertFalse(hand.hasFourOfAKind(), "Removing one of the four should no longer win");
+        assertEquals(3, hand.count(Integer.MAX_VALUE));
+        assertEquals(1, hand.count(0));
+        assertEquals(0, hand.count(5));
+    }
+
+    @Test
+    void indexOfFirstNotSkipsValue() {
+        Hand hand = new Hand();
+        hand.add(5);
+        hand.add(5);
+        hand.add(9);
+        assertEquals(2, hand.indexOfFirstNot(5));
+        assertEquals(0, hand.indexOfFirstNot(9));
+
+        Hand same = new Hand();
+        same.add(5);
+        assertEquals(-1, same.indexOfFirstNot(5), "Every card matching should give -1");
+    }
+
+    // Many distinct values force the count table to grow and to shift entries on removal
+    @Test
+    void countsStayCorrectWithManyValues() {
+        Hand hand = new Hand();
+        int numValues = 500;
+        for (int round = 0; round < 3; round++) {
+            for (int v = 0; v < numValues; v++) {
+                hand.add(v * 16);  // Values which collide in a small table
+            }
+        }
+        assertFalse(hand.hasFourOfAKind());
+        hand.add(32);
+        assertTrue(hand.hasFourOfAKind());
+
+        // Remove the first round of every value
+        for (int v = 0; v < numValues; v++) {
+            assertEquals(v * 16, hand.removeAt(0));
+        }
+        assertFalse(hand.hasFourOfAKind(), "Value 32 should be down to three cards");
+        for (int v = 0; v < numValues; v++) {
+            assertEquals(v == 2 ? 3 : 2, hand.count(v * 16), "Count of " + v * 16);
+        }
+    }
+
+    @Test
+    void bucketsTrackOldestCardOfEachValue() {
+        Hand hand = new Hand();
+        int firstSeven = hand.add(7);
+        hand.add(3);
+        int secondSeven = hand.add(7);
+
+        assertEquals(firstSeven, hand.oldestSlotOf(7));
+        assertEquals(Hand.NONE, hand.oldestSlotOf(4));
+        assertEquals(2, hand.distinctCount());
+
+        assertEquals(7, hand.removeSlot(firstSeven));
+        assertEquals(secondSeven, hand.oldestSlotOf(7), "Next seven should become the oldest");
+        assertEquals("3 7", hand.toString());
+        assertThrows(IllegalArgumentException.class, () -> hand.removeSlot(firstSeven), "Removed slot should be rejected");
+
+        // Slots are reused but received order keeps counting
+        int reused = hand.add(3);
+        assertEquals(firstSeven, reused);
+        assertTrue(hand.receivedAt(reused) > hand.receivedAt(secondSeven));
+        assertEquals("3 7 3", hand.toString());
+
+        hand.removeSlot(secondSeven);
+        assertEquals(1, hand.distinctCount());
+        assertEquals(3, hand.distinctValue(0));
+    }
+
+    @Test
+    void valuesPassingThroughKeepTheTableConsistent() {
+        // Each card stays for four turns, so freed entries sit in the middle of other values' probe runs
+        Hand hand = new Hand();
+        for (int value = 1000; value < 1004; value++) {
+            hand.add(value);
+        }
+        for (int value = 1004; value < 11004; value++) {
+            hand.add(value);
+            assertEquals(value - 4, hand.removeAt(0));
+            assertEquals(4, hand.distinctCount());
+            assertEquals(1, hand.count(value));
+            assertEquals(1, hand.count(value - 3));
+            assertEquals(0, hand.count(value - 4));
+        }
+    }
+}
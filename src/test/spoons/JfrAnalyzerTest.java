@@ -0,0 +1,85 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.twoPlayerPack;
+
+class JfrAnalyzerTest {
+
+    // Recordings are dumped here, removed after each test
+    @TempDir
+    Path directory;
+
+    private static void playGame() {
+        CardGame game = quietGame(twoPlayerPack());
+        game.initialiseGame();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), game::startGame);
+    }
+
+    private static List<String> eventNames(Path path) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(path)) {
+            if (event.getEventType().getName().startsWith("spoons.")) {
+                names.add(event.getEventType().getName());
+            }
+        }
+        return names;
+    }
+
+    @Test
+    void reportsTurnsPerPlayer() throws Exception {
+        Path path = directory.resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("spoons.Game");
+            recording.enable("spoons.Turn");
+            recording.enable("spoons.DeckStall").withThreshold(Duration.ZERO);
+            recording.enable("spoons.WinnerSignal");
+            recording.start();
+            playGame();
+            recording.stop();
+            recording.dump(path);
+        }
+
+        assertTrue(eventNames(path).contains("spoons.WinnerSignal"), "Winner should be recorded");
+        JfrAnalyzer.Report report = JfrAnalyzer.analyze(path);
+        assertEquals(1, report.games());
+        JfrAnalyzer.PlayerSummary player1 = report.players().stream()
+                .filter(player -> player.playerId() == 1).findFirst().orElseThrow();
+        assertTrue(player1.turns() >= 4, "Player 1 needs at least 4 turns to win");
+        assertTrue(player1.maxNanos() > 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.print(new PrintStream(out, true), 5);
+        assertTrue(out.toString().contains("Slowest players by mean turn time:"));
+    }
+
+    @Test
+    void turnEventsAreOffByDefault() throws Exception {
+        Path path = directory.resolve("game_default.jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+            recording.start();
+            playGame();
+            recording.stop();
+            recording.dump(path);
+        }
+
+        List<String> names = eventNames(path);
+        assertTrue(names.contains("spoons.Game"), "Game event should be on by default");
+        assertFalse(names.contains("spoons.Turn"), "Turn events should be off by default");
+        assertTrue(JfrAnalyzer.analyze(path).players().isEmpty());
+    }
+}
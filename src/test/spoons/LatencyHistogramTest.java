@@ -0,0 +1,54 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void recordsCountSumAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(100);
+        histogram.record(1_000);
+        histogram.record(-5);  // Clock going backwards counts as zero
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(4, snapshot.count());
+        assertEquals(1_100, snapshot.sum());
+        assertEquals(1_000, snapshot.max());
+        assertEquals(275.0, snapshot.mean());
+    }
+
+    @Test
+    void percentilesAreWithinAFactorOfTwo() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        long p50 = snapshot.percentile(50);
+        assertTrue(p50 >= 500_000 && p50 < 1_000_000, "p50 was " + p50);
+        long p99 = snapshot.percentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 was " + p99);
+        assertEquals(1_000_000, snapshot.percentile(100), "p100 should be capped at the max");
+        assertEquals(0, LatencyHistogram.Snapshot.EMPTY.percentile(99));
+    }
+
+    @Test
+    void snapshotsMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+
+        LatencyHistogram.Snapshot merged = first.snapshot().merge(second.snapshot());
+        assertEquals(3, merged.count());
+        assertEquals(60, merged.sum());
+        assertEquals(30, merged.max());
+        assertEquals(merged, LatencyHistogram.Snapshot.EMPTY.merge(merged));
+    }
+}
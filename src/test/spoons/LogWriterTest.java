@@ -0,0 +1,107 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogWriterTest {
+
+    @Test
+    void flushWritesMessagesInOrder() throws IOException {
+        Path path = Paths.get("test_log_writer.txt");
+        Files.deleteIfExists(path);
+        LogWriter writer = new LogWriter();
+        LogWriter.Channel channel = writer.channel(path);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            String message = "Player 1 draws a " + i + " from deck 1\n";
+            channel.append(message);
+            expected.append(message);
+        }
+        writer.flush();
+
+        assertEquals(expected.toString(), Files.readString(path), "File should contain every message in order");
+        writer.close();
+    }
+
+    @Test
+    void closeFlushesAndWriterRestarts() throws IOException {
+        Path path = Paths.get("test_log_writer_restart.txt");
+        Files.deleteIfExists(path);
+        LogWriter writer = new LogWriter();
+        LogWriter.Channel channel = writer.channel(path);
+
+        channel.append("first\n");
+        writer.close();
+        assertEquals("first\n", Files.readString(path), "Close should write pending messages");
+
+        // Messages after a close reopen the file in append mode
+        channel.append("second\n");
+        writer.close();
+        assertEquals("first\nsecond\n", Files.readString(path), "Writer should restart after being closed");
+    }
+
+    // A writer nobody closes stops its thread on its own once idle, and starts it again for the next message
+    @Test
+    void writerStopsOnceIdle() throws Exception {
+        Path path = Paths.get("test_log_writer_idle.txt");
+        Files.deleteIfExists(path);
+        LogWriter writer = new LogWriter();
+        LogWriter.Channel channel = writer.channel(path);
+
+        channel.append("first\n");
+        assertTrue(writer.isRunning(), "Writer thread should start with the first message");
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (writer.isRunning()) {
+                Thread.sleep(10);
+            }
+        }, "Writer thread should stop once idle");
+        assertEquals("first\n", Files.readString(path), "An idle writer should have written everything");
+
+        channel.append("second\n");
+        writer.close();
+        assertFalse(writer.isRunning(), "Close should stop the writer thread");
+        assertEquals("first\nsecond\n", Files.readString(path), "Writer should restart after going idle");
+    }
+
+    // Several players logging at once must not interleave within a single file.
+    @Test
+    void concurrentChannelsKeepTheirOwnOrder() throws Exception {
+        int numChannels = 4;
+        int numMessages = 2000;
+        LogWriter writer = new LogWriter();
+        Thread[] threads = new Thread[numChannels];
+        Path[] paths = new Path[numChannels];
+
+        for (int c = 0; c < numChannels; c++) {
+            paths[c] = Paths.get("test_log_writer_" + c + ".txt");
+            Files.deleteIfExists(paths[c]);
+            LogWriter.Channel channel = writer.channel(paths[c]);
+            threads[c] = new Thread(() -> {
+                for (int i = 0; i < numMessages; i++) {
+                    channel.append(i + "\n");
+                }
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < numMessages; i++) {
+            expected.append(i).append("\n");
+        }
+        for (Path path : paths) {
+            assertEquals(expected.toString(), Files.readString(path), "Each file should be in append order");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackGeneratorTest {
+
+    private static PackGenerator generator(int numPlayers, PackGenerator.Distribution distribution, int parallelism) {
+        PackGenerator generator = new PackGenerator(numPlayers, distribution);
+        generator.setSeed(42);
+        generator.setParallelism(parallelism);
+        return generator;
+    }
+
+    private static Map<Integer, Integer> copies(int[] values) {
+        Map<Integer, Integer> copies = new HashMap<>();
+        for (int value : values) {
+            copies.merge(value, 1, Integer::sum);
+        }
+        return copies;
+    }
+
+    @Test
+    void samePackWhateverTheParallelism() throws IOException {
+        // More than two chunks, so chunks are filled out of order
+        int numPlayers = PackGenerator.CHUNK_CARDS / 4 + 3;
+        int[] expected = generator(numPlayers, PackGenerator.Distribution.ZIPF, 1).generate();
+        for (int parallelism : new int[]{1, 3, 8}) {
+            Path text = Paths.get("test_pack_generator.txt");
+            generator(numPlayers, PackGenerator.Distribution.ZIPF, parallelism).writeText(text);
+            assertArrayEquals(expected, PackLoader.load(text), "Text pack with " + parallelism + " threads");
+
+            Path binary = Paths.get("test_pack_generator.bin");
+            generator(numPlayers, PackGenerator.Distribution.ZIPF, parallelism)
+                    .writeBinary(binary, BinaryPack.Encoding.VARINT);
+            assertArrayEquals(expected, BinaryPack.read(binary), "Binary pack with " + parallelism + " threads");
+        }
+    }
+
+    @Test
+    void differentSeedsGiveDifferentPacks() {
+        PackGenerator generator = generator(100, PackGenerator.Distribution.UNIFORM, 2);
+        int[] first = generator.generate();
+        generator.setSeed(43);
+        assertFalse(Arrays.equals(first, generator.generate()));
+    }
+
+    @Test
+    void uniformValuesStayInRange() {
+        PackGenerator generator = generator(1000, PackGenerator.Distribution.UNIFORM, 2);
+        generator.setMaxValue(13);
+        Map<Integer, Integer> copies = copies(generator.generate());
+        assertEquals(13, copies.size(), "Every value should turn up in 8000 cards");
+        for (int value = 1; value <= 13; value++) {
+            int count = copies.get(value);
+            assertTrue(count > 8000 / 13 * 0.8 && count < 8000 / 13 * 1.2, value + " appeared " + count + " times");
+        }
+    }
+
+    @Test
+    void zipfFavoursLowValues() {
+        PackGenerator generator = generator(10_000, PackGenerator.Distribution.ZIPF, 2);
+        generator.setMaxValue(100);
+        Map<Integer, Integer> copies = copies(generator.generate());
+        // With s = 1 and 100 values, P(1) = 1 / H(100) is about 0.193 and P(2) half that
+        double ones = copies.get(1) / 80_000.0;
+        assertEquals(0.193, ones, 0.01);
+        assertEquals(2.0, copies.get(1) / (double) copies.get(2), 0.15);
+        assertTrue(copies.keySet().stream().allMatch(value -> value >= 1 && value <= 100));
+    }
+
+    @Test
+    void unwinnablePacksNeverHaveFourOfAKind() {
+        int numPlayers = PackGenerator.CHUNK_CARDS / 8 * 2 + 5;
+        int[] values = generator(numPlayers, PackGenerator.Distribution.UNWINNABLE, 4).generate();
+        assertTrue(copies(values).values().stream().allMatch(count -> count <= 3));
+        assertFalse(new GameSimulator(5).simulate(generator(5, PackGenerator.Distribution.UNWINNABLE, 1).generate(),
+                10_000).hasWinner());
+    }
+
+    @Test
+    void winnablePacksAreWon() {
+        for (int numPlayers : new int[]{1, 2, 5, 50}) {
+            for (long seed = 0; seed < 20; seed++) {
+                PackGenerator generator = new PackGenerator(numPlayers, PackGenerator.Distribution.WINNABLE);
+                generator.setSeed(seed);
+                generator.setMaxValue(numPlayers * 8);  // Few repeats, so the forced 1s decide the game
+                int[] values = generator.generate();
+                assertTrue(copies(values).get(1) >= 4);
+                assertTrue(new GameSimulator(numPlayers).simulate(values, 1_000_000).hasWinner(),
+                        numPlayers + " players with seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PackGenerator(0, PackGenerator.Distribution.UNIFORM));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PackGenerator(PackGenerator.MAX_PLAYERS + 1, PackGenerator.Distribution.UNIFORM));
+        PackGenerator generator = new PackGenerator(1, PackGenerator.Distribution.ZIPF);
+        assertThrows(IllegalArgumentException.class, () -> generator.setMaxValue(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setZipfExponent(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.setParallelism(0));
+    }
+}
@@ -0,0 +1,50 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.write;
+
+class PackLoaderTest {
+
+    @Test
+    void parsesLinesLikeParseIntOfTrim() throws IOException {
+        Path path = write("test_pack_loader.txt", "1\n 22 \r\n\t-3\r+4\n2147483647\n-2147483648");
+        assertArrayEquals(new int[]{1, 22, -3, 4, Integer.MAX_VALUE, Integer.MIN_VALUE}, PackLoader.load(path));
+    }
+
+    @Test
+    void rejectsInvalidLinesWithTheirText() throws IOException {
+        for (String line : new String[]{"abc", "1 2", "", "-", "2147483648", "99999999999999999999", "7x"}) {
+            Path path = write("test_pack_loader_invalid.txt", "5\n" + line + "\n6\n");
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PackLoader.load(path),
+                    "Line '" + line + "' should be rejected");
+            assertEquals("Invalid card value in pack: " + line, e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsEmptyFile() throws IOException {
+        Path path = write("test_pack_loader_empty.txt", "");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PackLoader.load(path));
+        assertEquals("Card pack file is empty", e.getMessage());
+    }
+
+    // The array grows past its first guess when lines are a single byte long
+    @Test
+    void loadsLargePack() throws IOException {
+        int numCards = 200_000;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < numCards; i++) {
+            text.append(i % 1000).append('\n');
+        }
+        int[] values = PackLoader.load(write("test_pack_loader_large.txt", text.toString()));
+        assertEquals(numCards, values.length);
+        for (int i = 0; i < numCards; i++) {
+            assertEquals(i % 1000, values[i]);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.write;
+
+class PackValidatorTest {
+
+    private static String lines(int... values) {
+        StringBuilder text = new StringBuilder();
+        for (int value : values) {
+            text.append(value).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void acceptsAValidPack() throws IOException {
+        Path path = write("test_pack_validator.txt", lines(1, 2, 3, 4, 5, 6, 7, 8, 1, 1, 1, 2, 3, 4, 5, 1));
+        PackValidator.Report report = PackValidator.validate(path, 8);
+        assertTrue(report.isValid(), report.errors().toString());
+        assertEquals(16, report.cards());
+        assertEquals(2, report.players());
+        assertEquals(1, report.minValue());
+        assertEquals(8, report.maxValue());
+        assertEquals(0, report.dealtWins());
+        assertTrue(report.winnable(), "There are five 1s");
+    }
+
+    @Test
+    void reportsDealtWinsAndUnwinnablePacks() throws IOException {
+        // Player 2's hand is four 7s, the 7s in the decks don't count as a dealt win
+        Path path = write("test_pack_validator_dealt.txt", lines(1, 2, 3, 4, 7, 7, 7, 7, 7, 7, 7, 7, 5, 6, 8, 9));
+        PackValidator.Report report = PackValidator.validate(path);
+        assertTrue(report.isValid());
+        assertEquals(1, report.dealtWins());
+
+        Path unwinnable = write("test_pack_validator_unwinnable.txt", lines(1, 1, 1, 2, 2, 2, 3, 3, 3, 4, 4, 4, 5, 5, 5, 6));
+        assertFalse(PackValidator.validate(unwinnable).winnable());
+    }
+
+    @Test
+    void catchesBadPacks() throws IOException {
+        Path wrongSize = write("test_pack_validator_size.txt", lines(1, 2, 3, 4, 5, 6, 7));
+        assertFalse(PackValidator.validate(wrongSize).isValid());
+
+        Path negative = write("test_pack_validator_negative.txt", lines(1, 2, -3, 4, 5, 6, 7, 8));
+        PackValidator.Report report = PackValidator.validate(negative);
+        assertFalse(report.isValid());
+        assertEquals("Invalid card pack: 1 negative values, the first at card 3.", report.errors().get(0));
+
+        Path tooLarge = write("test_pack_validator_large.txt", lines(1, 2, 3, 4, 5, 6, 7, 9));
+        assertFalse(PackValidator.validate(tooLarge, 8).isValid());
+        assertTrue(PackValidator.validate(tooLarge, 9).isValid());
+
+        Path garbage = write("test_pack_validator_garbage.txt", lines(1, 2, 3) + "x\n");
+        assertEquals("Invalid card value in pack: x", PackValidator.validate(garbage).errors().get(0));
+    }
+
+    // Copies are counted per distinct value, so huge values cost no more than small ones
+    @Test
+    void countsCopiesOfHugeValues() throws IOException {
+        int huge = Integer.MAX_VALUE;
+        Path path = write("test_pack_validator_huge.txt", lines(huge, 1, huge, 2, huge - 1, 3, huge, 4));
+        PackValidator.Report report = PackValidator.validate(path);
+        assertTrue(report.isValid());
+        assertEquals(huge, report.maxValue());
+        assertFalse(report.winnable(), "Only three copies of the largest value");
+
+        Path winnable = write("test_pack_validator_huge_win.txt", lines(huge, 1, huge, 2, huge, 3, huge, 4));
+        assertTrue(PackValidator.validate(winnable).winnable());
+    }
+
+    // The unwinnable pack has a third as many values as cards, far too many to keep in the table
+    @Test
+    void countsCopiesOfMillionsOfDistinctValues(@TempDir Path directory) throws IOException {
+        int players = 1_000_000;
+        int[] values = new int[players * 8];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 3 + 1;
+        }
+        Path path = directory.resolve("unwinnable.bin");
+        BinaryPack.write(path, values, players, BinaryPack.Encoding.FIXED);
+        PackValidator.Report report = PackValidator.validate(path);
+        assertTrue(report.isValid());
+        assertEquals(values.length / 3 + 1, report.maxValue());
+        assertFalse(report.winnable());
+
+        values[values.length - 1] = 1;  // A fourth 1, long after the counts have moved out of the table
+        BinaryPack.write(path, values, players, BinaryPack.Encoding.FIXED);
+        assertTrue(PackValidator.validate(path).winnable());
+    }
+
+    @Test
+    void checksGeneratedBinaryPacks() throws IOException {
+        Path path = Paths.get("test_pack_validator.bin");
+        PackGenerator generator = new PackGenerator(1000, PackGenerator.Distribution.UNWINNABLE);
+        generator.writeBinary(path, BinaryPack.Encoding.FIXED);
+        PackValidator.Report report = PackValidator.validate(path);
+        assertTrue(report.isValid());
+        assertEquals(8000, report.cards());
+        assertFalse(report.winnable());
+        assertEquals(0, report.dealtWins());
+
+        // A flipped byte fails the checksum
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[BinaryPack.HEADER_SIZE + 10] ^= 1;
+        Files.write(path, bytes);
+        assertEquals("Invalid card pack: checksum mismatch.", PackValidator.validate(path).errors().get(0));
+    }
+}
@@ -1,3 +1,5 @@
+package spoons;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
@@ -55,6 +57,25 @@ public class PlayerTest {
     }
 
 
+    // Card values of 100 or more are valid
+    @Test
+    public void testIsWinningLargeCardValues() {
+        Player player = createPlayerWithHand(new int[]{1000, 1000, 1000, 1000});
+        assertTrue(player.isWinningCondition());
+    }
+
+    // The win check follows cards leaving the hand as well as arriving
+    @Test
+    public void testIsWinningAfterDiscard() {
+        Player player = createPlayerWithHand(new int[]{7, 7, 7, 2});
+        player.receiveCard(new Card(7));
+        assertTrue(player.isWinningCondition());
+
+        player.setPreferredDenomination(2);
+        assertEquals(7, player.discardCard().value());
+        assertFalse(player.isWinningCondition());
+    }
+
     //  Discard a non-preferred card
     @Test
     public void testDiscardCardNonPreferred() {
@@ -76,6 +97,7 @@ public class PlayerTest {
         CardGame game = new CardGame(4, cardPack);
         Player player = new Player(1, 5, new Deck(1), new Deck(2), game);
         player.writeToFile("Test log message.");
+        player.flushLog();
 
         // Check the file content
         try (BufferedReader reader = new BufferedReader(new FileReader("player1_output.txt"))) {
@@ -101,6 +123,7 @@ public class PlayerTest {
         Player player = new Player(1, 5, new Deck(1), new Deck(2), game);
         String longMessage = "A".repeat(1000);
         player.writeToFile(longMessage);
+        player.flushLog();
 
         try (BufferedReader reader = new BufferedReader(new FileReader("player1_output.txt"))) {
             String line;
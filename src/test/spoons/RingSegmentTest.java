@@ -0,0 +1,163 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static spoons.TestFixtures.quietGame;
+import static spoons.TestFixtures.unwinnablePack;
+
+class RingSegmentTest {
+
+    private static final InetSocketAddress ANY_PORT = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    // Plays a ring split into segments in this process, each on its own thread as if it were in its own process
+    private static List<CardGame> playRing(int numPlayers, int[] pack, int segments, Consumer<CardGame> setup)
+            throws Exception {
+        List<CardGame> games = new ArrayList<>();
+        List<RingSegment> ring = new ArrayList<>();
+        InetSocketAddress coordinator = ANY_PORT;
+        for (int i = 0; i < segments; i++) {
+            CardGame game = quietGame(pack);
+            setup.accept(game);
+            RingSegment segment = RingSegment.open(game, segments, i, coordinator);
+            coordinator = ring.isEmpty() ? segment.getCoordinator() : coordinator;
+            game.initialiseGame();
+            games.add(game);
+            ring.add(segment);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < segments; i++) {
+            CardGame game = games.get(i);
+            RingSegment segment = ring.get(i);
+            threads.add(Thread.ofPlatform().start(() -> {
+                try (segment) {
+                    segment.connect();
+                    game.startGame();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join(30_000);
+            assertFalse(thread.isAlive(), "Every segment should finish");
+        }
+        assertNull(failure.get());
+        return games;
+    }
+
+    // Every card in every segment's hands and decks, sorted
+    private static int[] sortedCards(List<CardGame> games) {
+        return games.stream().map(CardGame::getResult)
+                .flatMap(result -> Arrays.stream(new int[][][]{result.finalHands(), result.deckContents()}))
+                .flatMap(Arrays::stream).flatMapToInt(Arrays::stream).sorted().toArray();
+    }
+
+    // Players 1, 3 and 5 are dealt four of a kind, each in a different segment, nobody else can ever win
+    private static int[] threeWinnersPack() {
+        int[] pack = IntStream.rangeClosed(1, 48).map(i -> 100 + i).toArray();
+        for (int player : new int[]{1, 3, 5}) {
+            Arrays.fill(pack, (player - 1) * 4, player * 4, player);
+        }
+        return pack;
+    }
+
+    @Test
+    void segmentsAgreeOnASingleWinner() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            List<CardGame> games = playRing(6, threeWinnersPack(), 3, game -> { });
+            int winner = games.get(0).getWinnerId();
+            assertTrue(winner == 1 || winner == 3 || winner == 5, "Winner was " + winner);
+            for (CardGame game : games) {
+                assertEquals(winner, game.getWinnerId(), "Every segment should have the coordinator's verdict");
+                assertEquals(GameOutcome.WON, game.getOutcome());
+            }
+            CardGame winningSegment = games.get((winner - 1) / 2);
+            assertTrue(winningSegment.getPlayer(winner).isWinningCondition());
+            assertEquals(2, winningSegment.getPlayers().size());
+        }
+    }
+
+    // Cards on their way between segments when the game ends reach the next segment's first deck
+    @Test
+    void noCardIsLostBetweenSegments() throws Exception {
+        int[] pack = unwinnablePack(12);
+        for (ThreadMode mode : ThreadMode.values()) {
+            List<CardGame> games = playRing(12, pack, 3, game -> {
+                game.setThreadMode(mode);
+                game.setMaxTurns(20_000);
+            });
+            int[] expected = pack.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, sortedCards(games), mode.toString());
+            for (CardGame game : games) {
+                assertEquals(GameOutcome.TURN_LIMIT, game.getOutcome(), mode.toString());
+                assertEquals(CardGame.NO_WINNER, game.getWinnerId());
+                for (int[] hand : game.getResult().finalHands()) {
+                    assertEquals(4, hand.length);
+                }
+            }
+            assertTrue(games.stream().anyMatch(game -> game.getMetrics().getTotalTurns() >= 20_000));
+        }
+    }
+
+    // The other process writes its logs into the temporary directory, removed with them once it has exited
+    @Test
+    void segmentsPlayInTheirOwnProcesses(@TempDir Path directory) throws IOException {
+        int[] pack = IntStream.rangeClosed(1, 64).map(i -> 100 + i).toArray();
+        Arrays.fill(pack, 24, 28, 7);  // Player 7, in the second process, is dealt four 7s
+        Path packFile = directory.resolve("pack.txt");
+        Files.write(packFile, Arrays.stream(pack).mapToObj(Integer::toString).toList());
+
+        CardGame game = quietGame(pack);
+        RingSegment segment = RingSegment.launch(game, packFile, 2, directory);
+        try (segment) {  // Waits for the other process, even if this one fails
+            game.initialiseGame();
+            segment.connect();
+            game.startGame();
+        }
+
+        assertEquals(7, game.getWinnerId());
+        assertEquals(List.of(1, 2, 3, 4), game.getPlayers().stream().map(Player::getPlayerId).toList());
+        assertEquals(0, segment.getProcesses().getFirst().exitValue());
+        assertTrue(Files.readString(directory.resolve("player7_output.txt")).contains("Player 7 wins"),
+                "The other process logs its own players");
+        assertFalse(Files.exists(directory.resolve("player1_output.txt")));
+    }
+
+    @Test
+    void onlyNewGamesCanBeSplit() throws IOException {
+        int[] pack = IntStream.range(0, 24).toArray();
+        assertThrows(IllegalArgumentException.class, () -> RingSegment.open(quietGame(pack), 4, 0, ANY_PORT));
+        assertThrows(IllegalArgumentException.class, () -> RingSegment.open(quietGame(pack), 2, 2, ANY_PORT));
+
+        CardGame initialised = quietGame(pack);
+        initialised.initialiseGame();
+        assertThrows(IllegalStateException.class, () -> RingSegment.open(initialised, 2, 1, ANY_PORT));
+
+        CardGame game = quietGame(pack);
+        try (RingSegment segment = RingSegment.open(game, 2, 1, ANY_PORT)) {
+            assertEquals(2, segment.getFirstPlayer());
+            assertEquals(3, segment.getLastPlayer());
+            game.initialiseGame();
+            assertArrayEquals(new int[]{4, 5, 6, 7}, game.getPlayer(2).getHandValues(), "Dealt as in the whole ring");
+            assertArrayEquals(new int[]{16, 17, 18, 19}, game.getDecks().getFirst().getValues());
+            assertThrows(IllegalStateException.class, game::checkpoint);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package spoons;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Packs, games and files shared by the tests.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // Player 1 draws the four 1s from deck 1 and wins, player 2 can never collect four of a kind
+    static int[] twoPlayerPack() {
+        return new int[]{2, 3, 4, 5, 6, 7, 8, 9, 1, 1, 1, 1, 10, 11, 12, 13};
+    }
+
+    // A pack of cards with the given values, in dealing order
+    static List<Card> cardsOf(int... values) {
+        return Arrays.stream(values).mapToObj(Card::new).collect(Collectors.toList());
+    }
+
+    // Every value at most three times, so nobody can ever win
+    static int[] unwinnablePack(int numPlayers) {
+        int[] pack = new int[numPlayers * 8];
+        for (int i = 0; i < pack.length; i++) {
+            pack[i] = i / 3 + 1;
+        }
+        return pack;
+    }
+
+    // A game for the pack's number of players that writes no files and prints nothing
+    static CardGame quietGame(int[] pack) {
+        return quiet(new CardGame(pack.length / 8, pack));
+    }
+
+    // Turns off a game's files and console output, for games made some other way such as resumed ones
+    static CardGame quiet(CardGame game) {
+        game.setLoggingEnabled(false);
+        game.setAnnouncing(false);
+        return game;
+    }
+
+    // Writes a file in the working directory, replacing it if it exists
+    static Path write(String name, String contents) throws IOException {
+        Path path = Paths.get(name);
+        Files.writeString(path, contents);
+        return path;
+    }
+}
@@ -0,0 +1,58 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentStatsTest {
+
+    private static SimulationResult result(int winnerId, long turns) {
+        return new SimulationResult(winnerId, turns, new int[12]);
+    }
+
+    @Test
+    void countsWinsPerSeat() {
+        TournamentStats stats = new TournamentStats(3);
+        stats.record(result(1, 10), 1_000);
+        stats.record(result(3, 20), 3_000);
+        stats.record(result(1, 30), 2_000);
+        stats.record(result(SimulationResult.NO_WINNER, 100), 4_000);
+
+        assertEquals(4, stats.getGames());
+        assertEquals(2, stats.getWins(1));
+        assertEquals(0, stats.getWins(2));
+        assertEquals(1, stats.getWins(3));
+        assertEquals(1, stats.getUndecided());
+        assertEquals(0.5, stats.getWinRate(1));
+        assertEquals(40.0, stats.getTurns().mean());
+        assertEquals(100, stats.getTurns().max());
+        assertEquals(2_500.0, stats.getDurations().mean());
+    }
+
+    @Test
+    void mergingMatchesRecordingInOnePlace() {
+        TournamentStats all = new TournamentStats(2);
+        TournamentStats first = new TournamentStats(2);
+        TournamentStats second = new TournamentStats(2);
+        for (int game = 0; game < 100; game++) {
+            SimulationResult result = result(game % 3 == 0 ? 2 : 1, game);
+            all.record(result, game * 10L);
+            (game < 40 ? first : second).record(result, game * 10L);
+        }
+        first.merge(second);
+
+        assertEquals(all.getGames(), first.getGames());
+        assertEquals(all.getWins(1), first.getWins(1));
+        assertEquals(all.getWins(2), first.getWins(2));
+        assertEquals(all.getTurns(), first.getTurns());
+        assertEquals(all.getDurations(), first.getDurations());
+    }
+
+    @Test
+    void rejectsMismatchedPlayers() {
+        TournamentStats stats = new TournamentStats(2);
+        assertThrows(IllegalArgumentException.class, () -> stats.merge(new TournamentStats(3)));
+        assertThrows(IllegalArgumentException.class, () -> new TournamentStats(0));
+        assertEquals(0.0, stats.getWinRate(1), "An empty tournament has no win rate");
+    }
+}
@@ -0,0 +1,109 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    private static Path writePack(Path directory, String name, int numPlayers, int distinctValues) throws IOException {
+        StringBuilder pack = new StringBuilder();
+        for (int i = 0; i < numPlayers * 8; i++) {
+            pack.append(i % distinctValues + 1).append('\n');
+        }
+        return Files.writeString(directory.resolve(name), pack);
+    }
+
+    @Test
+    void playsEveryPackInADirectory() throws IOException {
+        Path directory = Files.createTempDirectory("tournament");
+        writePack(directory, "b_four.txt", 4, 4);
+        writePack(directory, "a_two.txt", 2, 2);
+        List<Path> packs = Tournament.findPacks(directory);
+        assertEquals(List.of(directory.resolve("a_two.txt"), directory.resolve("b_four.txt")), packs);
+
+        Tournament tournament = new Tournament(packs, 100);
+        tournament.setParallelism(3);
+        tournament.setSeed(7);
+        List<Tournament.PackResult> results = tournament.run();
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).stats().getNumPlayers());
+        assertEquals(4, results.get(1).stats().getNumPlayers());
+        for (Tournament.PackResult result : results) {
+            TournamentStats stats = result.stats();
+            assertEquals(100, stats.getGames());
+            long wins = 0;
+            for (int seat = 1; seat <= stats.getNumPlayers(); seat++) {
+                wins += stats.getWins(seat);
+            }
+            assertEquals(100, wins + stats.getUndecided());
+            assertEquals(100, stats.getTurns().count());
+        }
+    }
+
+    // Game i always gets the same shuffle, so the pool size can't change the outcome
+    @Test
+    void resultsDoNotDependOnParallelism() throws IOException {
+        Path pack = writePack(Files.createTempDirectory("tournament"), "pack.txt", 6, 7);
+        Tournament serial = new Tournament(List.of(pack), 300);
+        serial.setParallelism(1);
+        Tournament parallel = new Tournament(List.of(pack), 300);
+        parallel.setParallelism(4);
+
+        TournamentStats one = serial.run().getFirst().stats();
+        TournamentStats four = parallel.run().getFirst().stats();
+        for (int seat = 1; seat <= 6; seat++) {
+            assertEquals(one.getWins(seat), four.getWins(seat));
+        }
+        assertEquals(one.getTurns(), four.getTurns());
+    }
+
+    @Test
+    void unshuffledPackPlaysAsDealt() throws IOException {
+        Path pack = Files.writeString(Paths.get("test_tournament_pack.txt"),
+                "2\n3\n4\n5\n6\n7\n8\n9\n1\n1\n1\n1\n10\n11\n12\n13\n");
+        Tournament tournament = new Tournament(List.of(pack), 10);
+        tournament.setShuffle(false);
+        TournamentStats stats = tournament.run().getFirst().stats();
+
+        assertEquals(10, stats.getWins(1), "Player 1 wins every game dealt this way");
+        assertEquals(7, stats.getTurns().max());
+    }
+
+    @Test
+    void writesCsvAndJson() throws IOException {
+        Path pack = writePack(Files.createTempDirectory("tournament"), "pack.txt", 2, 2);
+        List<Tournament.PackResult> results = new Tournament(List.of(pack), 20).run();
+
+        StringBuilder csv = new StringBuilder();
+        Tournament.writeCsv(results, csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(3, lines.length, "Header and one row per seat");
+        assertTrue(lines[0].startsWith("pack,players,games,"));
+        assertTrue(lines[1].startsWith("pack.txt,2,20,"));
+        assertTrue(lines[2].contains(",2,"));
+
+        StringBuilder json = new StringBuilder();
+        Tournament.writeJson(results, json);
+        assertTrue(json.toString().startsWith("[\n  {\"pack\": "));
+        assertTrue(json.toString().contains("\"players\": 2, \"games\": 20"));
+        assertTrue(json.toString().contains("\"histogram\": [{\"upTo\": "));
+        assertTrue(json.toString().endsWith("}\n]\n"));
+    }
+
+    @Test
+    void rejectsBadPacksAndSettings() throws IOException {
+        Path pack = Files.writeString(Paths.get("test_tournament_short.txt"), "1\n2\n3\n");
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(pack), 1).run());
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(pack), 0));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(pack), 1).setParallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(pack), 1).setMaxTurns(0));
+    }
+}
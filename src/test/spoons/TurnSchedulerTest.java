@@ -0,0 +1,84 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnSchedulerTest {
+
+    // A 1 tops each of decks 2 to 5 and every other card is unique. Everyone else passes the 1s on,
+    // always at least four cards apart, so they travel the ring until player 1 holds all of them.
+    private static CardGame ringGame(int numPlayers) {
+        List<Card> cardPack = new ArrayList<>();
+        int unique = 1000;
+        for (int i = 0; i < numPlayers * 4; i++) {
+            cardPack.add(new Card(unique++));
+        }
+        for (int deck = 1; deck <= numPlayers; deck++) {
+            for (int j = 0; j < 4; j++) {
+                cardPack.add(new Card(deck >= 2 && deck <= 5 && j == 0 ? 1 : unique++));
+            }
+        }
+        CardGame game = new CardGame(numPlayers, cardPack);
+        game.setLoggingEnabled(false);
+        game.initialiseGame();
+        return game;
+    }
+
+    @Test
+    void largeRingRunsOnAFewWorkers() {
+        CardGame game = ringGame(500);
+        Set<Thread> workers = ConcurrentHashMap.newKeySet();
+        TurnScheduler scheduler = new TurnScheduler(game.getPlayers(), 2, task -> {
+            Thread thread = new Thread(task);
+            workers.add(thread);
+            return thread;
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), scheduler::run, "Every player should finish");
+        assertEquals(1, game.getWinnerId());
+        assertEquals(2, workers.size(), "Players should share the workers");
+        assertTrue(game.getMetrics().getTotalTurns() >= 500 * 4, "The 1s should pass through every hand");
+
+        int cards = 0;
+        for (Player player : game.getPlayers()) {
+            cards += player.getHand().size();
+        }
+        for (Deck deck : game.getDecks()) {
+            cards += deck.size();
+        }
+        assertEquals(500 * 8, cards, "No card should be lost or duplicated");
+    }
+
+    @Test
+    void waitingPlayersAreWokenByTheirNeighbours() {
+        // One worker means a waiting player can only run again once a neighbour has woken it
+        CardGame game = ringGame(50);
+        TurnScheduler scheduler = new TurnScheduler(game.getPlayers(), 1, Thread::new);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), scheduler::run);
+        assertEquals(1, game.getWinnerId());
+        for (Player player : game.getPlayers()) {
+            assertTrue(player.getPlayerId() == 1 || !player.isWinningCondition());
+        }
+    }
+
+    @Test
+    void listenersAreRemovedAfterTheGame() {
+        CardGame game = ringGame(8);
+        new TurnScheduler(game.getPlayers(), 2, Thread::new).run();
+        Deck deck = game.getDecks().get(0);
+        int size = deck.size();
+        // With no listener left, adding and drawing just move the card
+        deck.addValue(7);
+        assertEquals(size + 1, deck.size());
+        deck.drawValue();
+        assertEquals(size, deck.size());
+    }
+}
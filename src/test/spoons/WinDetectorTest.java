@@ -0,0 +1,110 @@
+package spoons;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WinDetectorTest {
+
+    // Random hands from few values, so plenty are four of a kind
+    private static int[] randomHands(int numHands, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] hands = new int[numHands * 4];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = random.nextInt(2) - 1;
+        }
+        return hands;
+    }
+
+    private static boolean isWinningCondition(int[] hands, int h) {
+        Hand hand = new Hand();
+        for (int i = 0; i < 4; i++) {
+            hand.add(hands[h * 4 + i]);
+        }
+        return hand.hasFourOfAKind();
+    }
+
+    @Test
+    void agreesWithHandsWinningCondition() {
+        // Sizes around every vector width, so the scalar tail is covered too
+        for (int numHands = 0; numHands < 150; numHands++) {
+            int[] hands = randomHands(numHands, numHands);
+            long[] winners = new long[(numHands + 63) / 64];
+            int count = WinDetector.winningHands(hands, numHands, winners);
+            int expected = 0;
+            int first = -1;
+            for (int h = 0; h < numHands; h++) {
+                boolean wins = isWinningCondition(hands, h);
+                assertEquals(wins, (winners[h >>> 6] & 1L << h) != 0, "Hand " + h + " of " + numHands);
+                if (wins) {
+                    expected++;
+                    if (first < 0) {
+                        first = h;
+                    }
+                }
+            }
+            assertEquals(expected, count);
+            assertEquals(first, WinDetector.firstWinningHand(hands, 0, numHands));
+
+            long[] scalar = new long[winners.length];
+            assertEquals(expected, WinDetector.scalarWinningHands(hands, numHands, scalar));
+            assertArrayEquals(scalar, winners);
+        }
+    }
+
+    @Test
+    void findsFirstWinnerFromAnyHand() {
+        int[] hands = new int[100 * 4];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = i;  // No hand wins
+        }
+        assertEquals(-1, WinDetector.firstWinningHand(hands, 0, 100));
+        for (int winner : new int[]{0, 3, 4, 17, 63, 64, 99}) {
+            int[] copy = hands.clone();
+            Arrays.fill(copy, winner * 4, winner * 4 + 4, 7);
+            for (int from = 0; from <= 100; from += 5) {
+                int expected = winner >= from ? winner : -1;
+                assertEquals(expected, WinDetector.firstWinningHand(copy, from, 100), "From " + from);
+            }
+            assertEquals(-1, WinDetector.firstWinningHand(copy, 0, winner));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> WinDetector.firstWinningHand(hands, 0, 101));
+    }
+
+    @Test
+    void segmentsGiveTheSameAnswers() {
+        int[] hands = randomHands(500, 1);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(hands.length * 4L, 4);
+            MemorySegment.copy(hands, 0, segment, ValueLayout.JAVA_INT, 0, hands.length);
+            for (int from = 0; from < 500; from += 7) {
+                int expected = WinDetector.scalarFirstWinningHand(hands, from, 500);
+                assertEquals(expected, WinDetector.firstWinningHand(segment, from, 500));
+                assertEquals(expected, WinDetector.scalarFirstWinningHand(segment, from, 500));
+            }
+        }
+    }
+
+    @Test
+    void findsEachGamesLowestWinningSeat() {
+        for (int numPlayers : new int[]{1, 3, 4, 7, 70}) {
+            int games = 40;
+            int[] hands = randomHands(games * numPlayers, numPlayers);
+            int[] winnerIds = new int[games];
+            int won = WinDetector.winningPlayers(hands, numPlayers, winnerIds);
+            int expectedWon = 0;
+            for (int g = 0; g < games; g++) {
+                int first = WinDetector.scalarFirstWinningHand(hands, g * numPlayers, (g + 1) * numPlayers);
+                assertEquals(first < 0 ? CardGame.NO_WINNER : first - g * numPlayers + 1, winnerIds[g]);
+                expectedWon += first < 0 ? 0 : 1;
+            }
+            assertEquals(expectedWon, won);
+        }
+    }
+}